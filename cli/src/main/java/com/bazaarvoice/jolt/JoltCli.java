@@ -34,6 +34,7 @@ public class JoltCli {
         temp.put( JoltCliUtilities.DIFFY_COMMAND_IDENTIFIER, new DiffyCliProcessor() );
         temp.put( JoltCliUtilities.SORT_COMMAND_IDENTIFIER, new SortCliProcessor() );
         temp.put( JoltCliUtilities.TRANSFORM_COMMAND_IDENTIFIER, new TransformCliProcessor() );
+        temp.put( JoltCliUtilities.SNAPSHOT_COMMAND_IDENTIFIER, new SnapshotCliProcessor() );
 
         JOLT_CLI_PROCESSOR_MAP = Collections.unmodifiableMap( temp );
     }
@@ -53,7 +54,8 @@ public class JoltCli {
         ArgumentParser parser = ArgumentParsers.newArgumentParser( "jolt" );
         Subparsers subparsers = parser.addSubparsers().help( "transform: given a Jolt transform spec, runs the specified transforms on the input data.\n" +
                 "diffy: diff two JSON documents.\n" +
-                "sort: sort a JSON document alphabetically for human readability." );
+                "sort: sort a JSON document alphabetically for human readability.\n" +
+                "snapshot: build a Jolt transform spec and save it as a Chainr snapshot that loads without parsing the spec." );
 
         for ( Map.Entry<String, JoltCliProcessor> entry : JOLT_CLI_PROCESSOR_MAP.entrySet() ) {
             entry.getValue().intializeSubCommand( subparsers );
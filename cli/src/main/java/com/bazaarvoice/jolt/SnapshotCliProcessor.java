@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.chainr.ChainrSnapshot;
+import net.sourceforge.argparse4j.impl.Arguments;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import net.sourceforge.argparse4j.inf.Subparsers;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+
+/**
+ * The JoltCliProcessor for Chainr snapshots.  Builds a Chainr from a spec file and writes it out as
+ *  a snapshot, which ChainrFactory.fromSnapshot can load without parsing the spec.
+ */
+public class SnapshotCliProcessor implements JoltCliProcessor {
+
+    /**
+     * Initialize the arg parser for the Snapshot sub command
+     *
+     * @param subparsers The Subparsers object to attach the new Subparser to
+     */
+    @Override
+    public void intializeSubCommand( Subparsers subparsers ) {
+        Subparser snapshotParser = subparsers.addParser( "snapshot" )
+                .description( "Jolt CLI Snapshot Tool. This tool will build the Chainr described by a JSON spec file and write it " +
+                        "to a snapshot file, which can be loaded with ChainrFactory.fromSnapshot without parsing the spec again. " +
+                        "The snapshot can only be loaded by the same version of Jolt. The program will return an exit code of 0 " +
+                        "if the snapshot is written successfully or a 1 if an error is encountered" )
+                .defaultHelp( true );
+
+        snapshotParser.addArgument( "spec" ).help( "File path to the Jolt Transform Spec to snapshot. " +
+                "This file should contain valid JSON." )
+                .type( Arguments.fileType().verifyExists().verifyIsFile().verifyCanRead() );
+        snapshotParser.addArgument( "output" ).help( "File path to write the snapshot to." )
+                .type( Arguments.fileType() );
+        snapshotParser.addArgument( "-s" ).help( "Suppress output and run silently." )
+                .action( Arguments.storeTrue() );
+    }
+
+    /**
+     * Process the snapshot sub command
+     *
+     * @param ns Namespace which contains parsed commandline arguments
+     * @return true if the snapshot was written, false if an error occured
+     */
+    @Override
+    public boolean process( Namespace ns ) {
+
+        boolean suppressOutput = ns.getBoolean( "s" );
+
+        Chainr chainr;
+        try {
+            chainr = ChainrFactory.fromFile( (File) ns.get( "spec" ) );
+        } catch ( Exception e ) {
+            JoltCliUtilities.printToStandardOut( "Chainr failed to load spec file.", suppressOutput );
+            return false;
+        }
+
+        File output = ns.get( "output" );
+        try ( OutputStream out = new BufferedOutputStream( new FileOutputStream( output ) ) ) {
+            ChainrSnapshot.write( chainr, out );
+        } catch ( Exception e ) {
+            JoltCliUtilities.printToStandardOut( "Chainr failed to write snapshot file " + output.getAbsolutePath() + " : " + e.getMessage(), suppressOutput );
+            return false;
+        }
+
+        JoltCliUtilities.printToStandardOut( "Wrote Chainr snapshot to " + output.getAbsolutePath(), suppressOutput );
+        return true;
+    }
+}
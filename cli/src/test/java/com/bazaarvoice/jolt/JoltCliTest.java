@@ -18,6 +18,7 @@ package com.bazaarvoice.jolt;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.io.IOException;
 
 public class JoltCliTest {
@@ -52,5 +53,13 @@ public class JoltCliTest {
 
         // transform: well formed input should return true
         Assert.assertTrue( JoltCli.runJolt( new String[] {"transform", path + "spec.json", path + "transformInput.json"} ) );
+
+        // snapshot: a snapshot of the spec should load and run like the spec itself
+        File snapshot = File.createTempFile( "jolt", ".snapshot" );
+        snapshot.deleteOnExit();
+        Assert.assertTrue( JoltCli.runJolt( new String[] {"snapshot", path + "spec.json", snapshot.getAbsolutePath(), "-s"} ) );
+        Object input = JsonUtils.filepathToObject( path + "transformInput.json" );
+        Assert.assertEquals( ChainrFactory.fromSnapshot( snapshot ).transform( JsonUtils.cloneJson( input ) ),
+                ChainrFactory.fromFileSystem( path + "spec.json" ).transform( input ) );
     }
 }
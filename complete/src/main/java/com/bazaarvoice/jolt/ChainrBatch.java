@@ -0,0 +1,302 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.exception.TransformException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Runs a Chainr over many documents, either from an Iterable / Stream of already hydrated
+ *  documents, or from newline delimited JSON (NDJSON) on an InputStream.
+ *
+ * NDJSON input is read with a single streaming parser, and output written with a single
+ *  generator, for the whole stream, rather than a JsonUtil round trip per document.
+ *
+ * By default documents are transformed on the calling thread.  If an ExecutorService is
+ *  provided, the Chainr runs on it with at most maxInFlight documents outstanding at a time,
+ *  and results are emitted either in input order or in completion order.  Parsing and
+ *  writing always happen on the calling thread.
+ *
+ * The Chainr must be safe to call from several threads at once when an ExecutorService is
+ *  used, which is true of the stock transforms.
+ */
+public class ChainrBatch {
+
+    private final Chainr chainr;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    private ExecutorService executor = null;
+    private int maxInFlight = 1;
+    private boolean ordered = true;
+
+    public ChainrBatch( Chainr chainr ) {
+        this( chainr, new ObjectMapper() );
+    }
+
+    /**
+     * @param chainr the Chainr to run over each document
+     * @param objectMapper ObjectMapper used for NDJSON reading and writing, a copy of which is configured with the stock Jolt mappings
+     */
+    public ChainrBatch( Chainr chainr, ObjectMapper objectMapper ) {
+
+        if ( chainr == null ) {
+            throw new IllegalArgumentException( "ChainrBatch requires a non-null Chainr." );
+        }
+        if ( objectMapper == null ) {
+            throw new IllegalArgumentException( "ChainrBatch requires a non-null ObjectMapper." );
+        }
+
+        this.chainr = chainr;
+        // configure a copy, so as to not change the caller's mapper
+        this.objectMapper = objectMapper.copy();
+        JsonUtilImpl.configureStockJoltObjectMapper( this.objectMapper );
+
+        reader = this.objectMapper.readerFor( Object.class );
+        // we flush once at the end of the stream, not once per document
+        writer = this.objectMapper.writer().without( SerializationFeature.FLUSH_AFTER_WRITE_VALUE );
+    }
+
+    /**
+     * Run the Chainr on a bounded number of workers from the given ExecutorService.
+     *
+     * @param executor ExecutorService to run the Chainr on, or null to run on the calling thread
+     * @param maxInFlight maximum number of documents submitted but not yet emitted
+     */
+    public ChainrBatch executor( ExecutorService executor, int maxInFlight ) {
+
+        if ( maxInFlight < 1 ) {
+            throw new IllegalArgumentException( "ChainrBatch requires maxInFlight of at least 1, got " + maxInFlight );
+        }
+
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * @param ordered if true, the default, results are emitted in input order, otherwise in the order they complete
+     */
+    public ChainrBatch ordered( boolean ordered ) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * @param inputs documents to transform, they may be modified by the transform
+     * @return the transformed documents
+     */
+    public List<Object> transformAll( Iterable<?> inputs ) {
+        return transformAll( inputs.iterator() );
+    }
+
+    /**
+     * @param inputs documents to transform, they may be modified by the transform
+     * @return the transformed documents
+     */
+    public List<Object> transformAll( Stream<?> inputs ) {
+        return transformAll( inputs.iterator() );
+    }
+
+    private List<Object> transformAll( Iterator<?> inputs ) {
+
+        final List<Object> results = new ArrayList<>();
+        run( inputs, new Sink<RuntimeException>() {
+            @Override
+            public void accept( Object output ) {
+                results.add( output );
+            }
+        } );
+        return results;
+    }
+
+    /**
+     * Transform each JSON document in the input, writing each result to the output
+     *  on its own line.  Neither stream is closed.
+     *
+     * @return the number of documents written
+     */
+    public long transformNdjson( InputStream in, OutputStream out ) throws IOException {
+
+        JsonParser parser = objectMapper.getFactory().createParser( in );
+        parser.disable( JsonParser.Feature.AUTO_CLOSE_SOURCE );
+
+        final JsonGenerator generator = objectMapper.getFactory().createGenerator( out );
+        generator.disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+        // we write our own line separator after each document
+        generator.setRootValueSeparator( null );
+
+        final long[] count = { 0 };
+        try {
+            Iterator<Object> documents = reader.readValues( parser );
+            run( documents, new Sink<IOException>() {
+                @Override
+                public void accept( Object output ) throws IOException {
+                    writer.writeValue( generator, output );
+                    generator.writeRaw( '\n' );
+                    count[0]++;
+                }
+            } );
+        }
+        catch ( RuntimeException re ) {
+            // MappingIterator hides parse failures behind a RuntimeException
+            if ( re.getCause() instanceof IOException ) {
+                throw (IOException) re.getCause();
+            }
+            throw re;
+        }
+        finally {
+            generator.close();
+            parser.close();
+        }
+
+        return count[0];
+    }
+
+    private interface Sink<E extends Exception> {
+        void accept( Object output ) throws E;
+    }
+
+    private <E extends Exception> void run( Iterator<?> inputs, Sink<E> sink ) throws E {
+
+        if ( executor == null ) {
+            while ( inputs.hasNext() ) {
+                sink.accept( chainr.transform( inputs.next() ) );
+            }
+        }
+        else if ( ordered ) {
+            runOrdered( inputs, sink );
+        }
+        else {
+            runUnordered( inputs, sink );
+        }
+    }
+
+    private <E extends Exception> void runOrdered( Iterator<?> inputs, Sink<E> sink ) throws E {
+
+        ArrayDeque<Future<Object>> pending = new ArrayDeque<>( maxInFlight );
+        try {
+            while ( inputs.hasNext() ) {
+                if ( pending.size() == maxInFlight ) {
+                    sink.accept( await( pending.poll() ) );
+                }
+                pending.add( executor.submit( new Job( inputs.next() ) ) );
+            }
+            while ( !pending.isEmpty() ) {
+                sink.accept( await( pending.poll() ) );
+            }
+        }
+        finally {
+            cancel( pending );
+        }
+    }
+
+    private <E extends Exception> void runUnordered( Iterator<?> inputs, Sink<E> sink ) throws E {
+
+        CompletionService<Object> completionService = new ExecutorCompletionService<>( executor );
+        // only the futures still in flight, so that finished outputs are not held on to
+        Set<Future<Object>> inFlight = new HashSet<>();
+        try {
+            while ( inputs.hasNext() ) {
+                if ( inFlight.size() == maxInFlight ) {
+                    sink.accept( await( take( completionService, inFlight ) ) );
+                }
+                inFlight.add( completionService.submit( new Job( inputs.next() ) ) );
+            }
+            while ( ! inFlight.isEmpty() ) {
+                sink.accept( await( take( completionService, inFlight ) ) );
+            }
+        }
+        finally {
+            cancel( inFlight );
+        }
+    }
+
+    private class Job implements Callable<Object> {
+
+        private final Object input;
+
+        private Job( Object input ) {
+            this.input = input;
+        }
+
+        @Override
+        public Object call() {
+            return chainr.transform( input );
+        }
+    }
+
+    private static Future<Object> take( CompletionService<Object> completionService, Set<Future<Object>> inFlight ) {
+        try {
+            Future<Object> future = completionService.take();
+            inFlight.remove( future );
+            return future;
+        }
+        catch ( InterruptedException ie ) {
+            Thread.currentThread().interrupt();
+            throw new TransformException( "ChainrBatch interrupted while waiting on a transform.", ie );
+        }
+    }
+
+    private static Object await( Future<Object> future ) {
+        try {
+            return future.get();
+        }
+        catch ( InterruptedException ie ) {
+            Thread.currentThread().interrupt();
+            throw new TransformException( "ChainrBatch interrupted while waiting on a transform.", ie );
+        }
+        catch ( ExecutionException ee ) {
+            Throwable cause = ee.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new TransformException( "ChainrBatch transform failed.", cause );
+        }
+    }
+
+    private static void cancel( Iterable<Future<Object>> futures ) {
+        for ( Future<Object> future : futures ) {
+            future.cancel( true );
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
+import com.bazaarvoice.jolt.common.SpecHash;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded, thread safe cache of built Chainrs, keyed by the content of their spec rather than
+ *  by where the spec came from.
+ *
+ * Specs are reduced to their compact JSON form, so formatting and whitespace do not matter, and
+ *  hashed with SHA-256.  Identical specs loaded from different paths or tenants therefore share
+ *  a single Chainr.  Key order is kept as is, as the order of sibling wildcard keys can decide
+ *  which of them matches first.
+ *
+ * Once full, the least recently used Chainr is evicted.  Chainrs are built outside of the cache
+ *  lock, so a slow build does not hold up lookups of other specs.  Two threads missing on the same
+ *  spec at the same time may both build it, in which case the first one cached wins.
+ *
+ * Sharing a Chainr this way relies on it being safe to share across threads, see {@link Chainr}.
+ */
+public class ChainrCache {
+
+    private final int maxSize;
+    private final Map<Key, Chainr> cache;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * @param maxSize maximum number of Chainrs to hold
+     */
+    public ChainrCache( final int maxSize ) {
+
+        if ( maxSize < 1 ) {
+            throw new IllegalArgumentException( "ChainrCache requires maxSize of at least 1, got " + maxSize );
+        }
+
+        this.maxSize = maxSize;
+        // access ordered, so that the eldest entry is the least recently used one
+        this.cache = new LinkedHashMap<Key, Chainr>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<Key, Chainr> eldest ) {
+                if ( size() > ChainrCache.this.maxSize ) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Chainr fromClassPath( String chainrSpecClassPath ) {
+        return fromClassPath( chainrSpecClassPath, null );
+    }
+
+    public Chainr fromClassPath( String chainrSpecClassPath, ChainrInstantiator chainrInstantiator ) {
+        return fromSpec( JsonUtils.classpathToObject( chainrSpecClassPath ), chainrInstantiator );
+    }
+
+    public Chainr fromFileSystem( String chainrSpecFilePath ) {
+        return fromFileSystem( chainrSpecFilePath, null );
+    }
+
+    public Chainr fromFileSystem( String chainrSpecFilePath, ChainrInstantiator chainrInstantiator ) {
+        return fromSpec( JsonUtils.filepathToObject( chainrSpecFilePath ), chainrInstantiator );
+    }
+
+    public Chainr fromFile( File chainrSpecFile ) {
+        return fromFile( chainrSpecFile, null );
+    }
+
+    public Chainr fromFile( File chainrSpecFile, ChainrInstantiator chainrInstantiator ) {
+        return fromSpec( ChainrFactory.fileToSpec( chainrSpecFile ), chainrInstantiator );
+    }
+
+    public Chainr fromSpec( Object chainrSpec ) {
+        return fromSpec( chainrSpec, null );
+    }
+
+    /**
+     * Look up, or build and cache, the Chainr for the given spec.
+     *
+     * Chainrs built with different ChainrInstantiators are cached separately, even for the same spec.
+     *
+     * @param chainrSpec the json spec for the chainr transformation
+     * @param chainrInstantiator the ChainrInstantiator to use, or null for the default
+     * @return a Chainr for the spec, possibly shared with other callers
+     */
+    public Chainr fromSpec( Object chainrSpec, ChainrInstantiator chainrInstantiator ) {
+
+        Key key = new Key( specHash( chainrSpec ), chainrInstantiator );
+
+        Chainr chainr;
+        synchronized ( cache ) {
+            chainr = cache.get( key );
+        }
+        if ( chainr != null ) {
+            hitCount.incrementAndGet();
+            return chainr;
+        }
+
+        missCount.incrementAndGet();
+        Chainr built = ChainrFactory.getChainr( chainrInstantiator, chainrSpec );
+
+        synchronized ( cache ) {
+            chainr = cache.get( key );
+            if ( chainr == null ) {
+                chainr = built;
+                cache.put( key, chainr );
+            }
+        }
+        return chainr;
+    }
+
+    /**
+     * @return the SHA-256 of the compact JSON form of the spec, as hex
+     */
+    public static String specHash( Object chainrSpec ) {
+        return SpecHash.of( chainrSpec );
+    }
+
+    public int size() {
+        synchronized ( cache ) {
+            return cache.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void clear() {
+        synchronized ( cache ) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return the number of lookups that found an already built Chainr
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return the number of lookups that had to build a Chainr
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of Chainrs dropped to keep the cache within its maxSize
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * @return hits over total lookups, or 0 if there have been no lookups
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "ChainrCache{size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "}";
+    }
+
+    /**
+     * Spec hash plus the identity of the ChainrInstantiator that builds it.
+     */
+    private static final class Key {
+
+        private final String specHash;
+        private final ChainrInstantiator chainrInstantiator;
+
+        private Key( String specHash, ChainrInstantiator chainrInstantiator ) {
+            this.specHash = specHash;
+            this.chainrInstantiator = chainrInstantiator;
+        }
+
+        @Override
+        public boolean equals( Object o ) {
+            if ( this == o ) {
+                return true;
+            }
+            if ( !( o instanceof Key ) ) {
+                return false;
+            }
+            Key other = (Key) o;
+            return specHash.equals( other.specHash ) && chainrInstantiator == other.chainrInstantiator;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * specHash.hashCode() + System.identityHashCode( chainrInstantiator );
+        }
+    }
+}
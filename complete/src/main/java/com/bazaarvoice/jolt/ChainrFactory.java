@@ -15,10 +15,14 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.bazaarvoice.jolt.chainr.ChainrSnapshot;
 import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * A factory class with various static methods that return instances of Chainr.
@@ -87,14 +91,48 @@ public class ChainrFactory {
      * @return a Chainr instance
      */
     public static Chainr fromFile( File chainrSpecFile, ChainrInstantiator chainrInstantiator ) {
-        Object chainrSpec;
+        Object chainrSpec = fileToSpec( chainrSpecFile );
+        return getChainr( chainrInstantiator, chainrSpec );
+    }
+
+    /**
+     * @return the chainr spec parsed from the given File
+     */
+    static Object fileToSpec( File chainrSpecFile ) {
         try {
             FileInputStream fileInputStream = new FileInputStream( chainrSpecFile );
-            chainrSpec = JsonUtils.jsonToObject( fileInputStream );
+            return JsonUtils.jsonToObject( fileInputStream );
         } catch ( Exception e ) {
             throw new RuntimeException( "Unable to load chainr spec file " + chainrSpecFile.getAbsolutePath() );
         }
-        return getChainr( chainrInstantiator, chainrSpec );
+    }
+
+    /**
+     * Loads a Chainr instance from a snapshot written by ChainrSnapshot, without parsing its spec.
+     *
+     * @param chainrSnapshotFile The File which contains the chainr snapshot.
+     * @return a Chainr instance
+     */
+    public static Chainr fromSnapshot( File chainrSnapshotFile ) {
+        try ( InputStream inputStream = new BufferedInputStream( new FileInputStream( chainrSnapshotFile ) ) ) {
+            return ChainrSnapshot.read( inputStream );
+        } catch ( IOException e ) {
+            throw new RuntimeException( "Unable to load chainr snapshot file " + chainrSnapshotFile.getAbsolutePath(), e );
+        }
+    }
+
+    /**
+     * Loads a Chainr instance from a snapshot written by ChainrSnapshot, without parsing its spec.
+     *
+     * @param chainrSnapshot The stream which contains the chainr snapshot, it is not closed.
+     * @return a Chainr instance
+     */
+    public static Chainr fromSnapshot( InputStream chainrSnapshot ) {
+        try {
+            return ChainrSnapshot.read( chainrSnapshot );
+        } catch ( IOException e ) {
+            throw new RuntimeException( "Unable to load chainr snapshot", e );
+        }
     }
 
     /**
@@ -104,7 +142,7 @@ public class ChainrFactory {
      * @param chainrSpec The json spec for the chainr transformation
      * @return the Chainr instance created from the chainrInstantiator and inputStream
      */
-    private static Chainr getChainr( ChainrInstantiator chainrInstantiator, Object chainrSpec ) {
+    static Chainr getChainr( ChainrInstantiator chainrInstantiator, Object chainrSpec ) {
         Chainr chainr;
         if (chainrInstantiator == null ) {
             chainr = Chainr.fromSpec( chainrSpec );
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.exception.TransformException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ChainrBatchTest {
+
+    private static final String SPEC =
+            "[ { 'operation' : 'shift', 'spec' : { 'id' : 'productId', 'name' : 'title' } }," +
+            "  { 'operation' : 'default', 'spec' : { 'status' : 'active' } } ]";
+
+    private Chainr chainr;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setup() {
+        chainr = Chainr.fromSpec( JsonUtils.jsonToObject( SPEC.replace( '\'', '"' ) ) );
+        executor = Executors.newFixedThreadPool( 4 );
+    }
+
+    @AfterClass
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private static List<Object> inputs( int count ) {
+        List<Object> inputs = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ ) {
+            inputs.add( JsonUtils.javason( "{ 'id' : " + i + ", 'name' : 'n" + i + "', 'junk' : true }" ) );
+        }
+        return inputs;
+    }
+
+    private static Object expected( int i ) {
+        return JsonUtils.javason( "{ 'productId' : " + i + ", 'title' : 'n" + i + "', 'status' : 'active' }" );
+    }
+
+    @DataProvider
+    public Object[][] maxInFlight() {
+        return new Object[][] { { 0 }, { 1 }, { 3 }, { 64 } };
+    }
+
+    @Test( dataProvider = "maxInFlight" )
+    public void testOrderedBatch( int maxInFlight ) {
+
+        ChainrBatch batch = new ChainrBatch( chainr );
+        if ( maxInFlight > 0 ) {
+            batch.executor( executor, maxInFlight );
+        }
+
+        List<Object> actual = batch.transformAll( inputs( 50 ) );
+
+        Assert.assertEquals( actual.size(), 50 );
+        for ( int i = 0; i < 50; i++ ) {
+            Assert.assertEquals( actual.get( i ), expected( i ) );
+        }
+    }
+
+    @Test
+    public void testUnorderedBatch() {
+
+        List<Object> actual = new ChainrBatch( chainr ).executor( executor, 5 ).ordered( false )
+                .transformAll( inputs( 50 ).stream() );
+
+        Set<Object> expected = new HashSet<>();
+        for ( int i = 0; i < 50; i++ ) {
+            expected.add( expected( i ) );
+        }
+        Assert.assertEquals( new HashSet<>( actual ), expected );
+    }
+
+    @Test
+    public void testNdjson() throws Exception {
+
+        String ndjson =
+                "{\"id\":1,\"name\":\"n1\"}\n" +
+                "\n" +
+                "{\"id\":2,\"name\":\"n2\"}\n" +
+                "{\"id\":3,\"name\":\"n3\"}";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = new ChainrBatch( chainr ).executor( executor, 2 )
+                .transformNdjson( new ByteArrayInputStream( ndjson.getBytes( "UTF-8" ) ), out );
+
+        Assert.assertEquals( count, 3 );
+
+        String[] lines = out.toString( "UTF-8" ).split( "\n" );
+        Assert.assertEquals( lines.length, 3 );
+        for ( int i = 0; i < 3; i++ ) {
+            Assert.assertEquals( JsonUtils.jsonToMap( lines[i] ), expected( i + 1 ) );
+        }
+    }
+
+    @Test( expectedExceptions = TransformException.class, expectedExceptionsMessageRegExp = "boom" )
+    public void testWorkerFailureIsRethrown() {
+
+        Transform exploding = new Transform() {
+            @Override
+            public Object transform( Object input ) {
+                if ( ( (Map) input ).get( "id" ).equals( 7 ) ) {
+                    throw new TransformException( "boom" );
+                }
+                return input;
+            }
+        };
+
+        new ChainrBatch( new Chainr( Collections.<JoltTransform>singletonList( exploding ) ) )
+                .executor( executor, 4 )
+                .transformAll( inputs( 20 ) );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void testMaxInFlightMustBePositive() {
+        new ChainrBatch( chainr ).executor( executor, 0 );
+    }
+
+    @Test
+    public void testCallersObjectMapperIsLeftAlone() {
+
+        ObjectMapper mapper = new ObjectMapper();
+        new ChainrBatch( chainr, mapper );
+
+        Assert.assertFalse( mapper.getFactory().isEnabled( JsonParser.Feature.ALLOW_COMMENTS ) );
+    }
+}
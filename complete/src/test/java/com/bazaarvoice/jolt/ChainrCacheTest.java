@@ -0,0 +1,122 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.chainr.instantiator.DefaultChainrInstantiator;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ChainrCacheTest {
+
+    private static Object shiftSpec( String from, String to ) {
+        return JsonUtils.jsonToObject( ( "[ { 'operation' : 'shift', 'spec' : { '" + from + "' : '" + to + "' } } ]" ).replace( '\'', '"' ) );
+    }
+
+    @Test
+    public void testIdenticalSpecsShareAChainr() {
+
+        ChainrCache cache = new ChainrCache( 10 );
+
+        Chainr fromClassPath = cache.fromClassPath( "/json/wellformed-input.json" );
+        Chainr fromSpec = cache.fromSpec( JsonUtils.classpathToObject( "/json/wellformed-input.json" ) );
+        Assert.assertSame( fromSpec, fromClassPath );
+
+        // formatting does not matter
+        Object reformatted = JsonUtils.jsonToObject( JsonUtils.toPrettyJsonString( JsonUtils.classpathToObject( "/json/wellformed-input.json" ) ) );
+        Assert.assertSame( cache.fromSpec( reformatted ), fromClassPath );
+
+        Assert.assertEquals( cache.size(), 1 );
+        Assert.assertEquals( cache.getMissCount(), 1 );
+        Assert.assertEquals( cache.getHitCount(), 2 );
+        Assert.assertEquals( cache.getHitRate(), 2.0 / 3.0, 0.0001 );
+    }
+
+    @Test
+    public void testDifferentSpecsAndInstantiatorsAreCachedSeparately() {
+
+        ChainrCache cache = new ChainrCache( 10 );
+
+        Chainr ab = cache.fromSpec( shiftSpec( "a", "b" ) );
+        Chainr ac = cache.fromSpec( shiftSpec( "a", "c" ) );
+        Chainr abWithInstantiator = cache.fromSpec( shiftSpec( "a", "b" ), new DefaultChainrInstantiator() );
+
+        Assert.assertNotSame( ab, ac );
+        Assert.assertNotSame( ab, abWithInstantiator );
+        Assert.assertEquals( cache.size(), 3 );
+        Assert.assertNotEquals( ChainrCache.specHash( shiftSpec( "a", "b" ) ), ChainrCache.specHash( shiftSpec( "a", "c" ) ) );
+        Assert.assertEquals( ChainrCache.specHash( shiftSpec( "a", "b" ) ).length(), 64 );
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+
+        ChainrCache cache = new ChainrCache( 2 );
+
+        Chainr first = cache.fromSpec( shiftSpec( "a", "1" ) );
+        Chainr second = cache.fromSpec( shiftSpec( "a", "2" ) );
+
+        // touch first, so that second is the least recently used
+        Assert.assertSame( cache.fromSpec( shiftSpec( "a", "1" ) ), first );
+
+        cache.fromSpec( shiftSpec( "a", "3" ) );
+        Assert.assertEquals( cache.size(), 2 );
+        Assert.assertEquals( cache.getEvictionCount(), 1 );
+
+        Assert.assertSame( cache.fromSpec( shiftSpec( "a", "1" ) ), first );
+        Assert.assertNotSame( cache.fromSpec( shiftSpec( "a", "2" ) ), second );
+    }
+
+    @Test
+    public void testConcurrentLookupsAgreeOnOneChainr() throws Exception {
+
+        final ChainrCache cache = new ChainrCache( 10 );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            List<Future<Chainr>> futures = new ArrayList<>();
+            for ( int index = 0; index < 32; index++ ) {
+                futures.add( executor.submit( new Callable<Chainr>() {
+                    @Override
+                    public Chainr call() {
+                        return cache.fromSpec( shiftSpec( "a", "b" ) );
+                    }
+                } ) );
+            }
+
+            Chainr expected = futures.get( 0 ).get();
+            for ( Future<Chainr> future : futures ) {
+                Assert.assertSame( future.get(), expected );
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals( cache.getHitCount() + cache.getMissCount(), 32 );
+        Assert.assertEquals( cache.size(), 1 );
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void testRejectsZeroMaxSize() {
+        new ChainrCache( 0 );
+    }
+}
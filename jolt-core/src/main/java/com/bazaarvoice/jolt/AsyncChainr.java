@@ -0,0 +1,194 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Asynchronous front end for a Chainr, that runs transforms on an Executor and hands back
+ *  CompletableFutures.
+ *
+ * At most maxConcurrency transforms run at once, the rest wait in a queue, so submitting never
+ *  blocks the caller.  This works with any Executor, including one that starts a virtual thread
+ *  per task, in which case maxConcurrency is what keeps a burst of requests from all walking
+ *  trees at the same time.
+ *
+ * Cancelling a returned future before its transform has started means the transform never runs.
+ *  A transform that has already started runs to completion, as a Chainr has no safe point to
+ *  stop at part way through, but its result is discarded.
+ *
+ * An AsyncChainr relies on its Chainr being safe to share across threads, see {@link Chainr}.
+ */
+public class AsyncChainr {
+
+    private final Chainr chainr;
+    private final Executor executor;
+    private final int maxConcurrency;
+
+    private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger running = new AtomicInteger();
+
+    // Calls to drain() that have not been handled yet, only the call that takes this from 0 drains
+    private final AtomicInteger drainRequests = new AtomicInteger();
+
+    /**
+     * @param chainr the Chainr to run
+     * @param executor Executor to run the transforms on
+     * @param maxConcurrency maximum number of transforms running at once
+     */
+    public AsyncChainr( Chainr chainr, Executor executor, int maxConcurrency ) {
+
+        if ( chainr == null ) {
+            throw new IllegalArgumentException( "AsyncChainr requires a non-null Chainr." );
+        }
+        if ( executor == null ) {
+            throw new IllegalArgumentException( "AsyncChainr requires a non-null Executor." );
+        }
+        if ( maxConcurrency < 1 ) {
+            throw new IllegalArgumentException( "AsyncChainr requires maxConcurrency of at least 1, got " + maxConcurrency );
+        }
+
+        this.chainr = chainr;
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public CompletableFuture<Object> transform( Object input ) {
+        return transform( input, null );
+    }
+
+    /**
+     * @param input the JSON object to transform, which may be modified
+     * @param context the context to pass to any ContextualTransforms
+     * @return a future that completes with the output of the Chainr, or with whatever it threw
+     */
+    public CompletableFuture<Object> transform( Object input, Map<String, Object> context ) {
+
+        final Task task = new Task( input, context );
+        queue.add( task );
+        task.future.whenComplete( new BiConsumer<Object, Throwable>() {
+            @Override
+            public void accept( Object output, Throwable thrown ) {
+                // cancelled, or otherwise completed, while still queued
+                if ( !task.dequeued ) {
+                    queue.remove( task );
+                }
+            }
+        } );
+        drain();
+        return task.future;
+    }
+
+    /**
+     * @return the number of transforms that have been submitted but not started
+     */
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Start queued tasks until we are out of tasks or out of concurrency.
+     *
+     * Only one thread drains at a time, a call made while another thread is draining, or from a task
+     *  that the draining thread ran directly, makes that thread go round again rather than draining
+     *  itself.  That way a direct Executor runs the queue in a loop, not by recursing through Task.run.
+     */
+    private void drain() {
+
+        if ( drainRequests.getAndIncrement() != 0 ) {
+            return;
+        }
+
+        int requests = 1;
+        do {
+            startQueuedTasks();
+            requests = drainRequests.addAndGet( -requests );
+        }
+        while ( requests != 0 );
+    }
+
+    private void startQueuedTasks() {
+
+        while ( true ) {
+            int current = running.get();
+            if ( current >= maxConcurrency || queue.isEmpty() ) {
+                return;
+            }
+            if ( !running.compareAndSet( current, current + 1 ) ) {
+                continue;
+            }
+
+            Task task = queue.poll();
+            if ( task == null ) {
+                // it was cancelled and removed since we looked
+                running.decrementAndGet();
+                continue;
+            }
+            task.dequeued = true;
+            if ( task.future.isDone() ) {
+                // it was cancelled after we polled it
+                running.decrementAndGet();
+                continue;
+            }
+
+            try {
+                executor.execute( task );
+            }
+            catch ( RejectedExecutionException ree ) {
+                running.decrementAndGet();
+                task.future.completeExceptionally( ree );
+            }
+        }
+    }
+
+    private class Task implements Runnable {
+
+        private final Object input;
+        private final Map<String, Object> context;
+        private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        // set once the task has been taken off the queue, after which it no longer needs removing
+        private volatile boolean dequeued;
+
+        private Task( Object input, Map<String, Object> context ) {
+            this.input = input;
+            this.context = context;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if ( !future.isDone() ) {
+                    future.complete( chainr.transform( input, context ) );
+                }
+            }
+            catch ( Throwable t ) {
+                future.completeExceptionally( t );
+            }
+            finally {
+                running.decrementAndGet();
+                drain();
+            }
+        }
+    }
+}
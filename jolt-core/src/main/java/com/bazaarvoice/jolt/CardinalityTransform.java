@@ -19,8 +19,11 @@ import com.bazaarvoice.jolt.cardinality.CardinalityCompositeSpec;
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+import com.bazaarvoice.jolt.jfr.SpecId;
 
 import javax.inject.Inject;
+import java.io.Serializable;
 import java.util.Map;
 
 /**
@@ -195,10 +198,13 @@ import java.util.Map;
  * List    MANY         List     no-op
  * </pre>
  */
-public class CardinalityTransform implements SpecDriven, Transform {
+public class CardinalityTransform implements SpecDriven, Transform, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected static final String ROOT_KEY = "root";
     private final CardinalityCompositeSpec rootSpec;
+    private final SpecId specId;
 
     /**
      * Initialize a Cardinality transform with a CardinalityCompositeSpec.
@@ -216,6 +222,7 @@ public class CardinalityTransform implements SpecDriven, Transform {
         }
 
         rootSpec = new CardinalityCompositeSpec( ROOT_KEY, (Map<String, Object>) spec );
+        specId = SpecId.forSpec( spec );
     }
 
 
@@ -230,8 +237,14 @@ public class CardinalityTransform implements SpecDriven, Transform {
     @Override
     public Object transform( Object input ) {
 
-        rootSpec.apply( ROOT_KEY, Optional.of( input ), new WalkedPath(), null, null );
+        Object event = JoltFlightRecorder.beginTransform( getClass().getName(), specId, input );
+        try {
+            rootSpec.apply( ROOT_KEY, Optional.of( input ), new WalkedPath(), null, null );
 
-        return input;
+            return input;
+        }
+        finally {
+            JoltFlightRecorder.end( event );
+        }
     }
 }
@@ -17,14 +17,21 @@ package com.bazaarvoice.jolt;
 
 import com.bazaarvoice.jolt.chainr.ChainrBuilder;
 import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
+import com.bazaarvoice.jolt.chainr.metrics.ChainrStage;
+import com.bazaarvoice.jolt.chainr.metrics.ChainrStageListener;
+import com.bazaarvoice.jolt.chainr.metrics.StageMeters;
+import com.bazaarvoice.jolt.common.CopyOnWriteJson;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.exception.TransformException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Chainr is the JOLT mechanism for chaining {@link JoltTransform}s together. Any of the built-in JOLT
@@ -78,8 +85,22 @@ import java.util.Map;
  *     },
  *     ...
  * ]
+ *
+ * Thread safety : a built Chainr, and each of the stock transforms, is immutable once constructed,
+ *  and keeps all of its per call state (the walked path, matched keys and their "#" counts) on the
+ *  stack of the calling thread.  A single instance can therefore be shared by any number of threads,
+ *  as long as each call gets its own input.  Custom transforms need to be equally stateless for a
+ *  Chainr that uses them to be shared.  See {@link AsyncChainr} to run a Chainr asynchronously.
+ *
+ * Input ownership : by default the input belongs to the Chainr for the duration of the call, and
+ *  transforms like Defaultr and Removr modify it in place.  A Chainr built with immutableInput
+ *  instead copies, on write, just the containers its transforms modify, so the caller no longer
+ *  needs to deep copy an input it wants to keep.  Its output may share untouched containers with
+ *  the input, so the output should not be modified while the input is still in use.
  */
-public class Chainr implements Transform, ContextualTransform {
+public class Chainr implements Transform, ContextualTransform, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     // The list of Transforms we will march through on every call to chainr.
     // Note this will contain actual ContextualTransforms and adapted Transforms.
@@ -88,6 +109,15 @@ public class Chainr implements Transform, ContextualTransform {
     // The list of actual ContextualTransforms, for clients that specifically care.
     private final List<ContextualTransform> actualContextualTransforms;
 
+    // Parallel to transformsList, what to report each transform as, and who to report to.
+    // The listener is null when instrumentation is off, so that the plain path only checks whether
+    //  a Flight Recorder recording wants our stage events.  It is not part of a ChainrSnapshot.
+    private final ChainrStage[] stages;
+    private final transient ChainrStageListener listener;
+
+    // If true, the input is wrapped in copy-on-write views so that no stage modifies it.
+    private final boolean immutableInput;
+
     public static Chainr fromSpec( Object input ) {
         return new ChainrBuilder( input ).build();
     }
@@ -100,7 +130,9 @@ public class Chainr implements Transform, ContextualTransform {
      * Adapt "normal" Transforms to look like ContextualTransforms, so that
      *  Chainr can just maintain a single list of "JoltTransforms" to run.
      */
-    private static class ContextualTransformAdapter implements ContextualTransform {
+    private static class ContextualTransformAdapter implements ContextualTransform, Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         private final Transform transform;
 
@@ -115,10 +147,32 @@ public class Chainr implements Transform, ContextualTransform {
     }
 
     public Chainr( List<JoltTransform> joltTransforms ) {
+        this( joltTransforms, null, null );
+    }
+
+    /**
+     * @param joltTransforms the transforms to run, in order
+     * @param stages how to identify each transform to the listener, or null to use their index and class name
+     * @param listener ChainrStageListener to report each stage to, or null for no instrumentation
+     */
+    public Chainr( List<JoltTransform> joltTransforms, List<ChainrStage> stages, ChainrStageListener listener ) {
+        this( joltTransforms, stages, listener, false );
+    }
+
+    /**
+     * @param joltTransforms the transforms to run, in order
+     * @param stages how to identify each transform to the listener, or null to use their index and class name
+     * @param listener ChainrStageListener to report each stage to, or null for no instrumentation
+     * @param immutableInput if true, the input passed to transform is never modified, see {@link CopyOnWriteJson}
+     */
+    public Chainr( List<JoltTransform> joltTransforms, List<ChainrStage> stages, ChainrStageListener listener, boolean immutableInput ) {
 
         if ( joltTransforms == null ) {
             throw new IllegalArgumentException( "Chainr requires a list of JoltTransforms." );
         }
+        if ( stages != null && stages.size() != joltTransforms.size() ) {
+            throw new IllegalArgumentException( "Chainr requires a ChainrStage for each JoltTransform." );
+        }
 
         transformsList = new ArrayList<>( joltTransforms.size() );
         List<ContextualTransform> realContextualTransforms = new LinkedList<>();
@@ -153,6 +207,21 @@ public class Chainr implements Transform, ContextualTransform {
         }
 
         actualContextualTransforms = Collections.unmodifiableList( realContextualTransforms );
+
+        this.stages = new ChainrStage[ joltTransforms.size() ];
+        for ( int index = 0; index < this.stages.length; index++ ) {
+            this.stages[index] = stages != null ? stages.get( index )
+                    : new ChainrStage( index, joltTransforms.get( index ).getClass().getName() );
+        }
+        this.listener = listener;
+        this.immutableInput = immutableInput;
+    }
+
+    /**
+     * @return true if this Chainr leaves its input untouched, rather than letting its transforms modify it
+     */
+    public boolean isImmutableInput() {
+        return immutableInput;
     }
 
     /**
@@ -172,12 +241,12 @@ public class Chainr implements Transform, ContextualTransform {
      */
     @Override
     public Object transform( Object input, Map<String, Object> context ) {
-        return doTransform( transformsList, input, context );
+        return doTransform( 0, transformsList.size(), input, context );
     }
 
     @Override
     public Object transform( Object input ) {
-        return doTransform( transformsList, input, null );
+        return doTransform( 0, transformsList.size(), input, null );
     }
 
     /**
@@ -230,19 +299,83 @@ public class Chainr implements Transform, ContextualTransform {
             throw new TransformException( "JOLT Chainr : invalid from and to parameters : from=" + from + " to=" + to );
         }
 
-        return doTransform( transformsList.subList( from, to ), input, context );
+        return doTransform( from, to, input, context );
+    }
+
+    private Object doTransform( int from, int to, Object input, Map<String, Object> context ) {
+
+        if ( immutableInput ) {
+            // Stages write through copy-on-write views, so only the containers they touch get copied.
+            // The output may still share untouched containers with the input.
+            return CopyOnWriteJson.unwrap( runTransforms( from, to, CopyOnWriteJson.wrap( input ), context ) );
+        }
+        return runTransforms( from, to, input, context );
+    }
+
+    private Object runTransforms( int from, int to, Object input, Map<String, Object> context ) {
+
+        if ( listener != null || JoltFlightRecorder.isStageRecording() ) {
+            return doInstrumentedTransform( from, to, input, context );
+        }
+
+        Object intermediate = input;
+        for ( int index = from; index < to; index++ ) {
+            intermediate = transformsList.get( index ).transform( intermediate, context );
+        }
+
+        return intermediate;
     }
 
-    private static Object doTransform( List<ContextualTransform> transforms, Object input, Map<String, Object> context ) {
+    private Object doInstrumentedTransform( int from, int to, Object input, Map<String, Object> context ) {
+
+        boolean countNodes = listener != null && listener.isNodeCountEnabled();
+        boolean measureAllocation = listener != null && listener.isAllocationEnabled();
 
         Object intermediate = input;
-        for ( ContextualTransform transform : transforms ) {
-            intermediate = transform.transform( intermediate, context );
+        for ( int index = from; index < to; index++ ) {
+
+            ChainrStage stage = stages[index];
+
+            // count before running, as most transforms modify their input in place
+            long inputNodes = countNodes ? StageMeters.countNodes( intermediate ) : -1;
+            Object event = JoltFlightRecorder.beginStage( stage, intermediate, inputNodes );
+            long allocatedBefore = measureAllocation ? StageMeters.currentThreadAllocatedBytes() : -1;
+            long start = System.nanoTime();
+
+            try {
+                intermediate = transformsList.get( index ).transform( intermediate, context );
+            }
+            catch ( RuntimeException | Error e ) {
+                if ( listener != null ) {
+                    listener.stageFailed( stage, System.nanoTime() - start, e );
+                }
+                throw e;
+            }
+            finally {
+                JoltFlightRecorder.end( event );
+            }
+
+            if ( listener != null ) {
+                long elapsed = System.nanoTime() - start;
+                long allocated = measureAllocation ? StageMeters.currentThreadAllocatedBytes() - allocatedBefore : -1;
+                long outputNodes = countNodes ? StageMeters.countNodes( intermediate ) : -1;
+
+                listener.stageCompleted( stage, elapsed, allocated, inputNodes, outputNodes );
+            }
         }
 
         return intermediate;
     }
 
+    /**
+     * @param executor Executor to run transforms on, for instance one that starts a virtual thread per task
+     * @param maxConcurrency maximum number of transforms running at once
+     * @return an AsyncChainr that runs this Chainr
+     */
+    public AsyncChainr async( Executor executor, int maxConcurrency ) {
+        return new AsyncChainr( this, executor, maxConcurrency );
+    }
+
     /**
      * @return true if this Chainr instance has any ContextualTransforms
      */
@@ -18,8 +18,11 @@ package com.bazaarvoice.jolt;
 import com.bazaarvoice.jolt.defaultr.Key;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.exception.TransformException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+import com.bazaarvoice.jolt.jfr.SpecId;
 
 import javax.inject.Inject;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -169,7 +172,9 @@ import java.util.Map;
  * If it is an array, we treat the "root" level of the Defaultr spec, as if it were the child of an Array type Defaultr entry.
  * To force unambiguity, Defaultr throws an Exception if the input is null.
  */
-public class Defaultr implements SpecDriven, Transform {
+public class Defaultr implements SpecDriven, Transform, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public interface WildCards {
         public static final String STAR = "*";
@@ -179,6 +184,7 @@ public class Defaultr implements SpecDriven, Transform {
 
     private final Key mapRoot;
     private final Key arrayRoot;
+    private final SpecId specId;
 
     /**
      * Configure an instance of Defaultr with a spec.
@@ -189,6 +195,7 @@ public class Defaultr implements SpecDriven, Transform {
     public Defaultr( Object spec ) {
 
         String rootString = "root";
+        specId = SpecId.forSpec( spec );
 
         // Due to defaultr's array syntax, we can't actually express that we expect the top level of the defaultee to be an array, until we see the input.
         //  Thus, in order to have parsed the spec so that we can perform many transforms, we create two specs, one where the root of the input
@@ -226,22 +233,28 @@ public class Defaultr implements SpecDriven, Transform {
     @Override
     public Object transform( Object input ) {
 
-        if ( input == null ) {
-            // if null, assume HashMap
-            input = new HashMap();
-        }
+        Object event = JoltFlightRecorder.beginTransform( getClass().getName(), specId, input );
+        try {
+            if ( input == null ) {
+                // if null, assume HashMap
+                input = new HashMap();
+            }
 
-        // TODO : Make copy of the defaultee or like shiftr create a new output object
-        if ( input instanceof List ) {
-            if  ( arrayRoot == null ) {
-                throw new TransformException( "The Spec provided can not handle input that is a top level Json Array." );
+            // TODO : Make copy of the defaultee or like shiftr create a new output object
+            if ( input instanceof List ) {
+                if  ( arrayRoot == null ) {
+                    throw new TransformException( "The Spec provided can not handle input that is a top level Json Array." );
+                }
+                arrayRoot.applyChildren( input );
             }
-            arrayRoot.applyChildren( input );
+            else {
+                mapRoot.applyChildren( input );
+            }
+
+            return input;
         }
-        else {
-            mapRoot.applyChildren( input );
+        finally {
+            JoltFlightRecorder.end( event );
         }
-
-        return input;
     }
 }
@@ -20,6 +20,8 @@ import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+import com.bazaarvoice.jolt.jfr.SpecId;
 import com.bazaarvoice.jolt.modifier.OpMode;
 import com.bazaarvoice.jolt.modifier.TemplatrSpecBuilder;
 import com.bazaarvoice.jolt.modifier.function.Function;
@@ -29,6 +31,7 @@ import com.bazaarvoice.jolt.modifier.function.Objects;
 import com.bazaarvoice.jolt.modifier.function.Strings;
 import com.bazaarvoice.jolt.modifier.spec.ModifierCompositeSpec;
 
+import java.io.Serializable;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -36,7 +39,9 @@ import java.util.Map;
 /**
  * Base Templatr transform that to behave differently based on provided opMode
  */
-public abstract class Modifier implements SpecDriven, ContextualTransform {
+public abstract class Modifier implements SpecDriven, ContextualTransform, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final Map<String, Function> STOCK_FUNCTIONS = new HashMap<>(  );
 
@@ -89,6 +94,7 @@ public abstract class Modifier implements SpecDriven, ContextualTransform {
     }
 
     private final ModifierCompositeSpec rootSpec;
+    private final SpecId specId;
 
     @SuppressWarnings( "unchecked" )
     private Modifier( Object spec, OpMode opMode, Map<String, Function> functionsMap ) {
@@ -106,20 +112,27 @@ public abstract class Modifier implements SpecDriven, ContextualTransform {
         functionsMap = Collections.unmodifiableMap( functionsMap );
         TemplatrSpecBuilder templatrSpecBuilder = new TemplatrSpecBuilder( opMode, functionsMap );
         rootSpec = new ModifierCompositeSpec( ROOT_KEY, (Map<String, Object>) spec, opMode, templatrSpecBuilder );
+        specId = SpecId.forSpec( spec );
     }
 
     @Override
     public Object transform( final Object input, final Map<String, Object> context ) {
 
-        Map<String, Object> contextWrapper = new HashMap<>(  );
-        contextWrapper.put( ROOT_KEY, context );
+        Object event = JoltFlightRecorder.beginTransform( getClass().getName(), specId, input );
+        try {
+            Map<String, Object> contextWrapper = new HashMap<>(  );
+            contextWrapper.put( ROOT_KEY, context );
 
-        MatchedElement rootLpe = new MatchedElement( ROOT_KEY );
-        WalkedPath walkedPath = new WalkedPath();
-        walkedPath.add( input, rootLpe );
+            MatchedElement rootLpe = new MatchedElement( ROOT_KEY );
+            WalkedPath walkedPath = new WalkedPath();
+            walkedPath.add( input, rootLpe );
 
-        rootSpec.apply( ROOT_KEY, Optional.of( input), walkedPath, null, contextWrapper );
-        return input;
+            rootSpec.apply( ROOT_KEY, Optional.of( input), walkedPath, null, contextWrapper );
+            return input;
+        }
+        finally {
+            JoltFlightRecorder.end( event );
+        }
     }
 
     /**
@@ -128,6 +141,8 @@ public abstract class Modifier implements SpecDriven, ContextualTransform {
      */
     public static final class Overwritr extends Modifier {
 
+        private static final long serialVersionUID = 1L;
+
         public Overwritr( Object spec ) {
             this( spec, STOCK_FUNCTIONS );
         }
@@ -142,6 +157,8 @@ public abstract class Modifier implements SpecDriven, ContextualTransform {
      */
     public static final class Definr extends Modifier {
 
+        private static final long serialVersionUID = 1L;
+
         public Definr( final Object spec ) {
             this( spec, STOCK_FUNCTIONS );
         }
@@ -156,6 +173,8 @@ public abstract class Modifier implements SpecDriven, ContextualTransform {
      */
     public static class Defaultr extends Modifier {
 
+        private static final long serialVersionUID = 1L;
+
         public Defaultr( final Object spec ) {
             this( spec, STOCK_FUNCTIONS );
         }
@@ -16,9 +16,12 @@
 package com.bazaarvoice.jolt;
 
 import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+import com.bazaarvoice.jolt.jfr.SpecId;
 import com.bazaarvoice.jolt.removr.spec.RemovrCompositeSpec;
 
 import javax.inject.Inject;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -180,10 +183,13 @@ import java.util.Map;
  *   indices first, sorts them from Biggest to Smallest, then does the removing.
  * <p/>
  */
-public class Removr implements SpecDriven, Transform {
+public class Removr implements SpecDriven, Transform, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final String ROOT_KEY = "root";
     private final RemovrCompositeSpec rootSpec;
+    private final SpecId specId;
 
     @Inject
     public Removr( Object spec ) {
@@ -195,6 +201,7 @@ public class Removr implements SpecDriven, Transform {
         }
 
         rootSpec = new RemovrCompositeSpec( ROOT_KEY, (Map<String, Object>) spec );
+        specId = SpecId.forSpec( spec );
     }
 
     /**
@@ -205,10 +212,16 @@ public class Removr implements SpecDriven, Transform {
     @Override
     public Object transform( Object input ) {
 
-        // Wrap the input in a map to fool the CompositeSpec to recurse itself.
-        Map<String,Object> wrappedMap = new HashMap<>();
-        wrappedMap.put(ROOT_KEY, input);
-        rootSpec.applyToMap( wrappedMap );
-        return input;
+        Object event = JoltFlightRecorder.beginTransform( getClass().getName(), specId, input );
+        try {
+            // Wrap the input in a map to fool the CompositeSpec to recurse itself.
+            Map<String,Object> wrappedMap = new HashMap<>();
+            wrappedMap.put(ROOT_KEY, input);
+            rootSpec.applyToMap( wrappedMap );
+            return input;
+        }
+        finally {
+            JoltFlightRecorder.end( event );
+        }
     }
 }
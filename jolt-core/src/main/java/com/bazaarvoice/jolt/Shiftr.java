@@ -19,11 +19,22 @@ import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.exception.TransformException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+import com.bazaarvoice.jolt.jfr.SpecId;
+import com.bazaarvoice.jolt.shiftr.RawSpecScanner;
+import com.bazaarvoice.jolt.shiftr.ShiftrInputReader;
 import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import com.fasterxml.jackson.core.JsonParser;
 
 import javax.inject.Inject;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  *
@@ -461,9 +472,22 @@ import java.util.Map;
  * Instances of this class execute Shiftr transformations given a transform spec of Jackson-style maps of maps
  * and a Jackson-style map-of-maps input.
  */
-public class Shiftr implements SpecDriven, Transform {
+public class Shiftr implements SpecDriven, Transform, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final ShiftrCompositeSpec rootSpec;
+    private final SpecId specId;
+    private final boolean containsTranspose;
+
+    // Only needed by transform( JsonParser ), so built on the first call to it, and rebuilt for
+    //  a Shiftr loaded from a ChainrSnapshot.
+    private transient volatile ShiftrInputReader inputReader;
+
+    // Non null if large inputs should be processed in parallel.  Not part of a ChainrSnapshot, so a
+    //  Shiftr loaded from one runs serially.
+    private final transient ForkJoinPool pool;
+    private final int partitionSize;
 
     /**
      * Initialize a Shiftr transform with a Spec.
@@ -472,6 +496,25 @@ public class Shiftr implements SpecDriven, Transform {
      */
     @Inject
     public Shiftr( Object spec ) {
+        this( spec, null, 0 );
+    }
+
+    /**
+     * Initialize a Shiftr transform with a Spec, that processes large top level inputs in parallel.
+     *
+     * If the input is a List or Map with more than partitionSize entries, and the top level of the spec
+     *  has to look at every input key anyway, aka it has "*" or "&" keys, the input keys are split into
+     *  partitions of partitionSize, which are processed on the pool.  The output is the same as a serial
+     *  Shiftr's, including the order of values that end up in the same output List.
+     *
+     * Specs with "#" write references or transposes are always run serially, as they can see
+     *  state that other partitions would be building.
+     *
+     * @param pool the pool to run partitions on, or null to always run serially
+     * @param partitionSize the number of input keys processed by each partition
+     * @throws com.bazaarvoice.jolt.exception.SpecException for a malformed spec
+     */
+    public Shiftr( Object spec, ForkJoinPool pool, int partitionSize ) {
 
         if ( spec == null ){
             throw new SpecException( "Shiftr expected a spec of Map type, got 'null'." );
@@ -480,7 +523,17 @@ public class Shiftr implements SpecDriven, Transform {
             throw new SpecException( "Shiftr expected a spec of Map type, got " + spec.getClass().getSimpleName() );
         }
 
+        if ( pool != null && partitionSize < 1 ) {
+            throw new IllegalArgumentException( "Shiftr partitionSize must be positive, got " + partitionSize );
+        }
+
         rootSpec = new ShiftrCompositeSpec( ROOT_KEY, (Map<String, Object>) spec );
+        specId = SpecId.forSpec( spec );
+        containsTranspose = RawSpecScanner.containsTranspose( spec );
+
+        boolean parallelSafe = ! RawSpecScanner.containsHashReference( spec ) && ! containsTranspose;
+        this.pool = parallelSafe ? pool : null;
+        this.partitionSize = partitionSize;
     }
 
 
@@ -495,15 +548,77 @@ public class Shiftr implements SpecDriven, Transform {
     @Override
     public Object transform( Object input ) {
 
-        Map<String,Object> output = new HashMap<>();
+        Object event = JoltFlightRecorder.beginTransform( getClass().getName(), specId, input );
+        try {
+            Map<String,Object> output = new HashMap<>();
 
-        // Create a root LiteralPathElement so that # is useful at the root level
-        MatchedElement rootLpe = new MatchedElement( ROOT_KEY );
-        WalkedPath walkedPath = new WalkedPath();
-        walkedPath.add( input, rootLpe );
+            // Create a root LiteralPathElement so that # is useful at the root level
+            MatchedElement rootLpe = new MatchedElement( ROOT_KEY );
+            WalkedPath walkedPath = new WalkedPath();
+            walkedPath.add( input, rootLpe );
 
-        rootSpec.apply( ROOT_KEY, Optional.of( input ), walkedPath, output, null );
+            if ( pool != null ) {
+                rootSpec.applyInParallel( ROOT_KEY, Optional.of( input ), walkedPath, output, null, pool, partitionSize );
+            }
+            else {
+                rootSpec.apply( ROOT_KEY, Optional.of( input ), walkedPath, output, null );
+            }
+
+            return output.get( ROOT_KEY );
+        }
+        finally {
+            JoltFlightRecorder.end( event );
+        }
+    }
 
-        return output.get( ROOT_KEY );
+    /**
+     * Branches of the spec that can never write anything to the output, for example a "*" whose leaves all
+     *  have null RHSs.  Shiftr still matches them, as they block other keys from matching, but does not
+     *  walk the input they match.
+     *
+     * @return the dot separated spec key paths of the dead branches, empty if there are none
+     */
+    public List<String> getDeadSpecPaths() {
+        List<String> deadPaths = new ArrayList<>();
+        rootSpec.collectDeadPaths( "", deadPaths );
+        return deadPaths;
+    }
+
+    /**
+     * Applies the Shiftr transform to the next JSON value read from the parser.
+     *
+     * Rather than materializing all of the input first, only the parts of the input that this
+     *  Shiftr spec can match are read into memory, see ShiftrInputReader.
+     *
+     * @param parser parser positioned on, or just before, the JSON value to transform
+     * @return the output object with data shifted to it
+     * @throws com.bazaarvoice.jolt.exception.TransformException if the input could not be read, or if there
+     * are issues during the transform
+     */
+    public Object transform( JsonParser parser ) {
+
+        Object input;
+        try {
+            input = getInputReader().read( parser );
+        }
+        catch ( IOException ioe ) {
+            throw new TransformException( "Shiftr failed to read its input.", ioe );
+        }
+
+        return transform( input );
+    }
+
+    private ShiftrInputReader getInputReader() {
+        ShiftrInputReader reader = inputReader;
+        if ( reader == null ) {
+            synchronized ( this ) {
+                reader = inputReader;
+                if ( reader == null ) {
+                    reader = new ShiftrInputReader( rootSpec, ! containsTranspose );
+                    inputReader = reader;
+                }
+            }
+        }
+        return reader;
     }
 }
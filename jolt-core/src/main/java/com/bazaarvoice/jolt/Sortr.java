@@ -15,6 +15,9 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -30,7 +33,9 @@ import java.util.Map;
  *
  * The sort order is standard alphabetical ascending, with a special case for "~" prefixed keys to be bumped to the top.
  */
-public class Sortr implements Transform {
+public class Sortr implements Transform, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Makes a "sorted" copy of the input JSON for human readability.
@@ -39,7 +44,14 @@ public class Sortr implements Transform {
      */
     @Override
     public Object transform( Object input ) {
-        return sortJson( input );
+        // Sortr has no spec, so there is no spec id to report
+        Object event = JoltFlightRecorder.beginTransform( getClass().getName(), null, input );
+        try {
+            return sortJson( input );
+        }
+        finally {
+            JoltFlightRecorder.end( event );
+        }
     }
 
     @SuppressWarnings( "unchecked" )
@@ -15,6 +15,7 @@
  */
 package com.bazaarvoice.jolt.cardinality;
 
+import com.bazaarvoice.jolt.common.ArrayIndexKeys;
 import com.bazaarvoice.jolt.common.ComputedKeysComparator;
 import com.bazaarvoice.jolt.common.pathelement.AmpPathElement;
 import com.bazaarvoice.jolt.common.pathelement.AtPathElement;
@@ -37,6 +38,8 @@ import java.util.Set;
  */
 public class CardinalityCompositeSpec extends CardinalitySpec {
 
+    private static final long serialVersionUID = 1L;
+
     private static final HashMap<Class, Integer> orderMap;
     private static final ComputedKeysComparator computedKeysComparator;
 
@@ -177,7 +180,7 @@ public class CardinalityCompositeSpec extends CardinalitySpec {
 
             for ( int index = 0; index < ( (List<Object>) input ).size(); index++ ) {
                 Object subInput = ( (List<Object>) input ).get( index );
-                String subKeyStr = Integer.toString( index );
+                String subKeyStr = ArrayIndexKeys.toKey( index );
 
                 applyKeyToLiteralAndComputed( this, subKeyStr, subInput, walkedPath, input );
             }
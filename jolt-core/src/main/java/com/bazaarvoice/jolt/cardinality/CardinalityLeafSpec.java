@@ -33,6 +33,8 @@ import java.util.Map;
  */
 public class CardinalityLeafSpec extends CardinalitySpec {
 
+    private static final long serialVersionUID = 1L;
+
     public enum CardinalityRelationship {
         ONE,
         MANY
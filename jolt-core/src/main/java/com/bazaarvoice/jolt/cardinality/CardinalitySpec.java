@@ -51,6 +51,8 @@ import java.util.Map;
  */
 public abstract class CardinalitySpec implements BaseSpec {
 
+    private static final long serialVersionUID = 1L;
+
     private static final String STAR = "*";
     private static final String AT = "@";
 
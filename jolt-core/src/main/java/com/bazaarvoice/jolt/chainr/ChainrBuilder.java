@@ -19,17 +19,32 @@ import com.bazaarvoice.jolt.Chainr;
 import com.bazaarvoice.jolt.JoltTransform;
 import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
 import com.bazaarvoice.jolt.chainr.instantiator.DefaultChainrInstantiator;
+import com.bazaarvoice.jolt.chainr.metrics.ChainrStage;
+import com.bazaarvoice.jolt.chainr.metrics.ChainrStageListener;
 import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
 import com.bazaarvoice.jolt.chainr.spec.ChainrSpec;
+import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.jfr.SpecId;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 public class ChainrBuilder {
 
     private final Object chainrSpecObj;
     protected ChainrInstantiator chainrInstantiator = new DefaultChainrInstantiator();
     private ClassLoader classLoader = ChainrBuilder.class.getClassLoader();
+    private boolean optimize = false;
+    private List<String> optimizations = Collections.emptyList();
+    private ChainrStageListener listener = null;
+    private boolean immutableInput = false;
+    private boolean lazy = false;
+    private ExecutorService hydrationExecutor = null;
 
     /**
      * Initialize a Chainr to run a list of Transforms.
@@ -65,15 +80,161 @@ public class ChainrBuilder {
         return this;
     }
 
+    /**
+     * Drop stages that can not change the document, and fuse adjacent stages of the spec, where
+     *  doing so is known to produce the same output.  See ChainrOptimizer for which stages qualify,
+     *  and getOptimizations() for what was done to the last Chainr built.
+     *
+     * Note that an optimized Chainr may have fewer transforms than its spec has entries, so the
+     *  from / to indices of Chainr.transform( from, to, ... ) no longer line up with the spec.
+     *
+     * @param optimize whether or not to optimize the stages, defaults to false
+     */
+    public ChainrBuilder optimize( boolean optimize ) {
+        this.optimize = optimize;
+        return this;
+    }
+
+    /**
+     * Report the timing, and optionally node counts and allocations, of each stage of the built
+     *  Chainr to the given listener.  See InMemoryChainrMetrics for a simple implementation.
+     *
+     * @param listener ChainrStageListener to report to, or null for no instrumentation, the default
+     */
+    public ChainrBuilder listener( ChainrStageListener listener ) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Never modify the input passed to the built Chainr.  Transforms that edit their input in place
+     *  work on copy-on-write views instead, which copy only the containers that are written to.
+     *
+     * The output may share untouched Maps and Lists with the input.
+     *
+     * @param immutableInput whether or not to protect the input, defaults to false
+     */
+    public ChainrBuilder immutableInput( boolean immutableInput ) {
+        this.immutableInput = immutableInput;
+        return this;
+    }
+
+    /**
+     * Defer hydrating each stage of the built Chainr, that is constructing its Transform and parsing
+     *  its spec, until the first time that stage is run.  Stages outside of the from / to range of
+     *  every call are never hydrated at all.
+     *
+     * Each stage is hydrated exactly once, even if several threads run it for the first time at once.
+     *  Note that a bad spec is then reported by the first transform call to reach it, rather than by build().
+     *
+     * @param lazy whether or not to defer hydration, defaults to false
+     */
+    public ChainrBuilder lazy( boolean lazy ) {
+        this.lazy = lazy;
+        return this;
+    }
+
+    /**
+     * Hydrate the stages of the Chainr in parallel on the given ExecutorService, which pays off for
+     *  long chains of large specs.  build() still waits for every stage, and throws the first failure
+     *  in spec order.  Ignored if lazy is set.
+     *
+     * @param hydrationExecutor ExecutorService to hydrate on, or null to hydrate on the calling thread, the default
+     */
+    public ChainrBuilder hydrationExecutor( ExecutorService hydrationExecutor ) {
+        this.hydrationExecutor = hydrationExecutor;
+        return this;
+    }
+
+    /**
+     * @return a description of each stage dropped, then each stage fused, by the last call to build(),
+     *  empty if optimize is off
+     */
+    public List<String> getOptimizations() {
+        return optimizations;
+    }
+
     public Chainr build() {
         ChainrSpec chainrSpec = new ChainrSpec( chainrSpecObj, classLoader );
-        List<JoltTransform> transforms = new ArrayList<>( chainrSpec.getChainrEntries().size() );
-        for ( ChainrEntry entry : chainrSpec.getChainrEntries() ) {
+        List<ChainrEntry> entries = chainrSpec.getChainrEntries();
+        if ( optimize ) {
+            ChainrOptimizer optimizer = new ChainrOptimizer( classLoader );
+            entries = optimizer.optimize( entries );
+
+            List<String> done = new ArrayList<>( optimizer.getEliminations() );
+            done.addAll( optimizer.getFusions() );
+            optimizations = Collections.unmodifiableList( done );
+        }
+        else {
+            optimizations = Collections.emptyList();
+        }
 
-            JoltTransform transform = chainrInstantiator.hydrateTransform( entry );
-            transforms.add( transform );
+        List<JoltTransform> transforms = hydrate( entries );
+        SpecId specId = SpecId.forSpec( chainrSpecObj );
+        List<ChainrStage> stages = new ArrayList<>( entries.size() );
+        for ( ChainrEntry entry : entries ) {
+            stages.add( new ChainrStage( specId, entry.getIndex(), entry.getOperation() ) );
         }
 
-        return new Chainr( transforms );
+        return new Chainr( transforms, stages, listener, immutableInput );
+    }
+
+    private List<JoltTransform> hydrate( List<ChainrEntry> entries ) {
+
+        List<JoltTransform> transforms = new ArrayList<>( entries.size() );
+
+        if ( lazy ) {
+            for ( ChainrEntry entry : entries ) {
+                transforms.add( LazyTransform.of( entry, chainrInstantiator ) );
+            }
+        }
+        else if ( hydrationExecutor == null || entries.size() < 2 ) {
+            for ( ChainrEntry entry : entries ) {
+                transforms.add( chainrInstantiator.hydrateTransform( entry ) );
+            }
+        }
+        else {
+            List<Future<JoltTransform>> futures = new ArrayList<>( entries.size() );
+            try {
+                for ( final ChainrEntry entry : entries ) {
+                    futures.add( hydrationExecutor.submit( new Callable<JoltTransform>() {
+                        @Override
+                        public JoltTransform call() {
+                            return chainrInstantiator.hydrateTransform( entry );
+                        }
+                    } ) );
+                }
+                for ( Future<JoltTransform> future : futures ) {
+                    transforms.add( await( future ) );
+                }
+            }
+            finally {
+                for ( Future<JoltTransform> future : futures ) {
+                    future.cancel( true );
+                }
+            }
+        }
+
+        return transforms;
+    }
+
+    private static JoltTransform await( Future<JoltTransform> future ) {
+        try {
+            return future.get();
+        }
+        catch ( InterruptedException ie ) {
+            Thread.currentThread().interrupt();
+            throw new SpecException( "JOLT Chainr interrupted while hydrating transforms.", ie );
+        }
+        catch ( ExecutionException ee ) {
+            Throwable cause = ee.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new SpecException( "JOLT Chainr failed to hydrate a transform.", cause );
+        }
     }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Defaultr;
+import com.bazaarvoice.jolt.Removr;
+import com.bazaarvoice.jolt.Shiftr;
+import com.bazaarvoice.jolt.Sortr;
+import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
+import com.bazaarvoice.jolt.shiftr.RawSpecScanner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Build time pass over a Chainr spec that drops stages that can not change the document, and
+ *  fuses adjacent stages into a single stage, so that the chain does fewer tree walks.
+ *
+ * Both are done on the raw specs, before any Transform is hydrated.
+ *
+ * A stage is dropped if it is :
+ *
+ *  remove with an empty spec.
+ *  remove right after a shift, where none of the remove's top level keys are ones the shift
+ *                      can write.  Skipped if either spec computes its top level keys.
+ *  default with an empty spec, right after or before another default.  On its own an empty
+ *                      default still turns a null input into an empty map.
+ *  sort right after a sort.
+ *
+ * A sort followed by a shift is kept, even though the shift builds a new document, as the
+ *  order the shift sees its input in decides the order of values it writes to the same list.
+ *
+ * Adjacent stages are fused where running the merged spec once is provably the same as
+ *  running the two specs back to back :
+ *
+ *  remove + remove   : the specs are unioned, with a leaf "" beating a sub-spec for the same key.
+ *                      Skipped if either spec has an integer key, as removing an array index
+ *                      shifts the indices the second spec would have seen.
+ *  default + default : the specs are unioned, with the first spec winning on a leaf.
+ *                      Skipped if either spec has a "*", "|", or "[]" key, a null leaf, or if
+ *                      the specs disagree about a key being a leaf vs a sub-spec.
+ *  default + remove  : run as a single DefaultrRemovr stage, which walks the parts of the input
+ *                      both specs have a sub-spec for once, applying the defaults and then the
+ *                      removals to each container.  Skipped if the remove spec is malformed.
+ *
+ * Any other pair of stages, including custom and ContextualTransforms, is left alone.
+ */
+public class ChainrOptimizer {
+
+    private final ClassLoader classLoader;
+    private final List<String> fusions = new ArrayList<>();
+    private final List<String> eliminations = new ArrayList<>();
+
+    public ChainrOptimizer( ClassLoader classLoader ) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param entries the ChainrEntries in the order they would run
+     * @return a possibly shorter list of ChainrEntries that produces the same output
+     */
+    public List<ChainrEntry> optimize( List<ChainrEntry> entries ) {
+        return fuseAdjacent( eliminateDead( entries ) );
+    }
+
+    private List<ChainrEntry> eliminateDead( List<ChainrEntry> entries ) {
+
+        List<ChainrEntry> result = new ArrayList<>( entries.size() );
+
+        for ( int index = 0; index < entries.size(); index++ ) {
+
+            ChainrEntry entry = entries.get( index );
+            ChainrEntry previous = result.isEmpty() ? null : result.get( result.size() - 1 );
+            ChainrEntry next = index + 1 < entries.size() ? entries.get( index + 1 ) : null;
+
+            String reason = whyDead( previous, entry, next );
+            if ( reason != null ) {
+                eliminations.add( entry.getJoltTransformClass().getSimpleName() + " at index:" + entry.getIndex() + " dropped, " + reason );
+                continue;
+            }
+            result.add( entry );
+        }
+
+        return result;
+    }
+
+    private List<ChainrEntry> fuseAdjacent( List<ChainrEntry> entries ) {
+
+        List<ChainrEntry> result = new ArrayList<>( entries.size() );
+
+        ChainrEntry current = null;
+
+        for ( ChainrEntry next : entries ) {
+
+            if ( current != null ) {
+                ChainrEntry fused = fuse( current, next );
+                if ( fused != null ) {
+                    current = fused;
+                    fusions.add( current.getJoltTransformClass().getSimpleName() + " at index:" + current.getIndex() + " absorbed index:" + next.getIndex() );
+                    continue;
+                }
+                result.add( current );
+            }
+
+            current = next;
+        }
+
+        if ( current != null ) {
+            result.add( current );
+        }
+
+        return result;
+    }
+
+    /**
+     * @return a description of each fusion made by this optimizer, in the order they were made
+     */
+    public List<String> getFusions() {
+        return Collections.unmodifiableList( fusions );
+    }
+
+    /**
+     * @return a description of each stage dropped by this optimizer, in spec order
+     */
+    public List<String> getEliminations() {
+        return Collections.unmodifiableList( eliminations );
+    }
+
+    /**
+     * @return why the entry can not change the document, or null if it may
+     */
+    private static String whyDead( ChainrEntry previous, ChainrEntry entry, ChainrEntry next ) {
+
+        Class<?> transformClass = entry.getJoltTransformClass();
+
+        if ( transformClass == Removr.class ) {
+            if ( isEmptyMap( entry.getSpec() ) ) {
+                return "its spec is empty";
+            }
+            if ( previous != null && previous.getJoltTransformClass() == Shiftr.class && entry.getSpec() instanceof Map ) {
+                Set<String> shiftRootKeys = RawSpecScanner.outputRootKeys( previous.getSpec() );
+                if ( shiftRootKeys != null && removesNoneOf( (Map<?, ?>) entry.getSpec(), shiftRootKeys ) ) {
+                    return "shift at index:" + previous.getIndex() + " can not write any of its keys";
+                }
+            }
+        }
+        else if ( transformClass == Defaultr.class ) {
+            if ( isEmptyMap( entry.getSpec() ) &&
+                    ( previous != null && previous.getJoltTransformClass() == Defaultr.class ||
+                      next != null && next.getJoltTransformClass() == Defaultr.class ) ) {
+                // the neighboring default does the one thing an empty default does, turning null into {}
+                return "its spec is empty";
+            }
+        }
+        else if ( transformClass == Sortr.class ) {
+            if ( previous != null && previous.getJoltTransformClass() == Sortr.class ) {
+                return "the document is already sorted";
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isEmptyMap( Object spec ) {
+        return spec instanceof Map && ( (Map<?, ?>) spec ).isEmpty();
+    }
+
+    /**
+     * @return true if all of the Removr spec's top level keys are literals not in the given set
+     */
+    private static boolean removesNoneOf( Map<?, ?> removrSpec, Set<String> keys ) {
+        for ( Object rawKey : removrSpec.keySet() ) {
+            for ( String key : String.valueOf( rawKey ).split( "\\|" ) ) {
+                key = key.trim();
+                if ( key.contains( "*" ) || key.contains( "\\" ) || key.contains( "&" ) || keys.contains( key ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private ChainrEntry newEntry( int index, String operation, Object spec ) {
+        Map<String, Object> entryMap = new LinkedHashMap<>();
+        entryMap.put( ChainrEntry.OPERATION_KEY, operation );
+        entryMap.put( ChainrEntry.SPEC_KEY, spec );
+        return new ChainrEntry( index, entryMap, classLoader );
+    }
+
+    /**
+     * @return the fused entry, in the place of the first entry, or null if the two entries can not be safely fused
+     */
+    private ChainrEntry fuse( ChainrEntry first, ChainrEntry second ) {
+
+        if ( !( first.getSpec() instanceof Map ) || !( second.getSpec() instanceof Map ) ) {
+            return null;
+        }
+
+        @SuppressWarnings( "unchecked" )
+        Map<String, Object> firstSpec = (Map<String, Object>) first.getSpec();
+        @SuppressWarnings( "unchecked" )
+        Map<String, Object> secondSpec = (Map<String, Object>) second.getSpec();
+
+        Class<?> firstClass = first.getJoltTransformClass();
+        Class<?> secondClass = second.getJoltTransformClass();
+
+        if ( firstClass == Removr.class && secondClass == Removr.class ) {
+            if ( isFusableRemovrSpec( firstSpec ) && isFusableRemovrSpec( secondSpec ) ) {
+                return newEntry( first.getIndex(), first.getOperation(), mergeRemovrSpecs( firstSpec, secondSpec ) );
+            }
+        }
+        else if ( firstClass == Defaultr.class && secondClass == Defaultr.class ) {
+            if ( isFusableDefaultrSpec( firstSpec ) && isFusableDefaultrSpec( secondSpec ) ) {
+                Map<String, Object> merged = mergeDefaultrSpecs( firstSpec, secondSpec );
+                return merged == null ? null : newEntry( first.getIndex(), first.getOperation(), merged );
+            }
+        }
+        else if ( firstClass == Defaultr.class && secondClass == Removr.class ) {
+            if ( isValidRemovrSpec( secondSpec ) ) {
+                Map<String, Object> spec = new LinkedHashMap<>();
+                spec.put( DefaultrRemovr.DEFAULT_KEY, firstSpec );
+                spec.put( DefaultrRemovr.REMOVE_KEY, secondSpec );
+                return newEntry( first.getIndex(), DefaultrRemovr.class.getName(), spec );
+            }
+        }
+
+        return null;
+    }
+
+    private static boolean isValidRemovrSpec( Map<String, Object> spec ) {
+
+        for ( Object rhs : spec.values() ) {
+            if ( rhs instanceof Map ) {
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> subSpec = (Map<String, Object>) rhs;
+                if ( !isValidRemovrSpec( subSpec ) ) {
+                    return false;
+                }
+            }
+            else if ( !isRemovrLeaf( rhs ) ) {
+                // let Removr itself complain about the bad spec
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFusableRemovrSpec( Map<String, Object> spec ) {
+
+        for ( Map.Entry<String, Object> entry : spec.entrySet() ) {
+
+            for ( String key : entry.getKey().split( "\\|" ) ) {
+                if ( SpecKeys.isInteger( key ) ) {
+                    return false;
+                }
+            }
+
+            Object rhs = entry.getValue();
+            if ( rhs instanceof Map ) {
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> subSpec = (Map<String, Object>) rhs;
+                if ( !isFusableRemovrSpec( subSpec ) ) {
+                    return false;
+                }
+            }
+            else if ( !isRemovrLeaf( rhs ) ) {
+                // let Removr itself complain about the bad spec
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, Object> mergeRemovrSpecs( Map<String, Object> first, Map<String, Object> second ) {
+
+        Map<String, Object> merged = new LinkedHashMap<>( first );
+
+        for ( Map.Entry<String, Object> entry : second.entrySet() ) {
+
+            Object existing = merged.get( entry.getKey() );
+            Object rhs = entry.getValue();
+
+            if ( existing == null || isRemovrLeaf( rhs ) ) {
+                // a removed key takes its sub-spec with it
+                merged.put( entry.getKey(), rhs );
+            }
+            else if ( existing instanceof Map ) {
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> existingSubSpec = (Map<String, Object>) existing;
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> subSpec = (Map<String, Object>) rhs;
+                merged.put( entry.getKey(), mergeRemovrSpecs( existingSubSpec, subSpec ) );
+            }
+            // else the first spec already removes this key
+        }
+        return merged;
+    }
+
+    private static boolean isRemovrLeaf( Object rhs ) {
+        return rhs instanceof String && ( (String) rhs ).trim().isEmpty();
+    }
+
+    private static boolean isFusableDefaultrSpec( Map<String, Object> spec ) {
+
+        for ( Map.Entry<String, Object> entry : spec.entrySet() ) {
+
+            String key = entry.getKey();
+            if ( SpecKeys.isWildcard( key ) || key.endsWith( Defaultr.WildCards.ARRAY ) ) {
+                return false;
+            }
+
+            Object rhs = entry.getValue();
+            if ( rhs == null ) {
+                // a null default can be replaced by a later Defaultr, but not by a merged one
+                return false;
+            }
+            if ( rhs instanceof Map ) {
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> subSpec = (Map<String, Object>) rhs;
+                if ( !isFusableDefaultrSpec( subSpec ) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the merged spec, or null if the two specs disagree about the shape of a key
+     */
+    private static Map<String, Object> mergeDefaultrSpecs( Map<String, Object> first, Map<String, Object> second ) {
+
+        Map<String, Object> merged = new LinkedHashMap<>( first );
+
+        for ( Map.Entry<String, Object> entry : second.entrySet() ) {
+
+            Object existing = merged.get( entry.getKey() );
+            Object rhs = entry.getValue();
+
+            if ( existing == null ) {
+                merged.put( entry.getKey(), rhs );
+            }
+            else if ( existing instanceof Map && rhs instanceof Map ) {
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> existingSubSpec = (Map<String, Object>) existing;
+                @SuppressWarnings( "unchecked" )
+                Map<String, Object> subSpec = (Map<String, Object>) rhs;
+                Map<String, Object> mergedSubSpec = mergeDefaultrSpecs( existingSubSpec, subSpec );
+                if ( mergedSubSpec == null ) {
+                    return null;
+                }
+                merged.put( entry.getKey(), mergedSubSpec );
+            }
+            else if ( existing instanceof Map || rhs instanceof Map ) {
+                // A leaf default does not apply over existing input, but the second spec's
+                //  sub-spec still would, so there is no single spec that does both.
+                return null;
+            }
+            // else both are leaves, and the first Defaultr to run wins
+        }
+        return merged;
+    }
+}
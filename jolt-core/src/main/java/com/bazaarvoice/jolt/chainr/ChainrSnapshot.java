@@ -0,0 +1,287 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JoltTransform;
+import com.bazaarvoice.jolt.exception.SpecException;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes a built Chainr to a compact binary snapshot, and reads it back, so that a service can skip
+ *  parsing the same specs on every start.
+ *
+ * A snapshot holds the fully built transforms, that is their spec trees, parsed PathElements, compiled
+ *  patterns and Modifier function bindings, so reading one does no spec parsing at all.  It does not
+ *  hold a ChainrStageListener, or the ForkJoinPool of a parallel Shiftr, which then runs serially.
+ *
+ * Snapshots use Java serialization, so every transform in the Chainr must be Serializable, as the stock
+ *  ones are.  The header records the Jolt version that wrote the snapshot, and reading it with any
+ *  other version fails with an IOException.  Custom transforms are not versioned that way, a changed
+ *  one fails with an InvalidClassException.  Either way the caller should rebuild the Chainr from
+ *  its spec.
+ *
+ * Reading only accepts Jolt classes, JoltTransforms and the few JDK types a built spec is made of,
+ *  that is boxed primitives, Strings, BigDecimal / BigInteger, Pattern and the java.util containers
+ *  Jolt builds.  Still, only read snapshots from a trusted source, as you would a spec.
+ */
+public final class ChainrSnapshot {
+
+    private static final int MAGIC = 0x4A4F4C54; // "JOLT"
+    private static final int FORMAT_VERSION = 2;
+
+    /**
+     * Version of Jolt written to, and checked against, the snapshot header.
+     */
+    static final String JOLT_VERSION = loadJoltVersion();
+
+    private ChainrSnapshot() {}
+
+    /**
+     * Write the Chainr to the stream, which is left open.
+     *
+     * @throws SpecException if the Chainr holds a transform that is not Serializable
+     */
+    public static void write( Chainr chainr, OutputStream out ) throws IOException {
+
+        GZIPOutputStream gzip = new GZIPOutputStream( new NonClosingOutputStream( out ) );
+
+        DataOutputStream header = new DataOutputStream( gzip );
+        header.writeInt( MAGIC );
+        header.writeInt( FORMAT_VERSION );
+        header.writeUTF( JOLT_VERSION );
+
+        ObjectOutputStream objects = new ObjectOutputStream( gzip );
+        try {
+            objects.writeObject( chainr );
+        }
+        catch ( NotSerializableException nse ) {
+            throw new SpecException( "JOLT ChainrSnapshot can not snapshot className:" + nse.getMessage() +
+                    " as it is not Serializable.", nse );
+        }
+        objects.close();
+    }
+
+    public static Chainr read( InputStream in ) throws IOException {
+        return read( in, ChainrSnapshot.class.getClassLoader() );
+    }
+
+    /**
+     * Read a Chainr written by write(), the stream is left open.
+     *
+     * @param classLoader ClassLoader to load custom transforms with
+     * @throws IOException if the stream is not a snapshot, or was written by a different version of Jolt
+     * @throws InvalidClassException if the stream holds a class that a Chainr can not be made of, or a
+     *  custom transform that has changed since it was written
+     */
+    public static Chainr read( InputStream in, ClassLoader classLoader ) throws IOException {
+
+        GZIPInputStream gzip = new GZIPInputStream( new NonClosingInputStream( in ) );
+
+        DataInputStream header = new DataInputStream( gzip );
+        if ( header.readInt() != MAGIC ) {
+            throw new IOException( "JOLT ChainrSnapshot stream is not a Chainr snapshot." );
+        }
+        int formatVersion = header.readInt();
+        if ( formatVersion != FORMAT_VERSION ) {
+            throw new IOException( "JOLT ChainrSnapshot format version " + formatVersion + " is not supported, expected " + FORMAT_VERSION );
+        }
+        String joltVersion = header.readUTF();
+        if ( ! JOLT_VERSION.equals( joltVersion ) ) {
+            throw new IOException( "JOLT ChainrSnapshot was written by Jolt version " + joltVersion +
+                    " and can not be read by Jolt version " + JOLT_VERSION + ", rebuild the Chainr from its spec." );
+        }
+
+        ObjectInputStream objects = new RestrictedObjectInputStream( gzip, classLoader );
+        try {
+            Object chainr = objects.readObject();
+            if ( ! ( chainr instanceof Chainr ) ) {
+                throw new IOException( "JOLT ChainrSnapshot expected a Chainr, got " + chainr.getClass().getName() );
+            }
+            return (Chainr) chainr;
+        }
+        catch ( ClassNotFoundException cnfe ) {
+            throw new IOException( "JOLT ChainrSnapshot could not find class:" + cnfe.getMessage(), cnfe );
+        }
+        finally {
+            objects.close();
+        }
+    }
+
+    private static String loadJoltVersion() {
+
+        InputStream in = ChainrSnapshot.class.getResourceAsStream( "jolt-version.properties" );
+        if ( in != null ) {
+            try {
+                Properties properties = new Properties();
+                properties.load( in );
+                String version = properties.getProperty( "version" );
+                if ( version != null && ! version.startsWith( "${" ) ) {
+                    return version;
+                }
+            }
+            catch ( IOException ioe ) {
+                // fall back to the jar manifest
+            }
+            finally {
+                try {
+                    in.close();
+                }
+                catch ( IOException ioe ) {
+                    // nothing to do
+                }
+            }
+        }
+
+        String version = ChainrSnapshot.class.getPackage().getImplementationVersion();
+        return version == null ? "unknown" : version;
+    }
+
+    /**
+     * ObjectInputStream that only resolves the classes a Chainr can be made of.
+     */
+    private static final class RestrictedObjectInputStream extends ObjectInputStream {
+
+        /**
+         * The JDK classes found in built specs; the java.util ones are the containers Jolt itself
+         *  builds spec trees with.
+         */
+        private static final Set<String> ALLOWED_JDK_CLASSES = Collections.unmodifiableSet( new HashSet<>( Arrays.asList(
+                "java.lang.Object",
+                "java.lang.Enum",
+                "java.lang.Number",
+                "java.lang.String",
+                "java.lang.Boolean",
+                "java.lang.Character",
+                "java.lang.Byte",
+                "java.lang.Short",
+                "java.lang.Integer",
+                "java.lang.Long",
+                "java.lang.Float",
+                "java.lang.Double",
+                "java.math.BigInteger",
+                "java.math.BigDecimal",
+                "java.util.regex.Pattern",
+                "java.util.ArrayList",
+                "java.util.LinkedList",
+                "java.util.Arrays$ArrayList",
+                "java.util.HashMap",
+                "java.util.LinkedHashMap",
+                "java.util.IdentityHashMap",
+                "java.util.HashSet",
+                "java.util.LinkedHashSet",
+                "java.util.Collections$EmptyList",
+                "java.util.Collections$EmptyMap",
+                "java.util.Collections$EmptySet",
+                "java.util.Collections$SingletonList",
+                "java.util.Collections$UnmodifiableCollection",
+                "java.util.Collections$UnmodifiableList",
+                "java.util.Collections$UnmodifiableRandomAccessList",
+                "java.util.Collections$UnmodifiableMap",
+                "java.util.Collections$UnmodifiableSet"
+        ) ) );
+
+        private final ClassLoader classLoader;
+
+        private RestrictedObjectInputStream( InputStream in, ClassLoader classLoader ) throws IOException {
+            super( in );
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass( ObjectStreamClass desc ) throws IOException, ClassNotFoundException {
+
+            String name = desc.getName();
+            Class<?> clazz;
+            try {
+                clazz = Class.forName( name, false, classLoader );
+            }
+            catch ( ClassNotFoundException cnfe ) {
+                clazz = super.resolveClass( desc );
+            }
+
+            if ( ! isAllowed( name, clazz ) ) {
+                throw new InvalidClassException( name, "JOLT ChainrSnapshot does not allow this class." );
+            }
+            return clazz;
+        }
+
+        private static boolean isAllowed( String name, Class<?> clazz ) {
+
+            while ( clazz.isArray() ) {
+                clazz = clazz.getComponentType();
+            }
+            if ( clazz.isPrimitive() ) {
+                return true;
+            }
+            name = clazz.getName();
+
+            return name.startsWith( "com.bazaarvoice.jolt." )
+                    || JoltTransform.class.isAssignableFrom( clazz )
+                    || ALLOWED_JDK_CLASSES.contains( name );
+        }
+    }
+
+    // So that closing the GZIP stream, which it must be to finish it, leaves the caller's stream open.
+
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        private NonClosingOutputStream( OutputStream out ) {
+            super( out );
+        }
+
+        @Override
+        public void write( byte[] bytes, int offset, int length ) throws IOException {
+            out.write( bytes, offset, length );
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private static final class NonClosingInputStream extends FilterInputStream {
+
+        private NonClosingInputStream( InputStream in ) {
+            super( in );
+        }
+
+        @Override
+        public void close() {
+            // leave the caller's stream open
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Defaultr;
+import com.bazaarvoice.jolt.SpecDriven;
+import com.bazaarvoice.jolt.Transform;
+import com.bazaarvoice.jolt.defaultr.Key;
+import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.exception.TransformException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+import com.bazaarvoice.jolt.jfr.SpecId;
+import com.bazaarvoice.jolt.removr.spec.RemovrCompositeSpec;
+
+import javax.inject.Inject;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A default stage immediately followed by a remove stage, run as one stage.  ChainrOptimizer builds
+ *  these, its spec being the two original specs :
+ *
+ * <pre>
+ * {
+ *   "default" : { ... the Defaultr spec ... },
+ *   "remove" : { ... the Removr spec ... }
+ * }
+ * </pre>
+ *
+ * The output is exactly that of the Defaultr followed by the Removr.  What is saved is the second walk
+ *  down the parts of the input that both specs have a sub-spec for : each such container is visited
+ *  once, its defaults applied and then its removals made.
+ *
+ * A key is only walked once if it is a plain, non integer, key in both specs, and neither spec has a
+ *  "*" or "|" key at that level, as a wildcard could otherwise see the container before all its defaults
+ *  were applied.  Every other part of the specs is applied by Defaultr's and Removr's own spec trees, all
+ *  of the defaults of a level before any of its removals, so it behaves as the two stages would.
+ */
+public class DefaultrRemovr implements SpecDriven, Transform, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String DEFAULT_KEY = "default";
+    public static final String REMOVE_KEY = "remove";
+
+    private static final String ROOT_KEY = "root";
+
+    private final Level root;
+    private final Key arrayRoot;
+    private final SpecId specId;
+
+    @Inject
+    @SuppressWarnings( "unchecked" )
+    public DefaultrRemovr( Object spec ) {
+
+        if ( ! ( spec instanceof Map ) ) {
+            throw new SpecException( "DefaultrRemovr expected a spec of Map type, got " + ( spec == null ? "null" : spec.getClass().getSimpleName() ) );
+        }
+        Object defaultSpec = ( (Map) spec ).get( DEFAULT_KEY );
+        Object removeSpec = ( (Map) spec ).get( REMOVE_KEY );
+        if ( ! ( defaultSpec instanceof Map ) || ! ( removeSpec instanceof Map ) ) {
+            throw new SpecException( "DefaultrRemovr expected a spec with a '" + DEFAULT_KEY + "' and a '" + REMOVE_KEY + "' Map." );
+        }
+
+        specId = SpecId.forSpec( spec );
+        root = new Level( (Map<String, Object>) defaultSpec, (Map<String, Object>) removeSpec );
+
+        // only for input that is a top level array, which Defaultr handles with a separate spec tree, see Defaultr
+        Map<String, Object> arrayRootSpec = new LinkedHashMap<>();
+        arrayRootSpec.put( ROOT_KEY + Defaultr.WildCards.ARRAY, defaultSpec );
+        Key tempKey = null;
+        try {
+            tempKey = Key.parseSpec( arrayRootSpec ).iterator().next();
+        }
+        catch ( NumberFormatException nfe ) {
+            // the top level spec has non numeric keys, so top level array input is an error
+        }
+        arrayRoot = tempKey;
+    }
+
+    @Override
+    public Object transform( Object input ) {
+
+        Object event = JoltFlightRecorder.beginTransform( getClass().getName(), specId, input );
+        try {
+            if ( input == null ) {
+                // as Defaultr does
+                input = new HashMap<String, Object>();
+            }
+
+            if ( input instanceof List ) {
+                if ( arrayRoot == null ) {
+                    throw new TransformException( "The Spec provided can not handle input that is a top level Json Array." );
+                }
+                arrayRoot.applyChildren( input );
+            }
+
+            // for a top level array this only makes the removals, as Map defaults do not apply to it
+            root.apply( input );
+            return input;
+        }
+        finally {
+            JoltFlightRecorder.end( event );
+        }
+    }
+
+    /**
+     * One level of the two specs.
+     */
+    private static final class Level implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        // this level's defaults, with an empty sub-spec standing in for each shared key, so the
+        //  container for it is still created in spec order
+        private final Key defaults;
+        // this level's removals, less the shared keys
+        private final RemovrCompositeSpec removes;
+
+        private final String[] sharedKeys;
+        private final Level[] sharedLevels;
+
+        @SuppressWarnings( "unchecked" )
+        private Level( Map<String, Object> defaultSpec, Map<String, Object> removeSpec ) {
+
+            Map<String, Object> levelDefaults = new LinkedHashMap<>( defaultSpec );
+            Map<String, Object> levelRemoves = new LinkedHashMap<>( removeSpec );
+            List<String> keys = new ArrayList<>();
+            List<Level> levels = new ArrayList<>();
+
+            if ( SpecKeys.hasNoWildcards( defaultSpec ) && SpecKeys.hasNoWildcards( removeSpec ) ) {
+                for ( Map.Entry<String, Object> entry : removeSpec.entrySet() ) {
+                    String key = entry.getKey();
+                    Object defaultSubSpec = defaultSpec.get( key );
+                    if ( defaultSubSpec instanceof Map && entry.getValue() instanceof Map && ! SpecKeys.isInteger( key ) ) {
+                        keys.add( key );
+                        levels.add( new Level( (Map<String, Object>) defaultSubSpec, (Map<String, Object>) entry.getValue() ) );
+                        levelDefaults.put( key, new LinkedHashMap<String, Object>() );
+                        levelRemoves.remove( key );
+                    }
+                }
+            }
+
+            if ( levelDefaults.isEmpty() ) {
+                defaults = null;
+            }
+            else {
+                Map<String, Object> rootSpec = new LinkedHashMap<>();
+                rootSpec.put( ROOT_KEY, levelDefaults );
+                defaults = Key.parseSpec( rootSpec ).iterator().next();
+            }
+            removes = levelRemoves.isEmpty() ? null : new RemovrCompositeSpec( ROOT_KEY, levelRemoves );
+
+            sharedKeys = keys.toArray( new String[ keys.size() ] );
+            sharedLevels = levels.toArray( new Level[ levels.size() ] );
+        }
+
+        @SuppressWarnings( "unchecked" )
+        private void apply( Object container ) {
+
+            if ( defaults != null && container instanceof Map ) {
+                defaults.applyChildren( container );
+            }
+
+            if ( removes != null ) {
+                // Wrap the container in a map to fool the CompositeSpec to recurse itself, as Removr does
+                Map<String, Object> wrappedMap = new HashMap<>();
+                wrappedMap.put( ROOT_KEY, container );
+                removes.applyToMap( wrappedMap );
+            }
+
+            if ( sharedKeys.length > 0 && container instanceof Map ) {
+                Map<String, Object> map = (Map<String, Object>) container;
+                for ( int index = 0; index < sharedKeys.length; index++ ) {
+                    Object subContainer = map.get( sharedKeys[index] );
+                    if ( subContainer != null ) {
+                        sharedLevels[index].apply( subContainer );
+                    }
+                }
+            }
+        }
+    }
+}
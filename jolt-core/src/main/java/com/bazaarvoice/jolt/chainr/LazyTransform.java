@@ -0,0 +1,134 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.ContextualTransform;
+import com.bazaarvoice.jolt.JoltTransform;
+import com.bazaarvoice.jolt.Transform;
+import com.bazaarvoice.jolt.chainr.instantiator.ChainrInstantiator;
+import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
+import com.bazaarvoice.jolt.exception.SpecException;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Stands in for a ChainrEntry's transform until the first time it is run, at which point the
+ *  entry is hydrated, exactly once, through its ChainrInstantiator.
+ *
+ * Whether the stand in is a Transform or a ContextualTransform is decided from the entry's class,
+ *  which ChainrSpec has already loaded, so that Chainr can treat it like the real thing.
+ */
+abstract class LazyTransform implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ChainrEntry entry;
+    private final ChainrInstantiator chainrInstantiator;
+
+    // volatile so that the double checked lock in getDelegate() publishes a fully built transform
+    private volatile JoltTransform delegate;
+
+    private LazyTransform( ChainrEntry entry, ChainrInstantiator chainrInstantiator ) {
+        this.entry = entry;
+        this.chainrInstantiator = chainrInstantiator;
+    }
+
+    /**
+     * @return a lazy stand in for the entry's transform, or the hydrated transform itself if its class
+     *  is not cleanly a Transform or a ContextualTransform, so that Chainr can report the problem
+     */
+    static JoltTransform of( ChainrEntry entry, ChainrInstantiator chainrInstantiator ) {
+
+        Class<? extends JoltTransform> transformClass = entry.getJoltTransformClass();
+        boolean isTransform = Transform.class.isAssignableFrom( transformClass );
+        boolean isContextual = ContextualTransform.class.isAssignableFrom( transformClass );
+
+        if ( isTransform && ! isContextual ) {
+            return new LazyPlainTransform( entry, chainrInstantiator );
+        }
+        if ( isContextual && ! isTransform ) {
+            return new LazyContextualTransform( entry, chainrInstantiator );
+        }
+        return chainrInstantiator.hydrateTransform( entry );
+    }
+
+    JoltTransform getDelegate() {
+
+        JoltTransform result = delegate;
+        if ( result == null ) {
+            synchronized ( this ) {
+                result = delegate;
+                if ( result == null ) {
+                    result = chainrInstantiator.hydrateTransform( entry );
+                    if ( ! isExpectedInterface( result ) ) {
+                        throw new SpecException( "JOLT Chainr - ChainrInstantiator returned className:" + result.getClass().getCanonicalName() +
+                                " which does not match the operation" + entry.getErrorMessageIndexSuffix() );
+                    }
+                    delegate = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    abstract boolean isExpectedInterface( JoltTransform transform );
+
+    /**
+     * A ChainrSnapshot holds the hydrated transform, never the stand in, which hydrates it if need be.
+     */
+    Object writeReplace() {
+        return getDelegate();
+    }
+
+    private static final class LazyPlainTransform extends LazyTransform implements Transform {
+
+        private static final long serialVersionUID = 1L;
+
+        private LazyPlainTransform( ChainrEntry entry, ChainrInstantiator chainrInstantiator ) {
+            super( entry, chainrInstantiator );
+        }
+
+        @Override
+        boolean isExpectedInterface( JoltTransform transform ) {
+            return transform instanceof Transform;
+        }
+
+        @Override
+        public Object transform( Object input ) {
+            return ( (Transform) getDelegate() ).transform( input );
+        }
+    }
+
+    private static final class LazyContextualTransform extends LazyTransform implements ContextualTransform {
+
+        private static final long serialVersionUID = 1L;
+
+        private LazyContextualTransform( ChainrEntry entry, ChainrInstantiator chainrInstantiator ) {
+            super( entry, chainrInstantiator );
+        }
+
+        @Override
+        boolean isExpectedInterface( JoltTransform transform ) {
+            return transform instanceof ContextualTransform;
+        }
+
+        @Override
+        public Object transform( Object input, Map<String, Object> context ) {
+            return ( (ContextualTransform) getDelegate() ).transform( input, context );
+        }
+    }
+}
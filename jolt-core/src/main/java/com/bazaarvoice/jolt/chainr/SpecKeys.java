@@ -0,0 +1,60 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Defaultr;
+
+import java.util.Map;
+
+/**
+ * Key checks shared by the ChainrOptimizer, when deciding whether specs can be fused, and by the
+ *  fused transforms it builds.
+ */
+final class SpecKeys {
+
+    private SpecKeys() {}
+
+    /**
+     * @return true if the Defaultr key matches more than one input key, ie it has a "*" or "|"
+     */
+    static boolean isWildcard( String key ) {
+        return key.contains( Defaultr.WildCards.STAR ) || key.contains( Defaultr.WildCards.OR );
+    }
+
+    static boolean hasNoWildcards( Map<String, Object> spec ) {
+        for ( String key : spec.keySet() ) {
+            if ( isWildcard( key ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the key is all digits, aka a literal list index
+     */
+    static boolean isInteger( String key ) {
+        if ( key.isEmpty() ) {
+            return false;
+        }
+        for ( int index = 0; index < key.length(); index++ ) {
+            if ( !Character.isDigit( key.charAt( index ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
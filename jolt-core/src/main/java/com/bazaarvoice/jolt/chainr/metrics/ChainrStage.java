@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.metrics;
+
+import com.bazaarvoice.jolt.jfr.SpecId;
+
+import java.io.Serializable;
+
+/**
+ * Identifies one stage of a Chainr, by the id of its Chainr spec, its index in that spec and its "operation".
+ */
+public final class ChainrStage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SpecId specId;
+    private final int index;
+    private final String operation;
+
+    /**
+     * For a Chainr that was not built from a spec.
+     */
+    public ChainrStage( int index, String operation ) {
+        this( (SpecId) null, index, operation );
+    }
+
+    /**
+     * @param specId id of the Chainr spec, see JoltFlightRecorder.specId(), may be null
+     * @param index index of the stage in the Chainr spec
+     * @param operation "operation" of the stage
+     */
+    public ChainrStage( String specId, int index, String operation ) {
+        this( specId == null ? null : SpecId.withId( specId ), index, operation );
+    }
+
+    /**
+     * @param specId id of the Chainr spec, worked out the first time getSpecId() is called, may be null
+     * @param index index of the stage in the Chainr spec
+     * @param operation "operation" of the stage
+     */
+    public ChainrStage( SpecId specId, int index, String operation ) {
+        if ( operation == null ) {
+            throw new IllegalArgumentException( "ChainrStage requires a non-null operation." );
+        }
+        this.specId = specId;
+        this.index = index;
+        this.operation = operation;
+    }
+
+    /**
+     * @return the id of the Chainr spec the stage came from, or null if unknown
+     */
+    public String getSpecId() {
+        return specId == null ? null : specId.get();
+    }
+
+    /**
+     * @return the index of the stage in the Chainr spec, for a fused stage the index of its first entry
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the "operation" of the stage, ie "shift" or a class name
+     */
+    public String getOperation() {
+        return operation;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+        if ( this == o ) {
+            return true;
+        }
+        if ( !( o instanceof ChainrStage ) ) {
+            return false;
+        }
+        ChainrStage that = (ChainrStage) o;
+        String id = getSpecId();
+        return index == that.index && operation.equals( that.operation )
+                && ( id == null ? that.getSpecId() == null : id.equals( that.getSpecId() ) );
+    }
+
+    @Override
+    public int hashCode() {
+        String id = getSpecId();
+        return 31 * ( 31 * index + operation.hashCode() ) + ( id == null ? 0 : id.hashCode() );
+    }
+
+    @Override
+    public String toString() {
+        String id = getSpecId();
+        return ( id == null ? "" : id + ":" ) + index + ":" + operation;
+    }
+}
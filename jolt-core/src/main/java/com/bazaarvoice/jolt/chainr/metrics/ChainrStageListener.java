@@ -0,0 +1,59 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.metrics;
+
+/**
+ * Instrumentation SPI for Chainr, called once for every stage a Chainr runs.
+ *
+ * A Chainr built without a listener does no timing or counting at all.
+ *
+ * Listeners are called on the thread running the transform, so they must be thread safe if the
+ *  Chainr is shared, and should be cheap, as they are called in line with the transform.
+ */
+public interface ChainrStageListener {
+
+    /**
+     * @return true if the Chainr should count the JSON nodes going into and out of each stage,
+     *  which costs a walk of each tree
+     */
+    boolean isNodeCountEnabled();
+
+    /**
+     * @return true if the Chainr should measure the bytes allocated by each stage,
+     *  which is only available on JVMs whose ThreadMXBean supports it
+     */
+    boolean isAllocationEnabled();
+
+    /**
+     * Called after a stage completes normally.
+     *
+     * @param stage the stage that ran
+     * @param elapsedNanos wall clock time of the stage
+     * @param allocatedBytes bytes allocated by the thread during the stage, or -1 if not measured
+     * @param inputNodes number of nodes in the stage's input, or -1 if not counted
+     * @param outputNodes number of nodes in the stage's output, or -1 if not counted
+     */
+    void stageCompleted( ChainrStage stage, long elapsedNanos, long allocatedBytes, long inputNodes, long outputNodes );
+
+    /**
+     * Called when a stage throws, before the exception propagates out of the Chainr.
+     *
+     * @param stage the stage that failed
+     * @param elapsedNanos wall clock time until the stage failed
+     * @param failure what the stage threw
+     */
+    void stageFailed( ChainrStage stage, long elapsedNanos, Throwable failure );
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simple ChainrStageListener that keeps per stage counters and a latency histogram in memory.
+ *
+ * Latencies are bucketed by powers of two of microseconds : bucket 0 holds stages that took
+ *  under 1us, bucket i holds [ 2^(i-1), 2^i ) us, and the last bucket holds everything longer.
+ */
+public class InMemoryChainrMetrics implements ChainrStageListener {
+
+    public static final int LATENCY_BUCKETS = 32;
+
+    private final boolean countNodes;
+    private final boolean measureAllocation;
+    private final ConcurrentHashMap<ChainrStage, StageStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Record invocation counts and latencies only.
+     */
+    public InMemoryChainrMetrics() {
+        this( false, false );
+    }
+
+    /**
+     * @param countNodes whether to also count input and output nodes of each stage
+     * @param measureAllocation whether to also measure bytes allocated by each stage, if the JVM supports it
+     */
+    public InMemoryChainrMetrics( boolean countNodes, boolean measureAllocation ) {
+        this.countNodes = countNodes;
+        this.measureAllocation = measureAllocation && StageMeters.isAllocationSupported();
+    }
+
+    @Override
+    public boolean isNodeCountEnabled() {
+        return countNodes;
+    }
+
+    @Override
+    public boolean isAllocationEnabled() {
+        return measureAllocation;
+    }
+
+    @Override
+    public void stageCompleted( ChainrStage stage, long elapsedNanos, long allocatedBytes, long inputNodes, long outputNodes ) {
+        StageStats stageStats = statsFor( stage );
+        stageStats.record( elapsedNanos );
+        if ( allocatedBytes >= 0 ) {
+            stageStats.allocatedBytes.add( allocatedBytes );
+        }
+        if ( inputNodes >= 0 ) {
+            stageStats.inputNodes.add( inputNodes );
+        }
+        if ( outputNodes >= 0 ) {
+            stageStats.outputNodes.add( outputNodes );
+        }
+    }
+
+    @Override
+    public void stageFailed( ChainrStage stage, long elapsedNanos, Throwable failure ) {
+        StageStats stageStats = statsFor( stage );
+        stageStats.record( elapsedNanos );
+        stageStats.failures.increment();
+    }
+
+    private StageStats statsFor( ChainrStage stage ) {
+        StageStats stageStats = stats.get( stage );
+        if ( stageStats == null ) {
+            StageStats newStats = new StageStats();
+            stageStats = stats.putIfAbsent( stage, newStats );
+            if ( stageStats == null ) {
+                stageStats = newStats;
+            }
+        }
+        return stageStats;
+    }
+
+    /**
+     * @return the stats of every stage seen so far, live
+     */
+    public Map<ChainrStage, StageStats> getStats() {
+        return Collections.unmodifiableMap( stats );
+    }
+
+    /**
+     * @return the stats of the given stage, or null if it has not run
+     */
+    public StageStats getStats( ChainrStage stage ) {
+        return stats.get( stage );
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * @return the exclusive upper bound in nanos of the given latency bucket, or Long.MAX_VALUE for the last one
+     */
+    public static long getBucketUpperBoundNanos( int bucket ) {
+        if ( bucket >= LATENCY_BUCKETS - 1 ) {
+            return Long.MAX_VALUE;
+        }
+        return ( 1L << bucket ) * 1000L;
+    }
+
+    static int bucketFor( long elapsedNanos ) {
+        long micros = elapsedNanos / 1000L;
+        int bucket = 64 - Long.numberOfLeadingZeros( micros );
+        return Math.min( bucket, LATENCY_BUCKETS - 1 );
+    }
+
+    /**
+     * Counters for a single stage, updated concurrently by every thread running the stage.
+     */
+    public static class StageStats {
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray latencyBuckets = new AtomicLongArray( LATENCY_BUCKETS );
+        private final LongAdder allocatedBytes = new LongAdder();
+        private final LongAdder inputNodes = new LongAdder();
+        private final LongAdder outputNodes = new LongAdder();
+
+        private void record( long elapsedNanos ) {
+            invocations.increment();
+            totalNanos.add( elapsedNanos );
+            latencyBuckets.incrementAndGet( bucketFor( elapsedNanos ) );
+
+            long max = maxNanos.get();
+            while ( elapsedNanos > max && !maxNanos.compareAndSet( max, elapsedNanos ) ) {
+                max = maxNanos.get();
+            }
+        }
+
+        /**
+         * @return the number of times the stage ran, including failures
+         */
+        public long getInvocationCount() {
+            return invocations.sum();
+        }
+
+        public long getFailureCount() {
+            return failures.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long getMeanNanos() {
+            long count = invocations.sum();
+            return count == 0 ? 0 : totalNanos.sum() / count;
+        }
+
+        /**
+         * @return a copy of the latency histogram, see InMemoryChainrMetrics for the bucket bounds
+         */
+        public long[] getLatencyHistogram() {
+            long[] histogram = new long[ LATENCY_BUCKETS ];
+            for ( int bucket = 0; bucket < LATENCY_BUCKETS; bucket++ ) {
+                histogram[bucket] = latencyBuckets.get( bucket );
+            }
+            return histogram;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return the upper bound of the latency bucket that the given percentile falls in, or 0 if the stage has not run
+         */
+        public long getLatencyPercentileNanos( double percentile ) {
+            long[] histogram = getLatencyHistogram();
+            long total = 0;
+            for ( long count : histogram ) {
+                total += count;
+            }
+            if ( total == 0 ) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil( total * percentile / 100.0 );
+            long seen = 0;
+            for ( int bucket = 0; bucket < LATENCY_BUCKETS; bucket++ ) {
+                seen += histogram[bucket];
+                if ( seen >= rank && histogram[bucket] > 0 ) {
+                    return getBucketUpperBoundNanos( bucket );
+                }
+            }
+            return getBucketUpperBoundNanos( LATENCY_BUCKETS - 1 );
+        }
+
+        /**
+         * @return total bytes allocated by the stage, 0 if allocation was not measured
+         */
+        public long getTotalAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        /**
+         * @return total nodes passed into the stage, 0 if nodes were not counted
+         */
+        public long getTotalInputNodes() {
+            return inputNodes.sum();
+        }
+
+        /**
+         * @return total nodes passed out of the stage, 0 if nodes were not counted
+         */
+        public long getTotalOutputNodes() {
+            return outputNodes.sum();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Measurements Chainr takes around a stage on behalf of a ChainrStageListener.
+ */
+public final class StageMeters {
+
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    private StageMeters() {}
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        try {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if ( bean instanceof com.sun.management.ThreadMXBean ) {
+                com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+                if ( allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled() ) {
+                    return allocationBean;
+                }
+            }
+        }
+        catch ( LinkageError | RuntimeException e ) {
+            // not a HotSpot style JVM, allocation will not be measured
+        }
+        return null;
+    }
+
+    /**
+     * @return true if this JVM can report per thread allocated bytes
+     */
+    public static boolean isAllocationSupported() {
+        return ALLOCATION_BEAN != null;
+    }
+
+    /**
+     * @return the total bytes allocated so far by the current thread, or -1 if not supported
+     */
+    public static long currentThreadAllocatedBytes() {
+        if ( ALLOCATION_BEAN == null ) {
+            return -1;
+        }
+        return ALLOCATION_BEAN.getThreadAllocatedBytes( Thread.currentThread().getId() );
+    }
+
+    /**
+     * Counts the nodes of a JSON tree : every Map, List and scalar value, including nulls, counts as one.
+     */
+    public static long countNodes( Object json ) {
+
+        if ( json == null ) {
+            return 1;
+        }
+
+        long count = 0;
+        ArrayDeque<Object> toVisit = new ArrayDeque<>();
+        toVisit.push( json );
+
+        while ( !toVisit.isEmpty() ) {
+            Object node = toVisit.pop();
+            count++;
+
+            Collection<?> children = null;
+            if ( node instanceof Map ) {
+                children = ( (Map<?, ?>) node ).values();
+            }
+            else if ( node instanceof Collection ) {
+                children = (Collection<?>) node;
+            }
+
+            if ( children != null ) {
+                for ( Object child : children ) {
+                    if ( child == null ) {
+                        count++;
+                    }
+                    else {
+                        toVisit.push( child );
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -64,6 +64,7 @@ public class ChainrEntry {
 
     private final int index;
     private final Object spec;
+    private final String operation;
     private final String operationClassName;
 
     private final Class<? extends JoltTransform> joltTransformClass;
@@ -94,6 +95,8 @@ public class ChainrEntry {
             throw new SpecException( "JOLT Chainr 'operation' must implement Transform or ContextualTransform" + getErrorMessageIndexSuffix() );
         }
 
+        operation = opString;
+
         if ( STOCK_TRANSFORMS.containsKey( opString ) ) {
             operationClassName = STOCK_TRANSFORMS.get( opString );
         }
@@ -153,6 +156,20 @@ public class ChainrEntry {
     }
 
 
+    /**
+     * @return the position of this entry in the Chainr spec
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the "operation" as given in the spec, ie "shift" or a class name
+     */
+    public String getOperation() {
+        return operation;
+    }
+
     /**
      * Generate an error message suffix what lists the index of the ChainrEntry in the overall ChainrSpec.
      */
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * The transforms match list elements against the spec by their index as a String key, aka
+ *  element 3 is matched as "3".
+ *
+ * Rather than Integer.toString-ing every index of every list we visit, this hands out shared
+ *  key Strings for the indices we have already seen.
+ */
+public final class ArrayIndexKeys implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Past this, lists are rare enough that it is not worth holding on to their keys
+    private static final int MAX_CACHED = 1 << 14;
+
+    // Grown on demand; racing threads may both grow it, which is harmless as the keys are equal
+    private static volatile String[] cache = fill( new String[0], 256 );
+
+    private ArrayIndexKeys() {}
+
+    /**
+     * @return the String key for the given list index
+     */
+    public static String toKey( int index ) {
+
+        String[] keys = cache;
+        if ( index >= 0 && index < keys.length ) {
+            return keys[index];
+        }
+        if ( index < 0 || index >= MAX_CACHED ) {
+            return Integer.toString( index );
+        }
+
+        keys = fill( keys, Math.min( MAX_CACHED, Math.max( index + 1, keys.length * 2 ) ) );
+        cache = keys;
+        return keys[index];
+    }
+
+    private static String[] fill( String[] keys, int newSize ) {
+        String[] grown = Arrays.copyOf( keys, newSize );
+        for ( int index = keys.length; index < newSize; index++ ) {
+            grown[index] = Integer.toString( index );
+        }
+        return grown;
+    }
+}
@@ -19,6 +19,7 @@ package com.bazaarvoice.jolt.common;
 import com.bazaarvoice.jolt.common.pathelement.PathElement;
 import com.bazaarvoice.jolt.common.spec.BaseSpec;
 
+import java.io.Serializable;
 import java.util.Comparator;
 import java.util.HashMap;
 
@@ -27,7 +28,9 @@ import java.util.HashMap;
  *
  * Argument Map of Class: integer is used to determine precedence
  */
-public class ComputedKeysComparator implements Comparator<BaseSpec> {
+public class ComputedKeysComparator implements Comparator<BaseSpec>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Static factory method to get an Comparator instance for a given order map
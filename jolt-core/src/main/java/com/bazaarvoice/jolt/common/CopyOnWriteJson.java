@@ -0,0 +1,395 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Copy-on-write views of a JSON tree, so that transforms that modify their input in place can run
+ *  against a document that must not change, without deep copying the whole document up front.
+ *
+ * wrap() returns a view of the tree that reads through to the original Maps and Lists.  The first
+ *  write to a container copies just that container, shallowly, and from then on the view works on
+ *  its copy.  Nested containers are themselves wrapped as they are read, so a write deep in the tree
+ *  copies only that one container, not its parents.
+ *
+ * unwrap() turns a tree that may contain views back into plain Maps and Lists.  Containers that were
+ *  never written to come back as the original containers, so the result shares them with the input.
+ *
+ * Views are not thread safe, and are meant to live for the duration of a single transform.
+ */
+public final class CopyOnWriteJson {
+
+    private CopyOnWriteJson() {}
+
+    /**
+     * @param json a JSON tree that must not be modified
+     * @return a copy-on-write view of the tree, or json itself if it is not a Map or List
+     */
+    @SuppressWarnings( "unchecked" )
+    public static Object wrap( Object json ) {
+        if ( json instanceof CopyOnWriteMap || json instanceof CopyOnWriteList ) {
+            return json;
+        }
+        if ( json instanceof Map ) {
+            return new CopyOnWriteMap( (Map<String, Object>) json );
+        }
+        if ( json instanceof List ) {
+            return new CopyOnWriteList( (List<Object>) json );
+        }
+        return json;
+    }
+
+    /**
+     * Replace any copy-on-write views in the tree with plain containers.  Plain containers in the
+     *  tree, which were made by the transforms, are updated in place.
+     *
+     * @param json a JSON tree, possibly holding views made by wrap()
+     * @return the tree without views
+     */
+    @SuppressWarnings( "unchecked" )
+    public static Object unwrap( Object json ) {
+        if ( json instanceof CopyOnWriteMap ) {
+            return ( (CopyOnWriteMap) json ).materialize();
+        }
+        if ( json instanceof CopyOnWriteList ) {
+            return ( (CopyOnWriteList) json ).materialize();
+        }
+        if ( json instanceof Map ) {
+            for ( Map.Entry<String, Object> entry : ( (Map<String, Object>) json ).entrySet() ) {
+                Object value = entry.getValue();
+                Object unwrapped = unwrap( value );
+                if ( unwrapped != value ) {
+                    entry.setValue( unwrapped );
+                }
+            }
+        }
+        else if ( json instanceof List ) {
+            List<Object> list = (List<Object>) json;
+            for ( int index = 0; index < list.size(); index++ ) {
+                Object value = list.get( index );
+                Object unwrapped = unwrap( value );
+                if ( unwrapped != value ) {
+                    list.set( index, unwrapped );
+                }
+            }
+        }
+        return json;
+    }
+
+    /**
+     * @return true if the view has copied its container, or any view below it has
+     */
+    private static boolean isDirty( Object child ) {
+        if ( child instanceof CopyOnWriteMap ) {
+            return ( (CopyOnWriteMap) child ).isDirty();
+        }
+        if ( child instanceof CopyOnWriteList ) {
+            return ( (CopyOnWriteList) child ).isDirty();
+        }
+        return false;
+    }
+
+    private static boolean isContainer( Object value ) {
+        return value instanceof Map || value instanceof List;
+    }
+
+    /**
+     * Copy-on-write view of a JSON Map.
+     */
+    private static final class CopyOnWriteMap extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> source;
+
+        // null until the first write, after which it holds the values, with any containers from
+        //  the source wrapped
+        private Map<String, Object> copy;
+
+        // views of the source's containers handed out so far, so that a container always gets the same view
+        private Map<String, Object> children;
+
+        private CopyOnWriteMap( Map<String, Object> source ) {
+            this.source = source;
+        }
+
+        private Object child( String key, Object value ) {
+            if ( !isContainer( value ) ) {
+                return value;
+            }
+            if ( children == null ) {
+                children = new HashMap<>();
+            }
+            Object view = children.get( key );
+            if ( view == null ) {
+                view = wrap( value );
+                children.put( key, view );
+            }
+            return view;
+        }
+
+        private Map<String, Object> ensureCopy() {
+            if ( copy == null ) {
+                Map<String, Object> newCopy = new LinkedHashMap<>( Math.max( 16, (int) ( source.size() / 0.75f ) + 1 ) );
+                for ( Map.Entry<String, Object> entry : source.entrySet() ) {
+                    newCopy.put( entry.getKey(), child( entry.getKey(), entry.getValue() ) );
+                }
+                copy = newCopy;
+                children = null;
+            }
+            return copy;
+        }
+
+        private boolean isDirty() {
+            if ( copy != null ) {
+                return true;
+            }
+            if ( children != null ) {
+                for ( Object view : children.values() ) {
+                    if ( CopyOnWriteJson.isDirty( view ) ) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private Map<String, Object> materialize() {
+            if ( copy != null ) {
+                unwrap( copy );
+                return copy;
+            }
+            if ( !isDirty() ) {
+                return source;
+            }
+            Map<String, Object> result = new LinkedHashMap<>( source );
+            for ( Map.Entry<String, Object> entry : children.entrySet() ) {
+                result.put( entry.getKey(), unwrap( entry.getValue() ) );
+            }
+            return result;
+        }
+
+        @Override
+        public int size() {
+            return copy != null ? copy.size() : source.size();
+        }
+
+        @Override
+        public boolean containsKey( Object key ) {
+            return copy != null ? copy.containsKey( key ) : source.containsKey( key );
+        }
+
+        @Override
+        public Object get( Object key ) {
+            if ( copy != null ) {
+                return copy.get( key );
+            }
+            Object value = source.get( key );
+            return value == null ? null : child( (String) key, value );
+        }
+
+        @Override
+        public Object put( String key, Object value ) {
+            return ensureCopy().put( key, value );
+        }
+
+        @Override
+        public Object remove( Object key ) {
+            if ( !containsKey( key ) ) {
+                return null;
+            }
+            return ensureCopy().remove( key );
+        }
+
+        @Override
+        public void clear() {
+            copy = new LinkedHashMap<>();
+            children = null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return copy != null ? copy.entrySet().iterator() : new SourceIterator();
+                }
+
+                @Override
+                public int size() {
+                    return CopyOnWriteMap.this.size();
+                }
+            };
+        }
+
+        /**
+         * Iterates the source, handing out views of its containers.  Removing or setting a value copies
+         *  the map, after which we carry on iterating the unchanged source.
+         */
+        private final class SourceIterator implements Iterator<Entry<String, Object>> {
+
+            private final Iterator<Entry<String, Object>> sourceIterator = source.entrySet().iterator();
+            private String lastKey;
+
+            @Override
+            public boolean hasNext() {
+                return sourceIterator.hasNext();
+            }
+
+            @Override
+            public Entry<String, Object> next() {
+                Entry<String, Object> sourceEntry = sourceIterator.next();
+                final String key = sourceEntry.getKey();
+                lastKey = key;
+                // once copied, the copy holds the views already handed out
+                Object value = copy != null ? copy.get( key ) : child( key, sourceEntry.getValue() );
+                return new SimpleEntry<String, Object>( key, value ) {
+                    @Override
+                    public Object setValue( Object value ) {
+                        super.setValue( value );
+                        return ensureCopy().put( key, value );
+                    }
+                };
+            }
+
+            @Override
+            public void remove() {
+                if ( lastKey == null ) {
+                    throw new IllegalStateException();
+                }
+                ensureCopy().remove( lastKey );
+                lastKey = null;
+            }
+        }
+    }
+
+    /**
+     * Copy-on-write view of a JSON List.
+     */
+    private static final class CopyOnWriteList extends AbstractList<Object> implements RandomAccess {
+
+        private final List<Object> source;
+
+        // null until the first write, after which it holds the values, with any containers from
+        //  the source wrapped
+        private List<Object> copy;
+
+        // views of the source's containers handed out so far, by index
+        private Object[] children;
+
+        private CopyOnWriteList( List<Object> source ) {
+            this.source = source;
+        }
+
+        private Object child( int index, Object value ) {
+            if ( !isContainer( value ) ) {
+                return value;
+            }
+            if ( children == null ) {
+                children = new Object[ source.size() ];
+            }
+            Object view = children[index];
+            if ( view == null ) {
+                view = wrap( value );
+                children[index] = view;
+            }
+            return view;
+        }
+
+        private List<Object> ensureCopy() {
+            if ( copy == null ) {
+                List<Object> newCopy = new ArrayList<>( source.size() + 4 );
+                for ( int index = 0; index < source.size(); index++ ) {
+                    newCopy.add( child( index, source.get( index ) ) );
+                }
+                copy = newCopy;
+                children = null;
+            }
+            return copy;
+        }
+
+        private boolean isDirty() {
+            if ( copy != null ) {
+                return true;
+            }
+            if ( children != null ) {
+                for ( Object view : children ) {
+                    if ( CopyOnWriteJson.isDirty( view ) ) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private List<Object> materialize() {
+            if ( copy != null ) {
+                unwrap( copy );
+                return copy;
+            }
+            if ( !isDirty() ) {
+                return source;
+            }
+            List<Object> result = new ArrayList<>( source );
+            for ( int index = 0; index < children.length; index++ ) {
+                if ( children[index] != null ) {
+                    result.set( index, unwrap( children[index] ) );
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public int size() {
+            return copy != null ? copy.size() : source.size();
+        }
+
+        @Override
+        public Object get( int index ) {
+            if ( copy != null ) {
+                return copy.get( index );
+            }
+            return child( index, source.get( index ) );
+        }
+
+        @Override
+        public Object set( int index, Object element ) {
+            return ensureCopy().set( index, element );
+        }
+
+        @Override
+        public void add( int index, Object element ) {
+            ensureCopy().add( index, element );
+            modCount++;
+        }
+
+        @Override
+        public Object remove( int index ) {
+            Object removed = ensureCopy().remove( index );
+            modCount++;
+            return removed;
+        }
+    }
+}
@@ -20,9 +20,166 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 public class DeepCopy {
 
+    /**
+     * Makes deep copies of one particular object, over and over.
+     */
+    public interface Copier extends Serializable {
+
+        /**
+         * @return a deep copy of the template, or the template itself if it is immutable
+         */
+        Object copy();
+    }
+
+    /**
+     * Work out up front how to copy the given template, so that each later copy does the least work.
+     *
+     * Immutable scalars, like Strings, Numbers and Booleans, are not copied at all.  Maps and Lists of
+     *  them are rebuilt structurally, as LinkedHashMaps and ArrayLists sized to fit, sharing the scalars.
+     *  Anything else falls back to simpleDeepCopy.
+     *
+     * The template must not be modified once compiled.
+     *
+     * @param template JSON style object to make copies of
+     * @return a Copier for the template
+     */
+    @SuppressWarnings( "unchecked" )
+    public static Copier compile( Object template ) {
+
+        if ( isImmutable( template ) ) {
+            return new SharedCopier( template );
+        }
+
+        if ( template instanceof Map ) {
+            Map<Object, Object> map = (Map<Object, Object>) template;
+            Object[] keys = new Object[ map.size() ];
+            Copier[] values = new Copier[ map.size() ];
+            int index = 0;
+            for ( Map.Entry<Object, Object> entry : map.entrySet() ) {
+                if ( ! isImmutable( entry.getKey() ) ) {
+                    return new SerializedCopier( template );
+                }
+                keys[index] = entry.getKey();
+                values[index] = compile( entry.getValue() );
+                index++;
+            }
+            return new MapCopier( keys, values );
+        }
+
+        if ( template instanceof List ) {
+            List<Object> list = (List<Object>) template;
+            Copier[] values = new Copier[ list.size() ];
+            for ( int index = 0; index < values.length; index++ ) {
+                values[index] = compile( list.get( index ) );
+            }
+            return new ListCopier( values );
+        }
+
+        return new SerializedCopier( template );
+    }
+
+    private static boolean isImmutable( Object object ) {
+        return object == null ||
+                object instanceof String ||
+                object instanceof Boolean ||
+                object instanceof Character ||
+                object instanceof Integer ||
+                object instanceof Long ||
+                object instanceof Double ||
+                object instanceof Float ||
+                object instanceof Short ||
+                object instanceof Byte ||
+                object.getClass() == BigDecimal.class ||
+                object.getClass() == BigInteger.class;
+    }
+
+    private static final class SharedCopier implements Copier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object value;
+
+        private SharedCopier( Object value ) {
+            this.value = value;
+        }
+
+        @Override
+        public Object copy() {
+            return value;
+        }
+    }
+
+    private static final class MapCopier implements Copier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] keys;
+        private final Copier[] values;
+        private final int capacity;
+
+        private MapCopier( Object[] keys, Copier[] values ) {
+            this.keys = keys;
+            this.values = values;
+            // big enough to never rehash
+            capacity = (int) ( keys.length / 0.75f ) + 1;
+        }
+
+        @Override
+        public Object copy() {
+            Map<Object, Object> copy = new LinkedHashMap<>( capacity );
+            for ( int index = 0; index < keys.length; index++ ) {
+                copy.put( keys[index], values[index].copy() );
+            }
+            return copy;
+        }
+    }
+
+    private static final class ListCopier implements Copier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Copier[] values;
+
+        private ListCopier( Copier[] values ) {
+            this.values = values;
+        }
+
+        @Override
+        public Object copy() {
+            List<Object> copy = new ArrayList<>( values.length );
+            for ( Copier value : values ) {
+                copy.add( value.copy() );
+            }
+            return copy;
+        }
+    }
+
+    private static final class SerializedCopier implements Copier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object template;
+
+        private SerializedCopier( Object template ) {
+            this.template = template;
+        }
+
+        @Override
+        public Object copy() {
+            return simpleDeepCopy( template );
+        }
+    }
+
     /**
      * Simple deep copy, that leverages Java Serialization.
      * Supplied object is serialized to an in memory buffer (byte array),
@@ -17,9 +17,11 @@
 package com.bazaarvoice.jolt.common;
 
 import com.bazaarvoice.jolt.common.spec.BaseSpec;
+import com.bazaarvoice.jolt.common.spec.LiteralChildIndex;
 import com.bazaarvoice.jolt.common.spec.OrderedCompositeSpec;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -30,54 +32,93 @@ public enum ExecutionStrategy {
      *  than the number of potential keys to check in the input.
      *
      *  More specifically, the assumption here is that the set of literalChildren is smaller than the input "keyset".
+     *
+     *  When that is not the case for a particular input Map, aka the input is much smaller than the literalChildren,
+     *   we walk the input instead, and apply the literal hits in spec order.
      */
     AVAILABLE_LITERALS {
         @Override
         void processMap( OrderedCompositeSpec spec, Map<String, Object> inputMap, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
-            for( String key : spec.getLiteralChildren().keySet() ) {
+            LiteralChildIndex literalChildIndex = spec.getLiteralChildIndex();
+            if ( literalChildIndex != null && inputMap.size() * INPUT_DRIVEN_RATIO < literalChildIndex.size() ) {
+                processSmallMap( literalChildIndex, inputMap, walkedPath, output, context );
+                return;
+            }
+
+            for( Map.Entry<String, ? extends BaseSpec> literalEntry : spec.getLiteralChildren().entrySet() ) {
+
+                String key = literalEntry.getKey();
+                Object subInput = inputMap.get( key );
 
                 // Do not work if the value is missing in the input map
-                if ( inputMap.containsKey( key ) ) {
+                // Only pay for the containsKey probe when the value could be a valid null
+                if ( subInput != null || inputMap.containsKey( key ) ) {
+                    literalEntry.getValue().apply( key, Optional.of( subInput ), walkedPath, output, context );
+                }
+            }
+        }
 
-                    Optional<Object> subInputOptional = Optional.of( inputMap.get( key ) );
-                    spec.getLiteralChildren().get( key ).apply( key, subInputOptional, walkedPath, output, context );
+        /**
+         * Walk the input keys, probing the literalChildren for each, then apply the hits in the order
+         *  the literalChildren are declared in the spec, so that the output is the same as if we had
+         *  walked the literalChildren.
+         */
+        private void processSmallMap( LiteralChildIndex literalChildIndex, Map<String, Object> inputMap, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+
+            int[] hits = new int[ inputMap.size() ];
+            int hitCount = 0;
+            for ( String key : inputMap.keySet() ) {
+                int ordinal = literalChildIndex.ordinalOf( key );
+                if ( ordinal >= 0 ) {
+                    hits[hitCount++] = ordinal;
                 }
             }
+
+            Arrays.sort( hits, 0, hitCount );
+
+            for ( int index = 0; index < hitCount; index++ ) {
+                String key = literalChildIndex.getKey( hits[index] );
+                literalChildIndex.getSpec( hits[index] ).apply( key, Optional.of( inputMap.get( key ) ), walkedPath, output, context );
+            }
         }
 
         @Override
         void processList( OrderedCompositeSpec spec, List<Object> inputList, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
             Integer originalSize = walkedPath.lastElement().getOrigSize().get();
-            for( String key : spec.getLiteralChildren().keySet() ) {
-
-                int keyInt = Integer.MAX_VALUE;
-
-                try {
-                    keyInt = Integer.parseInt( key );
-                }
-                catch( NumberFormatException nfe ) {
-                    // If the data is an Array, but the spec keys are Non-Integer Strings,
-                    //  we are annoyed, but we don't stop the whole transform.
-                    // Just this part of the Transform won't work.
+            LiteralChildIndex literalChildIndex = spec.getLiteralChildIndex();
+            if ( literalChildIndex == null ) {
+                // the spec does not index its literal children, so parse the keys as we go
+                for( Map.Entry<String, ? extends BaseSpec> literalEntry : spec.getLiteralChildren().entrySet() ) {
+                    String key = literalEntry.getKey();
+                    processListLiteral( key, LiteralChildIndex.parseArrayIndex( key ), literalEntry.getValue(), inputList, originalSize, walkedPath, output, context );
                 }
+                return;
+            }
+
+            for( int ordinal = 0; ordinal < literalChildIndex.size(); ordinal++ ) {
+                // the key was parsed when the spec was built, non integer keys are Integer.MAX_VALUE
+                processListLiteral( literalChildIndex.getKey( ordinal ), literalChildIndex.getArrayIndex( ordinal ), literalChildIndex.getSpec( ordinal ),
+                        inputList, originalSize, walkedPath, output, context );
+            }
+        }
 
-                // Do not work if the index is outside of the input list
-                if ( keyInt < inputList.size() ) {
+        private void processListLiteral( String key, int keyInt, BaseSpec literalChild, List<Object> inputList, Integer originalSize, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
-                    Object subInput = inputList.get( keyInt );
-                    Optional<Object> subInputOptional;
-                    if ( subInput == null && originalSize != null && keyInt >= originalSize ) {
-                        subInputOptional = Optional.empty();
-                    }
-                    else {
-                        subInputOptional = Optional.of( subInput );
-                    }
+            // Do not work if the index is outside of the input list
+            if ( keyInt < inputList.size() ) {
 
-                    // we know the .get(key) will not return null, because we are iterating over its keys
-                    spec.getLiteralChildren().get( key ).apply( key, subInputOptional, walkedPath, output, context );
+                Object subInput = inputList.get( keyInt );
+                Optional<Object> subInputOptional;
+                if ( subInput == null && originalSize != null && keyInt >= originalSize ) {
+                    subInputOptional = Optional.empty();
                 }
+                else {
+                    subInputOptional = Optional.of( subInput );
+                }
+
+                literalChild.apply( key, subInputOptional, walkedPath, output, context );
             }
         }
 
@@ -101,15 +142,17 @@ public enum ExecutionStrategy {
         @Override
         void processMap( OrderedCompositeSpec spec, Map<String, Object> inputMap, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
-            for( String key : spec.getLiteralChildren().keySet() ) {
+            for( Map.Entry<String, ? extends BaseSpec> literalEntry : spec.getLiteralChildren().entrySet() ) {
 
                 // if the input in not available in the map us null or else get value,
                 // then lookup and place a defined value from spec there
+                String key = literalEntry.getKey();
+                Object subInput = inputMap.get( key );
                 Optional<Object> subInputOptional = Optional.empty();
-                if ( inputMap.containsKey( key ) ) {
-                    subInputOptional = Optional.of( inputMap.get( key ));
+                if ( subInput != null || inputMap.containsKey( key ) ) {
+                    subInputOptional = Optional.of( subInput );
                 }
-                spec.getLiteralChildren().get( key ).apply( key, subInputOptional, walkedPath, output, context );
+                literalEntry.getValue().apply( key, subInputOptional, walkedPath, output, context );
             }
         }
 
@@ -117,31 +160,35 @@ public enum ExecutionStrategy {
         void processList( OrderedCompositeSpec spec, List<Object> inputList, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
             Integer originalSize = walkedPath.lastElement().getOrigSize().get();
-            for( String key : spec.getLiteralChildren().keySet() ) {
+            LiteralChildIndex literalChildIndex = spec.getLiteralChildIndex();
+            if ( literalChildIndex == null ) {
+                // the spec does not index its literal children, so parse the keys as we go
+                for( Map.Entry<String, ? extends BaseSpec> literalEntry : spec.getLiteralChildren().entrySet() ) {
+                    String key = literalEntry.getKey();
+                    processListLiteral( key, LiteralChildIndex.parseArrayIndex( key ), literalEntry.getValue(), inputList, originalSize, walkedPath, output, context );
+                }
+                return;
+            }
 
-                int keyInt = Integer.MAX_VALUE;
+            for( int ordinal = 0; ordinal < literalChildIndex.size(); ordinal++ ) {
+                // the key was parsed when the spec was built, non integer keys are Integer.MAX_VALUE
+                processListLiteral( literalChildIndex.getKey( ordinal ), literalChildIndex.getArrayIndex( ordinal ), literalChildIndex.getSpec( ordinal ),
+                        inputList, originalSize, walkedPath, output, context );
+            }
+        }
 
-                try {
-                    keyInt = Integer.parseInt( key );
-                }
-                catch( NumberFormatException nfe ) {
-                    // If the data is an Array, but the spec keys are Non-Integer Strings,
-                    //  we are annoyed, but we don't stop the whole transform.
-                    // Just this part of the Transform won't work.
-                }
+        private void processListLiteral( String key, int keyInt, BaseSpec literalChild, List<Object> inputList, Integer originalSize, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
 
-                // if the input in not available in the list use null or else get value,
-                // then lookup and place a default value as defined in spec there
-                Optional<Object> subInputOptional = Optional.empty();
-                if ( keyInt < inputList.size() ) {
-                    Object subInput = inputList.get( keyInt );
-                    if ( subInput != null || originalSize == null || keyInt < originalSize ) {
-                        subInputOptional = Optional.of( subInput );
-                    }
+            // if the input in not available in the list use null or else get value,
+            // then lookup and place a default value as defined in spec there
+            Optional<Object> subInputOptional = Optional.empty();
+            if ( keyInt < inputList.size() ) {
+                Object subInput = inputList.get( keyInt );
+                if ( subInput != null || originalSize == null || keyInt < originalSize ) {
+                    subInputOptional = Optional.of( subInput );
                 }
-                // we know the .get(key) will not return null, because we are iterating over its keys
-                spec.getLiteralChildren().get( key ).apply( key, subInputOptional, walkedPath, output, context );
             }
+            literalChild.apply( key, subInputOptional, walkedPath, output, context );
         }
 
         @Override
@@ -171,7 +218,7 @@ public enum ExecutionStrategy {
             Integer originalSize = walkedPath.lastElement().getOrigSize().get();
             for (int index = 0; index < inputList.size(); index++) {
                 Object subInput = inputList.get( index );
-                String subKeyStr = Integer.toString( index );
+                String subKeyStr = ArrayIndexKeys.toKey( index );
                 Optional<Object> subInputOptional;
                 if ( subInput == null && originalSize != null && index >= originalSize ) {
                     subInputOptional = Optional.empty();
@@ -210,7 +257,7 @@ public enum ExecutionStrategy {
             Integer originalSize = walkedPath.lastElement().getOrigSize().get();
             for (int index = 0; index < inputList.size(); index++) {
                 Object subInput = inputList.get( index );
-                String subKeyStr = Integer.toString( index );
+                String subKeyStr = ArrayIndexKeys.toKey( index );
                 Optional<Object> subInputOptional;
                 if ( subInput == null && originalSize != null && index >= originalSize ) {
                     subInputOptional = Optional.empty();
@@ -274,6 +321,15 @@ public enum ExecutionStrategy {
         }
     };
 
+    /**
+     * How many times smaller than the literalChildren an input Map has to be, for the literal
+     *  strategies to walk the input keys rather than the literalChildren.
+     *
+     * Walking the input has the extra cost of sorting the hits back into spec order, hence
+     *  we only do it when the input is clearly smaller.
+     */
+    static final int INPUT_DRIVEN_RATIO = 4;
+
     @SuppressWarnings( "unchecked" )
     public void process( OrderedCompositeSpec spec, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String,Object> output, Map<String, Object> context ) {
         Object input = inputOptional.get();
@@ -289,6 +345,31 @@ public enum ExecutionStrategy {
         }
     }
 
+    /**
+     * @return true if this strategy processes each input key on its own, aka independently of the other input keys,
+     *  in which case processInputKey can be used to process the input keys separately, eg in parallel
+     */
+    public boolean processesInputKeysIndependently() {
+        return this == COMPUTED || this == CONFLICT;
+    }
+
+    /**
+     * Process a single input key, exactly as process would for that key.
+     *
+     * @throws IllegalStateException if this strategy does not process input keys independently
+     */
+    public void processInputKey( OrderedCompositeSpec spec, String subKeyStr, Optional<Object> subInputOptional, WalkedPath walkedPath, Map<String,Object> output, Map<String, Object> context ) {
+        if ( this == COMPUTED ) {
+            applyKeyToComputed( spec.getComputedChildren(), walkedPath, output, subKeyStr, subInputOptional, context );
+        }
+        else if ( this == CONFLICT ) {
+            applyKeyToLiteralAndComputed( spec, subKeyStr, subInputOptional, walkedPath, output, context );
+        }
+        else {
+            throw new IllegalStateException( name() + " does not process input keys independently." );
+        }
+    }
+
     abstract void processMap   ( OrderedCompositeSpec spec, Map<String, Object> inputMap, WalkedPath walkedPath, Map<String,Object> output, Map<String, Object> context );
     abstract void processList  ( OrderedCompositeSpec spec, List<Object> inputList      , WalkedPath walkedPath, Map<String,Object> output, Map<String, Object> context );
     abstract void processScalar( OrderedCompositeSpec spec, String scalarInput          , WalkedPath walkedPath, Map<String,Object> output, Map<String, Object> context );
@@ -15,12 +15,16 @@
  */
 package com.bazaarvoice.jolt.common;
 
+import java.io.Serializable;
+
 /**
  * We cannot go away from this Optional to java 8 Optional because, this Optional gives as three states!
  * Where a value can an Object, a null (which is a valid json value) and absent,
  * which is not possible with Java 8 Optional.
  */
-public class Optional<T> {
+public class Optional<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final T obj;
     private final boolean abs;
@@ -72,6 +76,13 @@ public class Optional<T> {
         );
     }
 
+    /**
+     * Keep empty() a singleton when read from a ChainrSnapshot, as equals() relies on it.
+     */
+    private Object readResolve() {
+        return abs ? EMPTY : this;
+    }
+
     @Override
     public String toString() {
         return "Optional<" + (abs?"?":obj==null?"?":obj.getClass().getSimpleName()) + ">: present=" + !abs + ", value=(" + obj + ")";
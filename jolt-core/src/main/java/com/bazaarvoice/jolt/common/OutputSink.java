@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+import com.bazaarvoice.jolt.traversr.BatchTraversal;
+
+import java.util.Map;
+
+/**
+ * Where leaf specs send the data they write.
+ *
+ * The sink is part of the WalkedPath, so it is chosen once per tree walk.  A plain walk uses DIRECT,
+ *  which writes to the output Map straight away, while a Shiftr partition processed on another thread
+ *  walks with a ShiftrWriteLog, which records the writes to be replayed into the output later.
+ */
+public interface OutputSink {
+
+    OutputSink DIRECT = new OutputSink() {
+        @Override
+        public void write( PathEvaluatingTraversal[] writers, Object data, WalkedPath walkedPath, Map<String, Object> output ) {
+            if ( writers.length == 1 ) {
+                writers[0].write( data, output, walkedPath );
+            }
+            else if ( writers.length > 1 ) {
+                // multiple output paths often share a prefix, so only descend it once
+                BatchTraversal batch = new BatchTraversal( output );
+                for ( PathEvaluatingTraversal writer : writers ) {
+                    writer.write( data, batch, walkedPath );
+                }
+            }
+        }
+    };
+
+    /**
+     * Write the data to each of the writers' paths, evaluated against the WalkedPath, in order.
+     */
+    void write( PathEvaluatingTraversal[] writers, Object data, WalkedPath walkedPath, Map<String, Object> output );
+}
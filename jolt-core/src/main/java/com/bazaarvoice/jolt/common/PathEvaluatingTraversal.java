@@ -15,13 +15,17 @@
  */
 package com.bazaarvoice.jolt.common;
 
+import com.bazaarvoice.jolt.common.pathelement.ArrayPathElement;
 import com.bazaarvoice.jolt.common.pathelement.EvaluatablePathElement;
+import com.bazaarvoice.jolt.common.pathelement.LiteralPathElement;
 import com.bazaarvoice.jolt.common.pathelement.PathElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.traversr.BatchTraversal;
 import com.bazaarvoice.jolt.traversr.Traversr;
 import com.bazaarvoice.jolt.utils.StringTools;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -38,12 +42,30 @@ import static com.bazaarvoice.jolt.common.PathElementBuilder.parseDotNotationRHS
  *
  * This processes the dot notation path into internal data structures, so
  *  that the String processing only happens once.
+ *
+ * Path elements that do not depend on the WalkedPath, like "rating" or "[3]", are also resolved
+ *  once, so that only the reference based elements, like "&1(2)", are evaluated for each write.
  */
-public abstract class PathEvaluatingTraversal {
+public abstract class PathEvaluatingTraversal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private final List<EvaluatablePathElement> elements;
     private final Traversr traversr;
 
+    // The keys of the elements that do not depend on the WalkedPath, with nulls for the ones that do
+    private final String[] constantKeys;
+
+    // The same, as handed to the Traversr, with explicit array indexes as Integers so they are not parsed on every write
+    private final Object[] constantStepKeys;
+
+    // The elements that need to be evaluated against the WalkedPath, and their positions in the path
+    private final EvaluatablePathElement[] dynamicElements;
+    private final int[] dynamicIndexes;
+
+    // Non null if none of the elements depend on the WalkedPath, in which case all evaluations share it
+    private final List<String> constantPath;
+
     public PathEvaluatingTraversal( String dotNotation ) {
 
         if ( ( dotNotation.contains("*") && ! dotNotation.contains( "\\*" ) ) ||
@@ -82,6 +104,46 @@ public abstract class PathEvaluatingTraversal {
 
         this.elements = Collections.unmodifiableList( evalPaths );
         this.traversr = trav;
+
+        constantKeys = new String[ evalPaths.size() ];
+        constantStepKeys = new Object[ evalPaths.size() ];
+        List<Integer> dynamic = new ArrayList<>();
+        for ( int index = 0; index < evalPaths.size(); index++ ) {
+            EvaluatablePathElement pe = evalPaths.get( index );
+            if ( isConstant( pe ) ) {
+                constantKeys[index] = pe.evaluate( null );
+                constantStepKeys[index] = constantKeys[index];
+                if ( pe instanceof ArrayPathElement && ( (ArrayPathElement) pe ).isExplicitArrayIndex() ) {
+                    constantStepKeys[index] = Integer.valueOf( constantKeys[index] );
+                }
+            }
+            else {
+                dynamic.add( index );
+            }
+        }
+
+        dynamicElements = new EvaluatablePathElement[ dynamic.size() ];
+        dynamicIndexes = new int[ dynamic.size() ];
+        for ( int index = 0; index < dynamic.size(); index++ ) {
+            dynamicIndexes[index] = dynamic.get( index );
+            dynamicElements[index] = evalPaths.get( dynamicIndexes[index] );
+        }
+
+        constantPath = dynamic.isEmpty() ? Collections.unmodifiableList( Arrays.asList( constantKeys ) ) : null;
+    }
+
+    /**
+     * @return true if the PathElement always evaluates to the same key, regardless of the WalkedPath
+     */
+    private static boolean isConstant( PathElement pe ) {
+        if ( pe instanceof LiteralPathElement ) {
+            return true;
+        }
+        if ( pe instanceof ArrayPathElement ) {
+            ArrayPathElement ape = (ArrayPathElement) pe;
+            return ape.isExplicitArrayIndex() || ape.isAutoExpand();
+        }
+        return false;
     }
 
     protected abstract Traversr createTraversr(List<String> paths);
@@ -96,19 +158,92 @@ public abstract class PathEvaluatingTraversal {
      * @param walkedPath reference used to lookup reference values like "&1(2)"
      */
     public void write( Object data, Map<String, Object> output, WalkedPath walkedPath ) {
-        List<String> evaledPaths = evaluate( walkedPath );
-        if ( evaledPaths != null ) {
-            traversr.set( output, evaledPaths, data );
+        Object[] evaledKeys = evaluateKeys( walkedPath );
+        if ( evaledKeys != null ) {
+            traversr.setValue( output, evaledKeys, data );
         }
     }
 
+    /**
+     * Same as write, but through a BatchTraversal over the output, so that consecutive writes that
+     *  share a prefix descend it only once.
+     *
+     * @param data data to write
+     * @param output BatchTraversal over the data structure we are going to write the data to
+     * @param walkedPath reference used to lookup reference values like "&1(2)"
+     */
+    @SuppressWarnings( "unchecked" )
+    public void write( Object data, BatchTraversal output, WalkedPath walkedPath ) {
+        Object[] evaledKeys = evaluateKeys( walkedPath );
+        if ( evaledKeys != null ) {
+            output.set( traversr, evaledKeys, data );
+        }
+    }
+
+    /**
+     * Write the given data to the output, using a path previously returned by evaluate.
+     *
+     * @param data data to write
+     * @param output data structure we are going to write the data to
+     * @param evaledPaths the evaluated output path
+     */
+    public void writeEvaluated( Object data, Map<String, Object> output, List<String> evaledPaths ) {
+        traversr.set( output, evaledPaths, data );
+    }
+
+    /**
+     * Write the given data to the output, using keys previously returned by evaluateKeys.
+     *
+     * @param data data to write
+     * @param output data structure we are going to write the data to
+     * @param evaledKeys the evaluated output keys
+     */
+    public void writeEvaluated( Object data, Map<String, Object> output, Object[] evaledKeys ) {
+        traversr.setValue( output, evaledKeys, data );
+    }
+
+    /**
+     * Write the given data through a BatchTraversal over the output, using keys previously returned by evaluateKeys.
+     */
+    @SuppressWarnings( "unchecked" )
+    public void writeEvaluated( Object data, BatchTraversal output, Object[] evaledKeys ) {
+        output.set( traversr, evaledKeys, data );
+    }
+
     public Optional<Object> read( Object data, WalkedPath walkedPath ) {
-        List<String> evaledPaths = evaluate( walkedPath );
-        if ( evaledPaths == null ) {
+        Object[] evaledKeys = evaluateKeys( walkedPath );
+        if ( evaledKeys == null ) {
             return Optional.empty();
         }
 
-        return traversr.get( data, evaledPaths );
+        Object value = traversr.getValue( data, evaledKeys );
+        return value == Traversr.MISSING ? Optional.empty() : Optional.of( value );
+    }
+
+    /**
+     * Same as evaluate, but returns the keys in the form the Traversr walks fastest, with
+     *  explicit array indexes as Integers.
+     *
+     * @param walkedPath used to lookup/evaluate PathElement references values like "&1(2)"
+     * @return null or the evaluated keys, which the caller must not modify
+     */
+    public Object[] evaluateKeys( WalkedPath walkedPath ) {
+
+        if ( constantPath != null ) {
+            return constantStepKeys;
+        }
+
+        Object[] keys = constantStepKeys.clone();
+        for ( int index = 0; index < dynamicElements.length; index++ ) {
+
+            String evaledLeafOutput = dynamicElements[index].evaluate( walkedPath );
+            if ( evaledLeafOutput == null ) {
+                return null;
+            }
+            keys[ dynamicIndexes[index] ] = evaledLeafOutput;
+        }
+
+        return keys;
     }
 
     /**
@@ -117,24 +252,30 @@ public abstract class PathEvaluatingTraversal {
      * If our PathElements contained a TransposePathElement, we may return null.
      *
      * @param walkedPath used to lookup/evaluate PathElement references values like "&1(2)"
-     * @return null or fully evaluated Strings, possibly with concrete array references like "photos.[3]"
+     * @return null or fully evaluated Strings, possibly with concrete array references like "photos.[3]",
+     *  which the caller must not modify
      */
     // Visible for testing
     public List<String> evaluate( WalkedPath walkedPath ) {
 
-        List<String> strings = new ArrayList<>( elements.size() );
-        for ( EvaluatablePathElement pathElement : elements ) {
+        if ( constantPath != null ) {
+            return constantPath;
+        }
+
+        // Start from the constant keys, and only fill in the ones that depend on the walkedPath
+        String[] keys = constantKeys.clone();
+        for ( int index = 0; index < dynamicElements.length; index++ ) {
 
-            String evaledLeafOutput = pathElement.evaluate( walkedPath );
+            String evaledLeafOutput = dynamicElements[index].evaluate( walkedPath );
             if ( evaledLeafOutput == null ) {
                 // If this output path contains a TransposePathElement, and when evaluated,
                 //  return null, then bail
                 return null;
             }
-            strings.add( evaledLeafOutput );
+            keys[ dynamicIndexes[index] ] = evaledLeafOutput;
         }
 
-        return strings;
+        return Arrays.asList( keys );
     }
 
     public int size() {
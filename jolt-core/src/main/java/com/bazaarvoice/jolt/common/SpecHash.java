@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hash of a JSON spec, the same for equal specs across JVMs and releases, so it can be used
+ *  to recognize a spec in caches, metrics and recordings.
+ */
+public final class SpecHash {
+
+    // only used to write JSON, which needs none of the stock Jolt parser configuration
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private SpecHash() {}
+
+    /**
+     * @return the SHA-256 of the compact JSON form of the spec, as hex
+     */
+    public static String of( Object spec ) {
+
+        byte[] canonical;
+        try {
+            canonical = OBJECT_MAPPER.writeValueAsBytes( spec );
+        }
+        catch ( JsonProcessingException jpe ) {
+            // not JSON, but still usable as a spec by a custom transform, so hash what we can
+            canonical = String.valueOf( spec ).getBytes( StandardCharsets.UTF_8 );
+        }
+
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance( "SHA-256" ).digest( canonical );
+        }
+        catch ( NoSuchAlgorithmException nsae ) {
+            // every JVM is required to provide SHA-256
+            throw new IllegalStateException( nsae );
+        }
+
+        StringBuilder hex = new StringBuilder( digest.length * 2 );
+        for ( byte b : digest ) {
+            hex.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) );
+            hex.append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return hex.toString();
+    }
+}
@@ -29,6 +29,8 @@ import java.util.List;
  */
 public class TransposeReader extends PathEvaluatingTraversal {
 
+    private static final long serialVersionUID = 1L;
+
     public TransposeReader( String dotNotation ) {
         super( dotNotation );
     }
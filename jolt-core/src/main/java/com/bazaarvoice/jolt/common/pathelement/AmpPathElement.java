@@ -30,9 +30,17 @@ import java.util.List;
  */
 public class AmpPathElement extends BasePathElement implements MatchablePathElement, EvaluatablePathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final List<Object> tokens;
     private final String canonicalForm;
 
+    // tokens as an array, so that evaluate does not need an Iterator
+    private final Object[] tokenArray;
+
+    // Non null if the key is just a single reference, like "&1", which can be evaluated without a StringBuilder
+    private final AmpReference soleReference;
+
     public AmpPathElement( String key ) {
         super(key);
 
@@ -76,6 +84,9 @@ public class AmpPathElement extends BasePathElement implements MatchablePathElem
 
         tokens = Collections.unmodifiableList( tok );
         canonicalForm = canonicalBuilder.toString();
+
+        tokenArray = tok.toArray();
+        soleReference = tokenArray.length == 1 && tokenArray[0] instanceof AmpReference ? (AmpReference) tokenArray[0] : null;
     }
 
     private static int findEndOfReference( String key ) {
@@ -106,25 +117,31 @@ public class AmpPathElement extends BasePathElement implements MatchablePathElem
     @Override
     public String evaluate( WalkedPath walkedPath ) {
 
+        if ( soleReference != null ) {
+            return evaluate( soleReference, walkedPath );
+        }
+
         // Walk thru our tokens and build up a string
         // Use the supplied Path to fill in our token References
         StringBuilder output = new StringBuilder();
 
-        for ( Object token : tokens ) {
+        for ( Object token : tokenArray ) {
             if ( token instanceof String ) {
-                output.append( token );
+                output.append( (String) token );
             }
             else {
-                AmpReference ref = (AmpReference) token;
-                MatchedElement matchedElement = walkedPath.elementFromEnd( ref.getPathIndex() ).getMatchedElement();
-                String value = matchedElement.getSubKeyRef( ref.getKeyGroup() );
-                output.append( value );
+                output.append( evaluate( (AmpReference) token, walkedPath ) );
             }
         }
 
         return output.toString();
     }
 
+    private static String evaluate( AmpReference ref, WalkedPath walkedPath ) {
+        MatchedElement matchedElement = walkedPath.elementFromEnd( ref.getPathIndex() ).getMatchedElement();
+        return matchedElement.getSubKeyRef( ref.getKeyGroup() );
+    }
+
     @Override
     public MatchedElement match( String dataKey, WalkedPath walkedPath ) {
         String evaled = evaluate( walkedPath );
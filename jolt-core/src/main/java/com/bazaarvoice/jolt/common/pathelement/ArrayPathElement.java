@@ -27,6 +27,8 @@ import com.bazaarvoice.jolt.exception.SpecException;
 
 public class ArrayPathElement extends BasePathElement implements MatchablePathElement, EvaluatablePathElement {
 
+    private static final long serialVersionUID = 1L;
+
     public enum ArrayPathType { AUTO_EXPAND, REFERENCE, HASH, TRANSPOSE, EXPLICIT_INDEX }
 
     private final ArrayPathType arrayPathType;
@@ -35,6 +37,7 @@ public class ArrayPathElement extends BasePathElement implements MatchablePathEl
 
     private final String canonicalForm;
     private final String arrayIndex;
+    private final Integer explicitArrayIndex;  // arrayIndex parsed once, null if this is not an EXPLICIT_INDEX
 
     public ArrayPathElement( String key ) {
         super(key);
@@ -89,6 +92,7 @@ public class ArrayPathElement extends BasePathElement implements MatchablePathEl
         arrayPathType = apt;
         ref = r;
         arrayIndex = aI;
+        explicitArrayIndex = apt == ArrayPathType.EXPLICIT_INDEX ? Integer.valueOf( aI ) : null;
     }
 
 
@@ -155,24 +159,26 @@ public class ArrayPathElement extends BasePathElement implements MatchablePathEl
     }
 
     public Integer getExplicitArrayIndex() {
-        try {
-            return Integer.parseInt( arrayIndex );
-        }
-        catch ( Exception ignored ) {
-            return null;
-        }
+        return explicitArrayIndex;
     }
 
     public boolean isExplicitArrayIndex() {
         return arrayPathType.equals( ArrayPathType.EXPLICIT_INDEX );
     }
 
+    public boolean isAutoExpand() {
+        return arrayPathType.equals( ArrayPathType.AUTO_EXPAND );
+    }
+
     @Override
     public MatchedElement match( String dataKey, WalkedPath walkedPath ) {
         String evaled = evaluate( walkedPath );
         if ( evaled.equals( dataKey ) ) {
             Optional<Integer> origSizeOptional = walkedPath.lastElement().getOrigSize();
             if(origSizeOptional.isPresent()) {
+                if ( explicitArrayIndex != null ) {
+                    return new ArrayMatchedElement( evaled, explicitArrayIndex, origSizeOptional.get() );
+                }
                 return new ArrayMatchedElement( evaled, origSizeOptional.get());
             }
             else {
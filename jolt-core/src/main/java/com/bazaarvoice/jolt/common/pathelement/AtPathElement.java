@@ -20,6 +20,9 @@ import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
 
 public class AtPathElement extends BasePathElement implements MatchablePathElement {
+
+    private static final long serialVersionUID = 1L;
+
     public AtPathElement( String key ) {
         super(key);
 
@@ -17,6 +17,8 @@ package com.bazaarvoice.jolt.common.pathelement;
 
 public abstract class BasePathElement implements PathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final String rawKey;
 
     public BasePathElement( String key ) {
@@ -21,6 +21,8 @@ import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
 public class DollarPathElement extends BasePathElement implements MatchablePathElement, EvaluatablePathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final DollarReference dRef;
 
     public DollarPathElement( String key ) {
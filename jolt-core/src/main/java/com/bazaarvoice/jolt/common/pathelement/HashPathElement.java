@@ -26,6 +26,8 @@ import com.bazaarvoice.jolt.utils.StringTools;
  */
 public class HashPathElement extends BasePathElement implements MatchablePathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final String keyValue;
 
     public HashPathElement( String key ) {
@@ -24,6 +24,8 @@ import com.bazaarvoice.jolt.common.tree.WalkedPath;
  */
 public class LiteralPathElement extends BasePathElement implements MatchablePathElement, EvaluatablePathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final String canonicalForm;
 
     public LiteralPathElement( String key ) {
@@ -15,7 +15,9 @@
  */
 package com.bazaarvoice.jolt.common.pathelement;
 
-public interface PathElement {
+import java.io.Serializable;
+
+public interface PathElement extends Serializable {
 
     String getRawKey();
 
@@ -26,6 +26,8 @@ import com.bazaarvoice.jolt.common.tree.WalkedPath;
  */
 public class StarAllPathElement implements StarPathElement {
 
+    private static final long serialVersionUID = 1L;
+
     public StarAllPathElement( String key ) {
         if ( ! "*".equals( key ) ) {
             throw new IllegalArgumentException( "StarAllPathElement key should just be a single '*'.  Was: " + key );
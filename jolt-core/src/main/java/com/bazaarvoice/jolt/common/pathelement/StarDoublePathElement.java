@@ -19,15 +19,14 @@ import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.utils.StringTools;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  *  PathElement for the a double "*" wildcard such as tag-*-*.   In this case we can avoid doing any
  *  regex work by doing String begins, ends and mid element exists.
  */
 public class StarDoublePathElement extends BasePathElement implements StarPathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final String prefix,suffix, mid;
 
     /**+
@@ -103,11 +102,13 @@ public class StarDoublePathElement extends BasePathElement implements StarPathEl
             return -1;
 
         }
-        int midIndex = literal.substring(startOffset, endOffset).indexOf(mid);
 
-        if(midIndex >= 0) {
+        // search in place rather than in a substring, the mid has to fit entirely before endOffset
+        int midIndex = literal.indexOf( mid, startOffset );
 
-            return midIndex +  startOffset;
+        if( midIndex >= 0 && midIndex + mid.length() <= endOffset ) {
+
+            return midIndex;
         }
         return -1;
     }
@@ -115,21 +116,18 @@ public class StarDoublePathElement extends BasePathElement implements StarPathEl
 
     @Override
     public MatchedElement match(String dataKey, WalkedPath walkedPath) {
-        if ( stringMatch( dataKey ) )  {
-            List<String> subKeys = new ArrayList<>(2);
-
-            int midStart = finMidIndex(dataKey);
-            int midEnd = midStart + mid.length();
-
-            String firstStarPart = dataKey.substring( prefix.length(), midStart);
-            subKeys.add( firstStarPart );
-
-            String secondStarPart = dataKey.substring( midEnd, dataKey.length() - suffix.length()  );
-            subKeys.add( secondStarPart );
+        if ( ! dataKey.startsWith( prefix ) || ! dataKey.endsWith( suffix ) ) {
+            return null;
+        }
 
-            return new MatchedElement(dataKey, subKeys);
+        int midStart = finMidIndex(dataKey);
+        if ( midStart <= 0 ) {
+            return null;
         }
-        return null;
+        int midEnd = midStart + mid.length();
+
+        // hand over the offsets of the star parts, so that they are only substring-ed if something references them
+        return new MatchedElement( dataKey, new int[] { prefix.length(), midStart, midEnd, dataKey.length() - suffix.length() } );
     }
 
     @Override
@@ -18,96 +18,123 @@ package com.bazaarvoice.jolt.common.pathelement;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 /**
  * Non-greedy * based Path Element.
+ *
+ * "rating-*-*" matches the same keys, and captures the same values, as the regex "^rating-(.+?)-(.+?)$",
+ *  aka each '*' must match something in a non-greedy way.
+ *
+ * Rather than compiling a regex, the key is split into the literal segments between the stars, and
+ *  input keys are matched against those segments directly.  This avoids the Matcher allocation and
+ *  the regex metachar escaping, and lets the captures be handed to the MatchedElement as offsets.
  */
 public class StarRegexPathElement extends BasePathElement implements StarPathElement {
 
-    private final Pattern pattern;
+    private static final long serialVersionUID = 1L;
+
+    // "rating-*-*"  ->  [ "rating-", "-", "" ]
+    private final String[] segments;
+
+    // minTailLength[i] is the min number of chars that star i and everything after it must consume
+    private final int[] minTailLength;
 
     public StarRegexPathElement( String key ) {
         super(key);
 
-        pattern = makePattern( key );
-    }
-
+        segments = splitOnStars( key );
 
-    private static Pattern makePattern( String key ) {
+        int starCount = segments.length - 1;
+        minTailLength = new int[ starCount ];
+        int tail = segments[ starCount ].length();
+        for ( int star = starCount - 1; star >= 0; star-- ) {
+            tail += 1;  // the star has to match at least one char
+            minTailLength[star] = tail;
+            tail += segments[star].length();
+        }
+    }
 
-        // "rating-*-*"  ->  "^rating-(.+?)-(.+?)$"   aka the '*' must match something in a non-greedy way
-        key = escapeMetacharsIfAny(key);
-        String regex = "^" + key.replace("*", "(.+?)")  + "$";
+    private static String[] splitOnStars( String key ) {
 
-        /*
-            wtf does "(.+?)" mean
-            .  : match any character
-            +  : match one or more of the previous thing
-            ?  : match zero of one of the previous thing
-            +? : reluctantly match
+        int starCount = 0;
+        for ( int index = 0; index < key.length(); index++ ) {
+            if ( key.charAt( index ) == '*' ) {
+                starCount++;
+            }
+        }
 
-            See http://docs.oracle.com/javase/tutorial/essential/regex/quant.html
-              Differences Among Greedy, Reluctant, and Possessive Quantifiers section
-        */
+        String[] segments = new String[ starCount + 1 ];
+        int segmentStart = 0;
+        int segment = 0;
+        for ( int index = 0; index < key.length(); index++ ) {
+            if ( key.charAt( index ) == '*' ) {
+                segments[segment++] = key.substring( segmentStart, index );
+                segmentStart = index + 1;
+            }
+        }
+        segments[segment] = key.substring( segmentStart );
 
-        return Pattern.compile( regex);
+        return segments;
     }
 
-    // Metachars to escape .^$|*+?()[{\ in a regex
-
-    /** +
-     *
-     * @param key : String key that needs to be escaped before compiling into regex.
-     * @return : Metachar escaped key.
+    /**
+     * Match the dataKey against our segments.
      *
-     * Regex has some special meaning for the metachars [ .^$|*+?()[{\ ].If any of these metachars is present in the pattern key that was passed, it needs to be escaped so that
-     * it can be matched against literal.
+     * @param captureOffsets if non null, filled in with the [start,end) offsets of each star's capture
+     * @return true if the dataKey matched
      */
-    private static String escapeMetacharsIfAny(String key){
-
-        char[] keyChars = key.toCharArray();
+    private boolean matches( String dataKey, int[] captureOffsets ) {
 
-        // String.replace replaces all instances of the char sequence. So, it would try to escape the occurrence as many times as the occurrence frequency.
-        // For ex: if a key as 2 '5star.rating.1', it would escape it twice resulting in 5star//.rating//.1.
-        // So, we keep an list of already seen characters.
-
-        Set<Character> charsAlreadySeen = new HashSet<>();
+        String prefix = segments[0];
+        if ( minTailLength.length == 0 ) {
+            return dataKey.equals( prefix );
+        }
+        String suffix = segments[ segments.length - 1 ];
 
-        for(char keychar: keyChars) {
+        if ( dataKey.length() < prefix.length() + minTailLength[0] ||
+            ! dataKey.startsWith( prefix ) ||
+            ! dataKey.endsWith( suffix ) ) {
+            return false;
+        }
 
-            switch (keychar) {
+        return matchStar( dataKey, 0, prefix.length(), captureOffsets );
+    }
 
-                case '(':
-                case '[':
-                case '{':
-                case '\\':
-                case '^':
-                case '$':
-                case '|':
-                case ')':
-                case '?':
-                case '+':
-                case '.':
+    /**
+     * Try to match star "star", which starts at index "start" of the dataKey, and everything after it.
+     *
+     * Like a reluctant regex group, the shortest possible capture for each star is tried first, and
+     *  we backtrack to longer captures if the rest of the key can not be matched.
+     */
+    private boolean matchStar( String dataKey, int star, int start, int[] captureOffsets ) {
 
-                    if(!charsAlreadySeen.contains( keychar )){
+        if ( dataKey.length() - start < minTailLength[star] ) {
+            return false;
+        }
 
-                        key = key.replace(String.valueOf(keychar), "\\" + keychar);
+        int end;
+        if ( star == minTailLength.length - 1 ) {
+            // the last star is pinned by the suffix, which matches() has already checked
+            end = dataKey.length() - segments[ star + 1 ].length();
+        }
+        else {
+            String next = segments[ star + 1 ];
+            int maxEnd = dataKey.length() - next.length() - minTailLength[ star + 1 ];
 
-                        charsAlreadySeen.add(keychar);
-                    }
-                    break;
+            end = dataKey.indexOf( next, start + 1 );
+            while ( end >= 0 && end <= maxEnd && ! matchStar( dataKey, star + 1, end + next.length(), captureOffsets ) ) {
+                end = dataKey.indexOf( next, end + 1 );
+            }
 
-                default:
-                    break;
+            if ( end < 0 || end > maxEnd ) {
+                return false;
             }
         }
-        return key;
+
+        if ( captureOffsets != null ) {
+            captureOffsets[ 2 * star ] = start;
+            captureOffsets[ 2 * star + 1 ] = end;
+        }
+        return true;
     }
 
     /**
@@ -116,28 +143,18 @@ public class StarRegexPathElement extends BasePathElement implements StarPathEle
      */
     @Override
     public boolean stringMatch( String literal ) {
-
-        Matcher matcher = pattern.matcher( literal );
-
-        return matcher.find();
+        return matches( literal, null );
     }
 
     @Override
     public MatchedElement match( String dataKey, WalkedPath walkedPath ) {
 
-        Matcher matcher = pattern.matcher( dataKey );
-        if ( ! matcher.find() ) {
+        int[] captureOffsets = new int[ 2 * minTailLength.length ];
+        if ( ! matches( dataKey, captureOffsets ) ) {
             return null;
         }
 
-        int groupCount = matcher.groupCount();
-
-        List<String> subKeys = new ArrayList<>(groupCount);
-        for ( int index = 1; index <= groupCount; index++) {
-            subKeys.add( matcher.group( index ) );
-        }
-
-        return new MatchedElement(dataKey, subKeys);
+        return new MatchedElement( dataKey, captureOffsets );
     }
 
     @Override
@@ -19,15 +19,14 @@ import com.bazaarvoice.jolt.common.tree.MatchedElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.utils.StringTools;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * PathElement for the a single "*" wildcard such as tag-*.   In this case we can avoid doing any
  *  regex work by doing String begins and ends with comparisons.
  */
 public class StarSinglePathElement extends BasePathElement implements StarPathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final String prefix,suffix;
 
     public StarSinglePathElement( String key ) {
@@ -70,12 +69,8 @@ public class StarSinglePathElement extends BasePathElement implements StarPathEl
     public MatchedElement match( String dataKey, WalkedPath walkedPath ) {
 
         if ( stringMatch( dataKey ) )  {
-            List<String> subKeys = new ArrayList<>(1);
-
-            String starPart = dataKey.substring( prefix.length(), dataKey.length() - suffix.length() );
-            subKeys.add( starPart );
-
-            return new MatchedElement(dataKey, subKeys);
+            // hand over the offsets of the star part, so that it is only substring-ed if something references it
+            return new MatchedElement( dataKey, new int[] { prefix.length(), dataKey.length() - suffix.length() } );
         }
 
         return null;
@@ -67,6 +67,8 @@ import com.bazaarvoice.jolt.utils.StringTools;
  */
 public class TransposePathElement extends BasePathElement implements MatchablePathElement, EvaluatablePathElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final int upLevel;
     private final TransposeReader subPathReader;
     private final String canonicalForm;
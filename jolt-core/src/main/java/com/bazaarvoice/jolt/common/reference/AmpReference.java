@@ -22,6 +22,8 @@ package com.bazaarvoice.jolt.common.reference;
  */
 public class AmpReference extends BasePathAndGroupReference {
 
+    private static final long serialVersionUID = 1L;
+
     public static final Character TOKEN = '&';
 
     public AmpReference( String refStr ) {
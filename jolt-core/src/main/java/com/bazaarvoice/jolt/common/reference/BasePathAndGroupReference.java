@@ -31,6 +31,8 @@ import com.bazaarvoice.jolt.exception.SpecException;
  */
 public abstract class BasePathAndGroupReference implements PathAndGroupReference {
 
+    private static final long serialVersionUID = 1L;
+
     private final int keyGroup;     // equals 0 for "&"  "&0"  and  "&(x,0)"
     private final int pathIndex;    // equals 0 for "&"  "&0"  and  "&(0,x)"
 
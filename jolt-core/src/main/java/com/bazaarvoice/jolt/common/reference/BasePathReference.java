@@ -19,6 +19,8 @@ import com.bazaarvoice.jolt.exception.SpecException;
 
 public abstract class BasePathReference implements PathReference {
 
+    private static final long serialVersionUID = 1L;
+
     private final int pathIndex;    // equals 0 for "&"  "&0"  and  "&(0,x)"
 
     protected abstract char getToken();
@@ -17,6 +17,8 @@ package com.bazaarvoice.jolt.common.reference;
 
 public class DollarReference extends BasePathAndGroupReference {
 
+    private static final long serialVersionUID = 1L;
+
     public static final Character TOKEN = '$';
 
     public DollarReference( String refStr ) {
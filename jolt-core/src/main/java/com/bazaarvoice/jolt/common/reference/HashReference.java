@@ -21,6 +21,8 @@ package com.bazaarvoice.jolt.common.reference;
  */
 public class HashReference extends BasePathReference {
 
+    private static final long serialVersionUID = 1L;
+
     public static final Character TOKEN = '#';
 
     public HashReference( String refStr ) {
@@ -15,6 +15,8 @@
  */
 package com.bazaarvoice.jolt.common.reference;
 
+import java.io.Serializable;
+
 
 /**
  * Reference is used by Shiftr when lookup up values from a WalkedPath (list of LiteralPathElements).
@@ -26,7 +28,7 @@ package com.bazaarvoice.jolt.common.reference;
  *  x : pathIndex : which is how far up the walkedPath the look
  *
  */
-public interface PathReference {
+public interface PathReference extends Serializable {
 
     public int getPathIndex();
 
@@ -20,13 +20,14 @@ import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.pathelement.MatchablePathElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
+import java.io.Serializable;
 import java.util.Map;
 
 /**
  * BaseSpec interface that provide a way to get its own pathElement and an apply(...)
  * method to process the spec using input, output and context
  */
-public interface BaseSpec {
+public interface BaseSpec extends Serializable {
 
     /**
      * Gimme the LHS path element
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common.spec;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Positional view of the literal children of an OrderedCompositeSpec, built once when the spec is built.
+ *
+ * The ExecutionStrategy uses it when it is cheaper to walk the input than the literal children, as the
+ *  ordinals let it put the literal hits it found back into spec order before applying them.
+ *
+ * It also holds the literal keys parsed as list indices, so that the keys do not have to be re-parsed
+ *  every time the spec is applied to a list.
+ */
+public final class LiteralChildIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] keys;
+    private final BaseSpec[] specs;
+    private final int[] arrayIndices;
+    private final Map<String, Integer> ordinals;
+
+    public LiteralChildIndex( Map<String, ? extends BaseSpec> literalChildren ) {
+
+        keys = new String[ literalChildren.size() ];
+        specs = new BaseSpec[ literalChildren.size() ];
+        arrayIndices = new int[ literalChildren.size() ];
+        ordinals = new HashMap<>( literalChildren.size() * 2 );
+
+        int ordinal = 0;
+        for ( Map.Entry<String, ? extends BaseSpec> entry : literalChildren.entrySet() ) {
+            keys[ordinal] = entry.getKey();
+            specs[ordinal] = entry.getValue();
+            arrayIndices[ordinal] = parseArrayIndex( entry.getKey() );
+            ordinals.put( entry.getKey(), ordinal );
+            ordinal++;
+        }
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @return the position of the literal child with the given key in the spec, or -1 if there is no such child
+     */
+    public int ordinalOf( String key ) {
+        Integer ordinal = ordinals.get( key );
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public String getKey( int ordinal ) {
+        return keys[ordinal];
+    }
+
+    public BaseSpec getSpec( int ordinal ) {
+        return specs[ordinal];
+    }
+
+    /**
+     * @return the literal key as a list index, or Integer.MAX_VALUE if the key is not an integer
+     */
+    public int getArrayIndex( int ordinal ) {
+        return arrayIndices[ordinal];
+    }
+
+    /**
+     * @return the literal key as a list index, or Integer.MAX_VALUE if the key is not an integer
+     */
+    public static int parseArrayIndex( String key ) {
+        try {
+            return Integer.parseInt( key );
+        }
+        catch( NumberFormatException nfe ) {
+            // If the data is an Array, but the spec keys are Non-Integer Strings,
+            //  we are annoyed, but we don't stop the whole transform.
+            // Just this part of the Transform won't work.
+            return Integer.MAX_VALUE;
+        }
+    }
+}
@@ -37,5 +37,15 @@ public interface OrderedCompositeSpec extends BaseSpec {
 
     List<? extends BaseSpec> getComputedChildren();
 
+    /**
+     * The stock specs build their index once, with the rest of the spec, and return that.  Specs that
+     *  do not build one get this default, and the ExecutionStrategy walks getLiteralChildren() instead.
+     *
+     * @return the literal children, indexed by their position in getLiteralChildren(), or null
+     */
+    default LiteralChildIndex getLiteralChildIndex() {
+        return null;
+    }
+
     ExecutionStrategy determineExecutionStrategy();
 }
@@ -18,18 +18,46 @@ package com.bazaarvoice.jolt.common.tree;
 
 public class ArrayMatchedElement extends MatchedElement {
 
+    private static final long serialVersionUID = 1L;
+
     private final int origSize;
 
+    // the key parsed as a list index, -1 until someone asks for it
+    private int rawIndex = -1;
+
     public ArrayMatchedElement( String key, int origSize) {
         super( key );
         this.origSize = origSize;
     }
 
+    /**
+     * For when the caller already has the key as a list index, so that it never has to be parsed.
+     */
+    public ArrayMatchedElement( String key, int rawIndex, int origSize ) {
+        super( key );
+        this.origSize = origSize;
+        this.rawIndex = rawIndex;
+    }
+
+    protected ArrayMatchedElement( ArrayMatchedElement other ) {
+        super( other );
+        this.origSize = other.origSize;
+        this.rawIndex = other.rawIndex;
+    }
+
+    @Override
+    public ArrayMatchedElement copy() {
+        return new ArrayMatchedElement( this );
+    }
+
     public int getOrigSize() {
         return origSize;
     }
 
     public Integer getRawIndex() {
-        return Integer.parseInt(super.getRawKey());
+        if ( rawIndex < 0 ) {
+            rawIndex = Integer.parseInt( super.getRawKey() );
+        }
+        return rawIndex;
     }
 }
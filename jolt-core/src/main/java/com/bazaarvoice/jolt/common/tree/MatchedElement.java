@@ -18,31 +18,38 @@ package com.bazaarvoice.jolt.common.tree;
 import com.bazaarvoice.jolt.common.pathelement.BasePathElement;
 import com.bazaarvoice.jolt.common.pathelement.EvaluatablePathElement;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * MatchedElement is the result of a "match" between a spec PathElement and some input data.
  *
  * MatchedElements are not thread safe, and should instead be stack / single Thread/Transform specific.
+ * Every match builds a new MatchedElement, so they are never shared between transform calls, and
+ *  code that hands a WalkedPath to another thread should hand it copies, see copy().
  *
  * This mutability was specifically added for the the HashCount functionality, which allows Shiftr
  *  to transform data form maps to lists.
  */
 public class MatchedElement extends BasePathElement implements EvaluatablePathElement {
 
-    private final List<String> subKeys;
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] NO_CAPTURES = new String[0];
+
+    // The values captured by the wildcards of the match, the full key is implicitly sub key 0
+    private final String[] captures;
+
+    // If non null, [start,end) offsets into the key for each capture, which are only turned into
+    //  Strings when someone actually asks for them
+    private final int[] captureOffsets;
 
     private int hashCount = 0;
 
     public MatchedElement( String key ) {
         super(key);
 
-        List<String> keys = new ArrayList<>(1);
-        keys.add( key ); // always add the full key to index 0
-
-        this.subKeys = Collections.unmodifiableList( keys );
+        this.captures = NO_CAPTURES;
+        this.captureOffsets = null;
     }
 
     public MatchedElement( String key, List<String> subKeys ) {
@@ -52,11 +59,62 @@ public class MatchedElement extends BasePathElement implements EvaluatablePathEl
             throw new IllegalArgumentException( "MatchedElement for key:" + key + " got null list of subKeys" );
         }
 
-        List<String> keys = new ArrayList<>( 1 + subKeys.size() );
-        keys.add( key ); // always add the full key to index 0
-        keys.addAll( subKeys );
+        this.captures = subKeys.toArray( new String[ subKeys.size() ] );
+        this.captureOffsets = null;
+    }
+
+    /**
+     * Array based constructor for the wildcard PathElements, so that a match does not have to
+     *  build and then copy a List.
+     *
+     * @param key the full key that was matched
+     * @param captures values captured by the wildcards, ownership of the array passes to this MatchedElement
+     */
+    public MatchedElement( String key, String[] captures ) {
+        super(key);
 
-        this.subKeys = Collections.unmodifiableList( keys );
+        if ( captures == null ) {
+            throw new IllegalArgumentException( "MatchedElement for key:" + key + " got null array of captures" );
+        }
+
+        this.captures = captures;
+        this.captureOffsets = null;
+    }
+
+    /**
+     * Offset based constructor for the wildcard PathElements, so that a match does not have to
+     *  allocate a substring for every capture, as most of them are never referenced by a "&".
+     *
+     * @param key the full key that was matched
+     * @param captureOffsets start and end offsets into the key of each capture, ie [ start1, end1, start2, end2, ... ],
+     *                       ownership of the array passes to this MatchedElement
+     */
+    public MatchedElement( String key, int[] captureOffsets ) {
+        super(key);
+
+        if ( captureOffsets == null || captureOffsets.length % 2 != 0 ) {
+            throw new IllegalArgumentException( "MatchedElement for key:" + key + " got invalid capture offsets" );
+        }
+
+        this.captures = captureOffsets.length == 0 ? NO_CAPTURES : new String[ captureOffsets.length / 2 ];
+        this.captureOffsets = captureOffsets;
+    }
+
+    /**
+     * Copy constructor, the copy has its own captures and a hash count of zero.
+     */
+    protected MatchedElement( MatchedElement other ) {
+        super( other.getRawKey() );
+
+        this.captures = other.captures.length == 0 ? NO_CAPTURES : other.captures.clone();
+        this.captureOffsets = other.captureOffsets;
+    }
+
+    /**
+     * @return a copy of this MatchedElement that can be used by another thread, with a hash count of zero
+     */
+    public MatchedElement copy() {
+        return new MatchedElement( this );
     }
 
     @Override
@@ -70,14 +128,24 @@ public class MatchedElement extends BasePathElement implements EvaluatablePathEl
     }
 
     public String getSubKeyRef( int index ) {
-        if ((index < 0) || (index >= this.subKeys.size())) {
-            throw new IndexOutOfBoundsException( "MatchedElement "+ this.subKeys +" cannot be indexed with index "+index );
+        if ( index == 0 ) {
+            return getRawKey(); // always have the full key at index 0
+        }
+        if ((index < 0) || (index > this.captures.length)) {
+            throw new IndexOutOfBoundsException( "MatchedElement "+ subKeysToString() +" cannot be indexed with index "+index );
         }
-        return subKeys.get( index );
+        String capture = captures[ index - 1 ];
+        if ( capture == null ) {
+            // lazily materialize the capture from its offsets
+            int start = captureOffsets[ 2 * ( index - 1 ) ];
+            capture = getRawKey().substring( start, captureOffsets[ 2 * ( index - 1 ) + 1 ] );
+            captures[ index - 1 ] = capture;
+        }
+        return capture;
     }
 
     public int getSubKeyCount(){
-        return subKeys.size();
+        return captures.length + 1;
     }
 
     public int getHashCount() {
@@ -90,4 +158,12 @@ public class MatchedElement extends BasePathElement implements EvaluatablePathEl
     public void incrementHashCount() {
         hashCount++;
     }
+
+    private String subKeysToString() {
+        StringBuilder sb = new StringBuilder( "[" ).append( getRawKey() );
+        for ( int index = 1; index <= captures.length; index++ ) {
+            sb.append( ", " ).append( getSubKeyRef( index ) );
+        }
+        return sb.append( "]" ).toString();
+    }
 }
@@ -21,14 +21,24 @@ import com.bazaarvoice.jolt.common.Optional;
  * A tuple class that contains the data for one level of a
  *  tree walk, aka a reference to the input for that level, and
  *  the LiteralPathElement that was matched at that level.
+ *
+ * PathSteps are owned and recycled by their WalkedPath, so a reference to one
+ *  is only valid while it is on the WalkedPath.
  */
 public final class PathStep {
 
-    private final Object treeRef;
-    private final MatchedElement matchedElement;
-    private final Optional<Integer> origSize;
+    private Object treeRef;
+    private MatchedElement matchedElement;
+    private Optional<Integer> origSize;
 
     public PathStep(Object treeRef, MatchedElement matchedElement ) {
+        reset( treeRef, matchedElement );
+    }
+
+    /**
+     * Point this recycled PathStep at a new level of the tree walk.
+     */
+    void reset( Object treeRef, MatchedElement matchedElement ) {
         this.treeRef = treeRef;
         this.matchedElement = matchedElement;
         if (matchedElement instanceof ArrayMatchedElement) {
@@ -15,7 +15,10 @@
  */
 package com.bazaarvoice.jolt.common.tree;
 
+import com.bazaarvoice.jolt.common.OutputSink;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -31,27 +34,61 @@ import java.util.Collection;
  *
  * It is expected that as the SpecTransform navigates down the tree, MatchedElements will be added and then
  *  removed when that subtree has been walked.
+ *
+ * It also carries the OutputSink that leaf specs write through for the whole walk.
  */
 public class WalkedPath extends ArrayList<PathStep> {
 
+    // PathSteps that have been created by this WalkedPath, indexed by their depth.
+    // As the tree walk goes up and down, the PathStep for a given depth is reused, so that
+    //  steady state tree walks do not allocate a new PathStep for every input key they visit.
+    private PathStep[] stepsByDepth = new PathStep[8];
+
+    private final OutputSink outputSink;
+
     public WalkedPath() {
+        this( OutputSink.DIRECT );
+    }
+
+    public WalkedPath( OutputSink outputSink ) {
         super();
+        this.outputSink = outputSink;
     }
 
     public WalkedPath(Collection<PathStep> c) {
         super(c);
+        this.outputSink = OutputSink.DIRECT;
     }
 
     public WalkedPath( Object treeRef, MatchedElement matchedElement ) {
-        super();
-        this.add( new PathStep( treeRef, matchedElement ) );
+        this( OutputSink.DIRECT );
+        this.add( treeRef, matchedElement );
+    }
+
+    public OutputSink getOutputSink() {
+        return outputSink;
     }
 
     /**
      * Convenience method
+     *
+     * Note the PathStep used to record this level of the walk is recycled once it has been removed.
      */
     public boolean add( Object treeRef, MatchedElement matchedElement ) {
-        return super.add( new PathStep( treeRef, matchedElement ) );
+        int depth = size();
+        if ( depth == stepsByDepth.length ) {
+            stepsByDepth = Arrays.copyOf( stepsByDepth, depth * 2 );
+        }
+
+        PathStep step = stepsByDepth[depth];
+        if ( step == null ) {
+            step = new PathStep( treeRef, matchedElement );
+            stepsByDepth[depth] = step;
+        }
+        else {
+            step.reset( treeRef, matchedElement );
+        }
+        return super.add( step );
     }
 
     public PathStep removeLast() {
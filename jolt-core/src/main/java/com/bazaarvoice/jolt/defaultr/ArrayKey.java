@@ -15,17 +15,13 @@
  */
 package com.bazaarvoice.jolt.defaultr;
 
-import com.bazaarvoice.jolt.common.DeepCopy;
-
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 
 public class ArrayKey extends Key {
 
-    private Collection<Integer> keyInts;
+    private static final long serialVersionUID = 1L;
+
+    private int[] orInts;
     private int keyInt = -1;
 
     public ArrayKey( String jsonKey, Object spec ) {
@@ -34,18 +30,15 @@ public class ArrayKey extends Key {
         // Handle ArrayKey specific stuff
         switch( getOp() ){
             case OR :
-                keyInts = new ArrayList<>();
-                for( String orLiteral : keyStrings ) {
-                    int orInt = Integer.parseInt( orLiteral );
-                    keyInts.add( orInt );
+                orInts = new int[ keyStrings.size() ];
+                for( int index = 0; index < orInts.length; index++ ) {
+                    orInts[index] = Integer.parseInt( keyStrings.get( index ) );
                 }
                 break;
             case LITERAL:
                 keyInt = Integer.parseInt( rawKey );
-                keyInts = Arrays.asList( keyInt );
                 break;
             case STAR:
-                keyInts = Collections.emptyList();
                 break;
             default :
                 throw new IllegalStateException( "Someone has added an op type without changing this method." );
@@ -65,21 +58,40 @@ public class ArrayKey extends Key {
             List<Object> defaultList = (List<Object>) container;
 
             // Find all defaultee keys that match the childKey spec.  Simple for Literal keys, more work for * and |.
-            for ( Integer literalKey : determineMatchingContainerKeys( defaultList ) ) {
-                applyLiteralKeyToContainer( literalKey, defaultList );
+            switch ( getOp() ) {
+                case LITERAL:
+                    // assumes the container list has already been expanded to the right size
+                    applyLiteralKeyToContainer( keyInt, defaultList );
+                    break;
+                case STAR:
+                    // Identify all its keys
+                    for ( int index = 0; index < defaultList.size(); index++ ) {
+                        applyLiteralKeyToContainer( index, defaultList );
+                    }
+                    break;
+                case OR:
+                    // Identify the intersection between the container "keys" and the OR values
+                    for ( int orValue : orInts ) {
+                        if ( orValue < defaultList.size() ) {
+                            applyLiteralKeyToContainer( orValue, defaultList );
+                        }
+                    }
+                    break;
+                default :
+                    throw new IllegalStateException( "Someone has added an op type without changing this method." );
             }
         }
         // Else there is disagreement (with respect to Array vs Map) between the data in
         //  the Container vs the Defaultr Spec type for this key.  Container wins, so do nothing.
     }
 
-    private void applyLiteralKeyToContainer( Integer literalIndex, List<Object> container ) {
+    private void applyLiteralKeyToContainer( int literalIndex, List<Object> container ) {
 
         Object defaulteeValue = container.get( literalIndex );
 
         if ( children == null ) {
             if ( defaulteeValue == null ) {
-                container.set( literalIndex, DeepCopy.simpleDeepCopy( literalValue ) );  // apply a copy of the default value into a List, assumes the list as already been expanded if needed.
+                container.set( literalIndex, literalCopier.copy() );  // apply a copy of the default value into a List, assumes the list as already been expanded if needed.
             }
         }
         else {
@@ -92,35 +104,4 @@ public class ArrayKey extends Key {
             applyChildren( defaulteeValue );
         }
     }
-
-    private Collection<Integer> determineMatchingContainerKeys( List<Object> container ) {
-
-        switch ( getOp() ) {
-            case LITERAL:
-                // Container it should get these literal values added to it
-                return keyInts;
-            case STAR:
-                // Identify all its keys
-                // this assumes the container list has already been expanded to the right size
-                List defaultList = (List) container;
-                List<Integer> allIndexes = new ArrayList<>( defaultList.size() );
-                for ( int index = 0; index < defaultList.size(); index++ ) {
-                    allIndexes.add( index );
-                }
-
-                return allIndexes;
-            case OR:
-                // Identify the intersection between the container "keys" and the OR values
-                List<Integer> indexesInRange = new ArrayList<>();
-
-                for ( Integer orValue : keyInts ) {
-                    if ( orValue < ((List) container ).size() ) {
-                        indexesInRange.add( orValue );
-                    }
-                }
-                return indexesInRange;
-            default :
-                throw new IllegalStateException( "Someone has added an op type without changing this method." );
-        }
-    }
 }
@@ -16,21 +16,25 @@
 package com.bazaarvoice.jolt.defaultr;
 
 import com.bazaarvoice.jolt.Defaultr;
+import com.bazaarvoice.jolt.common.DeepCopy;
 import com.bazaarvoice.jolt.exception.TransformException;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static com.bazaarvoice.jolt.defaultr.OPS.OR;
 
-public abstract class Key {
+public abstract class Key implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * Factory-ish method that recursively processes a Map<String, Object> into a Set<Key> objects.
@@ -48,9 +52,8 @@ public abstract class Key {
      */
     private static Set<Key> processSpec( boolean parentIsArray, Map<String, Object> spec ) {
 
-        // TODO switch to List<Key> and sort before returning
-
-        Set<Key> result = new HashSet<>();
+        // keep the spec order, so that literal keys are applied in a predictable order
+        Set<Key> result = new LinkedHashSet<>();
 
         for ( String key : spec.keySet() ) {
             Object subSpec = spec.get( key );
@@ -80,6 +83,12 @@ public abstract class Key {
     protected Set<Key> children = null;
     protected Object literalValue = null;
 
+    // how to make a copy of the literalValue for each defaultee, worked out once
+    protected DeepCopy.Copier literalCopier = null;
+
+    // children sorted once by precedence, so literals, then ORs, then STAR, rather than on every apply
+    private Key[] sortedChildren = null;
+
     protected String rawKey;
     protected List<String> keyStrings;
 
@@ -112,6 +121,10 @@ public abstract class Key {
         if ( spec instanceof Map ) {
             children = processSpec( isArrayOutput(), (Map<String, Object>) spec );
 
+            // a stable sort, so literals stay in spec order
+            sortedChildren = children.toArray( new Key[ children.size() ] );
+            Arrays.sort( sortedChildren, keyComparator );
+
             if ( isArrayOutput() ) {
                 // loop over children and find the max literal value
                 for( Key childKey : children ) {
@@ -125,6 +138,7 @@ public abstract class Key {
         else {
             // literal such as String, number, or JSON array
             literalValue = spec;
+            literalCopier = DeepCopy.compile( spec );
         }
     }
 
@@ -148,16 +162,16 @@ public abstract class Key {
             List<Object> defaultList = (List<Object>) defaultee;
 
             // Extend the defaultee list if needed
-            for ( int index = defaultList.size() - 1; index < getOutputArraySize(); index++ ) {
-                defaultList.add( null );
+            if ( defaultList.size() <= getOutputArraySize() ) {
+                if ( defaultList instanceof ArrayList ) {
+                    ( (ArrayList<Object>) defaultList ).ensureCapacity( getOutputArraySize() + 1 );
+                }
+                for ( int index = defaultList.size() - 1; index < getOutputArraySize(); index++ ) {
+                    defaultList.add( null );
+                }
             }
         }
 
-        // Find and sort the children DefaultrKeys by precedence: literals, |, then *
-        ArrayList<Key> sortedChildren = new ArrayList<>();
-        sortedChildren.addAll( children );
-        Collections.sort( sortedChildren, keyComparator );
-
         for ( Key childKey : sortedChildren ) {
             childKey.applyChild( defaultee );
         }
@@ -190,7 +204,8 @@ public abstract class Key {
 
     public Object createOutputContainerObject() {
         if ( isArrayOutput() ) {
-            return new ArrayList<>();
+            // big enough for the defaults we are about to pad it with
+            return new ArrayList<>( getOutputArraySize() + 1 );
         } else {
             return new LinkedHashMap<String, Object>();
         }
@@ -15,17 +15,22 @@
  */
 package com.bazaarvoice.jolt.defaultr;
 
-import com.bazaarvoice.jolt.common.DeepCopy;
-
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
 public class MapKey extends Key {
 
+    private static final long serialVersionUID = 1L;
+
+    // distinct keys, to probe the container for directly, for LITERAL and OR keys
+    private final String[] probeKeys;
+
     public MapKey( String jsonKey, Object spec ) {
         super( jsonKey, spec );
+
+        Set<String> distinct = new LinkedHashSet<>( keyStrings );
+        probeKeys = distinct.toArray( new String[ distinct.size() ] );
     }
 
     @Override
@@ -40,8 +45,27 @@ public class MapKey extends Key {
             Map<String, Object> defaulteeMap = (Map<String, Object>) container;
 
             // Find all defaultee keys that match the childKey spec.  Simple for Literal keys, more work for * and |.
-            for ( String literalKey : determineMatchingContainerKeys( defaulteeMap ) ) {
-                applyLiteralKeyToContainer( literalKey, defaulteeMap );
+            switch ( getOp() ) {
+                case LITERAL:
+                    // the container should get this literal value added to it
+                    applyLiteralKeyToContainer( probeKeys[0], defaulteeMap );
+                    break;
+                case STAR:
+                    // Identify all its keys
+                    for ( String literalKey : defaulteeMap.keySet() ) {
+                        applyLiteralKeyToContainer( literalKey, defaulteeMap );
+                    }
+                    break;
+                case OR:
+                    // Identify the intersection between its keys and the OR values
+                    for ( String orKey : probeKeys ) {
+                        if ( defaulteeMap.containsKey( orKey ) ) {
+                            applyLiteralKeyToContainer( orKey, defaulteeMap );
+                        }
+                    }
+                    break;
+                default :
+                    throw new IllegalStateException( "Someone has added an op type without changing this method." );
             }
         }
         // Else there is disagreement (with respect to Array vs Map) between the data in
@@ -54,7 +78,7 @@ public class MapKey extends Key {
 
         if ( children == null ) {
             if ( defaulteeValue == null ) {
-                container.put( literalKey, DeepCopy.simpleDeepCopy( literalValue ) );  // apply a copy of the default value into a map
+                container.put( literalKey, literalCopier.copy() );  // apply a copy of the default value into a map
             }
         }
         else {
@@ -67,23 +91,4 @@ public class MapKey extends Key {
             applyChildren( defaulteeValue );
         }
     }
-
-    private Collection<String> determineMatchingContainerKeys( Map<String, Object> container ) {
-
-        switch ( getOp() ) {
-            case LITERAL:
-                // the container should get these literal values added to it
-                return keyStrings;
-            case STAR:
-                // Identify all its keys
-                return container.keySet();
-            case OR:
-                // Identify the intersection between its keys and the OR values
-                Set<String> intersection = new HashSet<>( container.keySet() );
-                intersection.retainAll( keyStrings );
-                return intersection;
-            default :
-                throw new IllegalStateException( "Someone has added an op type without changing this method." );
-        }
-    }
 }
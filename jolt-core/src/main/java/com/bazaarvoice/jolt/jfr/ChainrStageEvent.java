@@ -0,0 +1,54 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one stage of a Chainr.
+ *
+ * Only loaded through JfrEvents, see JoltFlightRecorder.
+ */
+@Name( ChainrStageEvent.NAME )
+@Label( "Jolt Chainr Stage" )
+@Description( "One stage of a Jolt Chainr" )
+@Category( "Jolt" )
+@StackTrace( false )
+class ChainrStageEvent extends Event {
+
+    static final String NAME = "com.bazaarvoice.jolt.ChainrStage";
+
+    @Label( "Spec Id" )
+    @Description( "Hash of the Chainr spec" )
+    String specId;
+
+    @Label( "Stage Index" )
+    @Description( "Index of the stage in the Chainr spec" )
+    int stageIndex;
+
+    @Label( "Operation" )
+    @Description( "Operation of the stage, ie shift" )
+    String operation;
+
+    @Label( "Document Nodes" )
+    @Description( "Number of JSON nodes in the input to the stage, -1 if not counted" )
+    long documentNodes;
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+
+/**
+ * The only class that JoltFlightRecorder touches that references jdk.jfr, so that it is never loaded
+ *  on a JVM without Flight Recorder.
+ */
+final class JfrEvents {
+
+    private static final EventType TRANSFORM_TYPE = EventType.getEventType( TransformEvent.class );
+    private static final EventType STAGE_TYPE = EventType.getEventType( ChainrStageEvent.class );
+
+    private JfrEvents() {}
+
+    static boolean isTransformEnabled() {
+        return TRANSFORM_TYPE.isEnabled();
+    }
+
+    static boolean isStageEnabled() {
+        return STAGE_TYPE.isEnabled();
+    }
+
+    static Object beginTransform( String transform, String specId, long documentNodes ) {
+        TransformEvent event = new TransformEvent();
+        event.transform = transform;
+        event.specId = specId;
+        event.documentNodes = documentNodes;
+        event.begin();
+        return event;
+    }
+
+    static Object beginStage( String specId, int stageIndex, String operation, long documentNodes ) {
+        ChainrStageEvent event = new ChainrStageEvent();
+        event.specId = specId;
+        event.stageIndex = stageIndex;
+        event.operation = operation;
+        event.documentNodes = documentNodes;
+        event.begin();
+        return event;
+    }
+
+    static void end( Object event ) {
+        Event jfrEvent = (Event) event;
+        jfrEvent.end();
+        if ( jfrEvent.shouldCommit() ) {
+            jfrEvent.commit();
+        }
+    }
+}
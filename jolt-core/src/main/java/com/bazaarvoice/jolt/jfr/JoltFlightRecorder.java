@@ -0,0 +1,116 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.jfr;
+
+import com.bazaarvoice.jolt.chainr.metrics.ChainrStage;
+import com.bazaarvoice.jolt.chainr.metrics.StageMeters;
+import com.bazaarvoice.jolt.common.SpecHash;
+
+/**
+ * Emits Java Flight Recorder events for Chainr stages and stock transforms, so that a recording can
+ *  attribute time to a specific spec and stage.
+ *
+ * Two event types are emitted, "com.bazaarvoice.jolt.ChainrStage" for each stage of a Chainr, and
+ *  "com.bazaarvoice.jolt.Transform" for each run of a stock transform.  A transform run by a Chainr
+ *  produces both, nested in time.  Each carries the spec id, see specId(), and the node count of the
+ *  input document, or -1 if nodes are not being counted.
+ *
+ * Nothing is measured unless a recording has the event type enabled.  Counting nodes means walking the
+ *  whole input document on every event, so it is off unless the "jolt.jfr.countNodes" system property
+ *  is true, or setCountingNodes( true ) is called.  Chainr stages use the count of their stage listener,
+ *  if it has one, either way.  On a JVM without Flight Recorder, this class does nothing and never loads
+ *  the jdk.jfr classes.
+ */
+public final class JoltFlightRecorder {
+
+    private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+    private static volatile boolean countingNodes = Boolean.getBoolean( "jolt.jfr.countNodes" );
+
+    private JoltFlightRecorder() {}
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName( "jdk.jfr.Event" );
+            // make sure our events register as well
+            JfrEvents.isTransformEnabled();
+            return true;
+        }
+        catch ( ClassNotFoundException | LinkageError | SecurityException e ) {
+            return false;
+        }
+    }
+
+    /**
+     * @return a short id for a JSON spec, the first 16 hex digits of its SpecHash, so the same across JVMs
+     */
+    public static String specId( Object spec ) {
+        return SpecHash.of( spec ).substring( 0, 16 );
+    }
+
+    /**
+     * @param countNodes true to count the nodes of the input document of every recorded event
+     */
+    public static void setCountingNodes( boolean countNodes ) {
+        countingNodes = countNodes;
+    }
+
+    public static boolean isCountingNodes() {
+        return countingNodes;
+    }
+
+    /**
+     * @return true if Chainr stage events are being recorded
+     */
+    public static boolean isStageRecording() {
+        return AVAILABLE && JfrEvents.isStageEnabled();
+    }
+
+    /**
+     * @param specId id of the transform's spec, only worked out if the event is recorded, may be null
+     * @return an event to pass to end(), or null if transform events are not being recorded
+     */
+    public static Object beginTransform( String transform, SpecId specId, Object input ) {
+        if ( !AVAILABLE || !JfrEvents.isTransformEnabled() ) {
+            return null;
+        }
+        return JfrEvents.beginTransform( transform, specId == null ? null : specId.get(),
+                countingNodes ? StageMeters.countNodes( input ) : -1 );
+    }
+
+    /**
+     * @param inputNodes node count of the input, if the caller already has it, else -1
+     * @return an event to pass to end(), or null if Chainr stage events are not being recorded
+     */
+    public static Object beginStage( ChainrStage stage, Object input, long inputNodes ) {
+        if ( !AVAILABLE || !JfrEvents.isStageEnabled() ) {
+            return null;
+        }
+        if ( inputNodes < 0 && countingNodes ) {
+            inputNodes = StageMeters.countNodes( input );
+        }
+        return JfrEvents.beginStage( stage.getSpecId(), stage.getIndex(), stage.getOperation(), inputNodes );
+    }
+
+    /**
+     * @param event the result of a begin method, may be null
+     */
+    public static void end( Object event ) {
+        if ( event != null ) {
+            JfrEvents.end( event );
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.jfr;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * The id of a spec, see JoltFlightRecorder.specId(), worked out the first time it is asked for.
+ *
+ * Hashing a spec means writing all of it out as JSON, so transforms hold one of these rather than
+ *  the id itself, and only pay for it when an event is actually recorded.
+ */
+public final class SpecId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // not written to snapshots, the id is worked out and written instead
+    private final transient Object spec;
+    private volatile String id;
+
+    private SpecId( Object spec, String id ) {
+        this.spec = spec;
+        this.id = id;
+    }
+
+    /**
+     * @param spec the raw JSON spec, which is held on to until the id is needed
+     */
+    public static SpecId forSpec( Object spec ) {
+        return new SpecId( spec, null );
+    }
+
+    /**
+     * @param id an id that is already known
+     */
+    public static SpecId withId( String id ) {
+        return new SpecId( null, id );
+    }
+
+    public String get() {
+        String result = id;
+        if ( result == null ) {
+            // racing threads work out the same id, so there is no need to lock
+            result = JoltFlightRecorder.specId( spec );
+            id = result;
+        }
+        return result;
+    }
+
+    private void writeObject( ObjectOutputStream out ) throws IOException {
+        get();
+        out.defaultWriteObject();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one run of a stock transform, standalone or as a stage of a Chainr.
+ *
+ * Only loaded through JfrEvents, see JoltFlightRecorder.
+ */
+@Name( TransformEvent.NAME )
+@Label( "Jolt Transform" )
+@Description( "One run of a Jolt transform" )
+@Category( "Jolt" )
+@StackTrace( false )
+class TransformEvent extends Event {
+
+    static final String NAME = "com.bazaarvoice.jolt.Transform";
+
+    @Label( "Transform" )
+    @Description( "Class of the transform" )
+    String transform;
+
+    @Label( "Spec Id" )
+    @Description( "Hash of the transform's spec" )
+    String specId;
+
+    @Label( "Document Nodes" )
+    @Description( "Number of JSON nodes in the input document, -1 if not counted" )
+    long documentNodes;
+}
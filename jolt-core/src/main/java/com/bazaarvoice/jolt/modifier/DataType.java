@@ -19,6 +19,7 @@ package com.bazaarvoice.jolt.modifier;
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -36,7 +37,9 @@ import java.util.Map;
  *
  * Note: By design jolt does not stop processing on bad input data
  */
-public abstract class DataType {
+public abstract class DataType implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private static final RUNTIME runtimeInstance = new RUNTIME();
     private static final MAP mapInstance = new MAP();
@@ -59,6 +62,9 @@ public abstract class DataType {
      * List type that records maxIndex from spec, and uses that to expand a source (list) properly
      */
     public static final class LIST extends DataType {
+
+        private static final long serialVersionUID = 1L;
+
         private final int maxIndexFromSpec;
 
         private LIST( int maxIndexFromSpec ) {
@@ -95,6 +101,9 @@ public abstract class DataType {
      * MAP type class
      */
     public static final class MAP extends DataType {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Object createValue() {
             return new LinkedHashMap<>();
@@ -110,6 +119,9 @@ public abstract class DataType {
      * Runtime type
      */
     public static final class RUNTIME extends DataType {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         public boolean isCompatible( final Object input ) {
             return input != null;
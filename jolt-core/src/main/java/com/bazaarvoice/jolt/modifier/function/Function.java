@@ -18,6 +18,7 @@ package com.bazaarvoice.jolt.modifier.function;
 
 import com.bazaarvoice.jolt.common.Optional;
 
+import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -95,7 +96,7 @@ import java.util.List;
  */
 
 @Deprecated
-public interface Function {
+public interface Function extends Serializable {
 
     Optional<Object> apply(Object... args);
 
@@ -107,6 +108,9 @@ public interface Function {
      * will cause the key to remain unchanged
      */
     Function noop = new Function() {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         public Optional<Object> apply( final Object... args ) {
             return Optional.empty();
@@ -129,6 +133,9 @@ public interface Function {
      *
      */
     Function isPresent = new Function() {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         public Optional<Object> apply( final Object... args ) {
             if (args.length == 0) {
@@ -151,6 +158,9 @@ public interface Function {
      *
      */
     Function notNull = new Function() {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         public Optional<Object> apply( final Object... args ) {
             if (args.length == 0 || args[0] == null) {
@@ -173,6 +183,9 @@ public interface Function {
      *
      */
     Function isNull = new Function() {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         public Optional<Object> apply( final Object... args ) {
             if (args.length == 0 || args[0] != null) {
@@ -193,6 +206,8 @@ public interface Function {
     @SuppressWarnings( "unchecked" )
     abstract class BaseFunction<T> implements Function {
 
+        private static final long serialVersionUID = 1L;
+
         public final Optional<Object> apply( final Object... args ) {
             if(args.length == 0) {
                 return Optional.empty();
@@ -242,6 +257,8 @@ public interface Function {
     @SuppressWarnings( "unchecked" )
     abstract class SingleFunction<T> extends BaseFunction<T> {
 
+        private static final long serialVersionUID = 1L;
+
         protected final Optional<Object> applyList( final List<Object> input ) {
             List<Object> ret = new ArrayList<>( input.size() );
             for(Object o: input) {
@@ -264,6 +281,8 @@ public interface Function {
     @SuppressWarnings( "unchecked" )
     abstract class ListFunction extends BaseFunction<Object> {
 
+        private static final long serialVersionUID = 1L;
+
         protected abstract Optional<Object> applyList( final List<Object> argList );
 
         protected final Optional<Object> applySingle( final Object arg ) {
@@ -282,6 +301,8 @@ public interface Function {
     @SuppressWarnings( "unchecked" )
     abstract class ArgDrivenFunction<SOURCE, RETTYPE> implements Function {
 
+        private static final long serialVersionUID = 1L;
+
         private final Class<SOURCE> specialArgType;
 
         private ArgDrivenFunction() {
@@ -355,6 +376,8 @@ public interface Function {
     @SuppressWarnings( "unchecked" )
     abstract class ArgDrivenSingleFunction<S, R> extends ArgDrivenFunction<S, R> {
 
+        private static final long serialVersionUID = 1L;
+
         protected final Optional<Object> applyList( S specialArg, List<Object> input ) {
             List<Object> ret = new ArrayList<>( input.size() );
             for(Object o: input) {
@@ -378,6 +401,8 @@ public interface Function {
     @SuppressWarnings( "unchecked" )
     abstract class ArgDrivenListFunction<S> extends ArgDrivenFunction<S, Object> {
 
+        private static final long serialVersionUID = 1L;
+
         protected abstract Optional<Object> applyList( S specialArg, List<Object> args );
 
         protected final Optional<Object> applySingle( S specialArg, Object arg ) {
@@ -392,6 +417,8 @@ public interface Function {
      */
     abstract class SquashFunction<T> implements Function {
 
+        private static final long serialVersionUID = 1L;
+
         public final Optional<Object> apply( final Object... args ) {
             if(args.length == 0) {
                 return Optional.empty();
@@ -23,15 +23,21 @@ import com.bazaarvoice.jolt.common.pathelement.TransposePathElement;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
 
+import java.io.Serializable;
 import java.util.Map;
 
-public abstract class FunctionArg {
+public abstract class FunctionArg implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static FunctionArg forSelf(PathEvaluatingTraversal traversal) {
         return new SelfLookupArg( traversal );
     }
 
     private static final class SelfLookupArg extends FunctionArg {
+
+        private static final long serialVersionUID = 1L;
+
         private final TransposePathElement pathElement;
 
         private SelfLookupArg( PathEvaluatingTraversal traversal ) {
@@ -55,6 +61,9 @@ public abstract class FunctionArg {
     }
 
     private static final class ContextLookupArg extends FunctionArg {
+
+        private static final long serialVersionUID = 1L;
+
         private final PathEvaluatingTraversal traversal;
 
         private ContextLookupArg( PathEvaluatingTraversal traversal ) {
@@ -99,6 +108,8 @@ public abstract class FunctionArg {
 
     private static final class LiteralArg extends FunctionArg {
 
+        private static final long serialVersionUID = 1L;
+
         private final Optional<Object> returnValue;
 
         private LiteralArg( final Object object ) {
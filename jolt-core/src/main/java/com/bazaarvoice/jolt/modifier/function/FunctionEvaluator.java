@@ -19,10 +19,13 @@ package com.bazaarvoice.jolt.modifier.function;
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 
+import java.io.Serializable;
 import java.util.Map;
 
 @SuppressWarnings( "deprecated" )
-public class FunctionEvaluator {
+public class FunctionEvaluator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static FunctionEvaluator forFunctionEvaluation( Function function, FunctionArg... functionArgs ) {
         return new FunctionEvaluator( function, functionArgs );
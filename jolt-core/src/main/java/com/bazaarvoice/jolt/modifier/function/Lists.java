@@ -29,6 +29,8 @@ public class Lists {
      */
     public static final class firstElement extends Function.ListFunction {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional applyList( final List argList ) {
             return argList.size() > 0 ?
@@ -42,6 +44,8 @@ public class Lists {
      */
     public static final class lastElement extends Function.ListFunction {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional applyList( final List argList ) {
             return argList.size() > 0 ?
@@ -55,6 +59,8 @@ public class Lists {
      */
     public static final class elementAt extends Function.ArgDrivenListFunction<Integer> {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final Integer specialArg, final List<Object> args ) {
             if ( specialArg != null && args != null && args.size() > specialArg ) {
@@ -68,6 +74,9 @@ public class Lists {
      * Given an arbitrary number of arguments, return them as list
      */
     public static final class toList extends Function.BaseFunction<List> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List input ) {
             return Optional.<Object>of( input );
@@ -84,6 +93,8 @@ public class Lists {
      */
     public static final class sort extends Function.BaseFunction {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional applyList( final List argList ) {
             try {
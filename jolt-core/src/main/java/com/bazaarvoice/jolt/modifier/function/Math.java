@@ -327,6 +327,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class max extends Function.BaseFunction<Object> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List argList ) {
             return (Optional) max( argList );
@@ -346,6 +349,8 @@ public class Math {
     @SuppressWarnings( "unchecked" )
     public static final class min extends Function.BaseFunction<Object> {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argList ) {
             return (Optional) min( argList );
@@ -364,6 +369,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class abs extends Function.SingleFunction<Number> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Number> applySingle( final Object arg ) {
             return abs( arg );
@@ -373,6 +381,8 @@ public class Math {
     @SuppressWarnings( "unchecked" )
     public static final class divide extends Function.ListFunction {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList(List<Object> argList) {
            return (Optional)divide(argList);
@@ -383,6 +393,8 @@ public class Math {
     @SuppressWarnings( "unchecked" )
     public static final class divideAndRound extends Function.ArgDrivenListFunction<Integer> {
 
+        private static final long serialVersionUID = 1L;
+
 
         @Override
         protected Optional<Object> applyList(Integer digitsAfterDecimalPoint, List<Object> args) {
@@ -392,6 +404,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class avg extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argList ) {
             return (Optional) avg( argList );
@@ -400,6 +415,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class intSum extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argIntList ) {
             return (Optional) intSum(argIntList);
@@ -408,6 +426,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class doubleSum extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argDoubleList ) {
             return (Optional) doubleSum(argDoubleList);
@@ -416,6 +437,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class longSum extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argLongList ) {
             return (Optional) longSum(argLongList);
@@ -424,6 +448,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class intSubtract extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argIntList ) {
             return (Optional) intSubtract(argIntList);
@@ -432,6 +459,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class doubleSubtract extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argDoubleList ) {
             return (Optional) doubleSubtract(argDoubleList);
@@ -440,6 +470,9 @@ public class Math {
 
     @SuppressWarnings( "unchecked" )
     public static final class longSubtract extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argLongList ) {
             return (Optional) longSubtract(argLongList);
@@ -230,6 +230,9 @@ public class Objects {
     }
 
     public static final class toInteger extends Function.SingleFunction<Integer> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Integer> applySingle( final Object arg ) {
             return toInteger( arg );
@@ -237,6 +240,9 @@ public class Objects {
     }
 
     public static final class toLong extends Function.SingleFunction<Long> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Long> applySingle( final Object arg ) {
             return toLong( arg );
@@ -244,6 +250,9 @@ public class Objects {
     }
 
     public static final class toDouble extends Function.SingleFunction<Double> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Double> applySingle( final Object arg ) {
             return toDouble( arg );
@@ -251,6 +260,9 @@ public class Objects {
     }
 
     public static final class toBoolean extends Function.SingleFunction<Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Boolean> applySingle( final Object arg ) {
             return toBoolean( arg );
@@ -258,6 +270,9 @@ public class Objects {
     }
 
     public static final class toString extends Function.SingleFunction<String> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<String> applySingle( final Object arg ) {
             return Objects.toString( arg );
@@ -265,6 +280,9 @@ public class Objects {
     }
 
     public static final class squashNulls extends Function.SquashFunction<Object> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applySingle( final Object arg ) {
             Objects.squashNulls( arg );
@@ -273,6 +291,9 @@ public class Objects {
     }
 
     public static final class recursivelySquashNulls extends Function.SquashFunction<Object> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applySingle( final Object arg ) {
             Objects.recursivelySquashNulls( arg );
@@ -281,6 +302,9 @@ public class Objects {
     }
 
     public static final class squashDuplicates extends Function.SquashFunction<Object> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applySingle( final Object arg ) {
             return Objects.squashDuplicates( arg );
@@ -292,6 +316,8 @@ public class Objects {
      */
     public static final class size implements Function {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         public Optional<Object> apply(Object... args) {
             if(args.length == 0) {
@@ -24,6 +24,9 @@ import java.util.List;
 public class Strings {
 
     public static final class toLowerCase extends Function.SingleFunction<String> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<String> applySingle( final Object arg ) {
 
@@ -38,6 +41,9 @@ public class Strings {
     }
 
     public static final class toUpperCase extends Function.SingleFunction<String> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<String> applySingle( final Object arg ) {
 
@@ -52,6 +58,9 @@ public class Strings {
     }
 
     public static final class trim extends Function.SingleFunction<String> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<String> applySingle( final Object arg ) {
 
@@ -66,6 +75,9 @@ public class Strings {
     }
 
     public static final class concat extends Function.ListFunction {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final List<Object> argList ) {
             StringBuilder sb = new StringBuilder(  );
@@ -80,6 +92,8 @@ public class Strings {
 
     public static final class substring extends Function.ListFunction {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList(List<Object> argList) {
 
@@ -121,6 +135,8 @@ public class Strings {
     @SuppressWarnings( "unchecked" )
     public static final class join extends Function.ArgDrivenListFunction<String> {
 
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList( final String specialArg, final List<Object> args ) {
             StringBuilder sb = new StringBuilder(  );
@@ -141,6 +157,9 @@ public class Strings {
     }
 
     public static final class split extends Function.ArgDrivenSingleFunction<String, List> {
+
+        private static final long serialVersionUID = 1L;
+
       @Override
       protected Optional<List> applySingle(final String separator, final Object source) {
         if (source == null || separator == null) {
@@ -159,6 +178,9 @@ public class Strings {
 
 
     public static final class leftPad extends Function.ArgDrivenListFunction<String> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList(String source, List<Object> args) {
 
@@ -167,6 +189,9 @@ public class Strings {
     }
 
     public static final class rightPad extends Function.ArgDrivenListFunction<String> {
+
+        private static final long serialVersionUID = 1L;
+
         @Override
         protected Optional<Object> applyList(String source, List<Object> args) {
 
@@ -27,6 +27,7 @@ import com.bazaarvoice.jolt.common.pathelement.StarDoublePathElement;
 import com.bazaarvoice.jolt.common.pathelement.StarRegexPathElement;
 import com.bazaarvoice.jolt.common.pathelement.StarSinglePathElement;
 import com.bazaarvoice.jolt.common.spec.BaseSpec;
+import com.bazaarvoice.jolt.common.spec.LiteralChildIndex;
 import com.bazaarvoice.jolt.common.spec.OrderedCompositeSpec;
 import com.bazaarvoice.jolt.common.tree.ArrayMatchedElement;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
@@ -48,6 +49,9 @@ import java.util.Map;
  * them based on a pre-determined execution strategy
  */
 public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompositeSpec {
+
+    private static final long serialVersionUID = 1L;
+
     private static final HashMap<Class, Integer> orderMap;
     private static final ComputedKeysComparator computedKeysComparator;
 
@@ -63,6 +67,7 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
 
     private final Map<String, ModifierSpec> literalChildren;
     private final List<ModifierSpec> computedChildren;
+    private final LiteralChildIndex literalChildIndex;
     private final ExecutionStrategy executionStrategy;
     private final DataType specDataType;
 
@@ -132,6 +137,7 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
 
         literalChildren = Collections.unmodifiableMap( literals );
         computedChildren = Collections.unmodifiableList( computed );
+        literalChildIndex = new LiteralChildIndex( literalChildren );
 
         // extract generic execution strategy
         executionStrategy = determineExecutionStrategy();
@@ -188,6 +194,11 @@ public class ModifierCompositeSpec extends ModifierSpec implements OrderedCompos
         return computedChildren;
     }
 
+    @Override
+    public LiteralChildIndex getLiteralChildIndex() {
+        return literalChildIndex;
+    }
+
     @Override
     public ExecutionStrategy determineExecutionStrategy() {
 
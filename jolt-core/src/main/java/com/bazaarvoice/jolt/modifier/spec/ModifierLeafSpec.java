@@ -33,6 +33,8 @@ import java.util.Map;
 @SuppressWarnings( "deprecated" )
 public class ModifierLeafSpec extends ModifierSpec {
 
+    private static final long serialVersionUID = 1L;
+
     private final List<FunctionEvaluator> functionEvaluatorList;
 
     @SuppressWarnings( "unchecked" )
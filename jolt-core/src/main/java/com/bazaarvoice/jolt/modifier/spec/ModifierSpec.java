@@ -43,6 +43,8 @@ import static com.bazaarvoice.jolt.common.PathElementBuilder.buildMatchablePathE
  */
 public abstract class ModifierSpec implements BaseSpec {
 
+    private static final long serialVersionUID = 1L;
+
     // traversal builder that uses a TransposeReader to create a PathEvaluatingTraversal
     protected  static final TraversalBuilder TRAVERSAL_BUILDER = new TraversalBuilder() {
         @Override
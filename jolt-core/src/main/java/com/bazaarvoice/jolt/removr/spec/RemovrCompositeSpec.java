@@ -20,13 +20,13 @@ import com.bazaarvoice.jolt.common.pathelement.StarPathElement;
 import com.bazaarvoice.jolt.exception.SpecException;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.RandomAccess;
 
 /*
     Sample Spec
@@ -53,6 +53,8 @@ import java.util.Set;
  */
 public class RemovrCompositeSpec extends RemovrSpec {
 
+    private static final long serialVersionUID = 1L;
+
     private final List<RemovrSpec> allChildNodes;
 
     public RemovrCompositeSpec(String rawKey, Map<String, Object> spec ) {
@@ -138,28 +140,14 @@ public class RemovrCompositeSpec extends RemovrSpec {
             if( subInput instanceof List ) {
 
                 List<Object> subList = (List<Object>) subInput;
-                Set<Integer> indiciesToRemove = new HashSet<>();
+                BitSet indiciesToRemove = new BitSet( subList.size() );
 
-                // build a list of all indicies to remove
+                // mark all indicies to remove
                 for(RemovrSpec childSpec : children) {
-                    indiciesToRemove.addAll( childSpec.applyToList( subList ) );
+                    childSpec.markInList( subList, indiciesToRemove );
                 }
 
-                List<Integer> uniqueIndiciesToRemove = new ArrayList<>( indiciesToRemove );
-                // Sort the list from Biggest to Smallest, so that when we remove items from the input
-                //  list we don't muck up the order.
-                // Aka removing 0 _then_ 3 would be bad, because we would have actually removed
-                //  0 and 4 from the "original" list.
-                Collections.sort( uniqueIndiciesToRemove, new Comparator<Integer>() {
-                    @Override
-                    public int compare( Integer o1, Integer o2 ) {
-                        return o2.compareTo( o1 );
-                    }
-                } );
-
-                for ( int index : uniqueIndiciesToRemove ) {
-                    subList.remove( index );
-                }
+                removeAll( subList, indiciesToRemove );
             }
             else if (subInput instanceof Map ) {
 
@@ -171,7 +159,48 @@ public class RemovrCompositeSpec extends RemovrSpec {
                     keysToRemove.addAll( childSpec.applyToMap( subInputMap ) );
                 }
 
-                subInputMap.keySet().removeAll( keysToRemove );
+                // remove key by key, as keySet().removeAll() can call contains() on the LinkedList for every key in the map
+                for ( String key : keysToRemove ) {
+                    subInputMap.remove( key );
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the marked indicies from the list in a single pass, rather than one List.remove() at a time,
+     *  which would shift the tail of an ArrayList down once per removal.
+     */
+    private static void removeAll( List<Object> list, BitSet toRemove ) {
+
+        int size = list.size();
+        int removeCount = toRemove.cardinality();
+
+        if ( removeCount == 0 ) {
+            return;
+        }
+        if ( removeCount == size ) {
+            list.clear();
+            return;
+        }
+
+        if ( list instanceof RandomAccess ) {
+            // slide the kept elements down over the removed ones, and then cut off the tail
+            int write = toRemove.nextSetBit( 0 );
+            for ( int read = write + 1; read < size; read++ ) {
+                if ( ! toRemove.get( read ) ) {
+                    list.set( write++, list.get( read ) );
+                }
+            }
+            list.subList( write, size ).clear();
+        }
+        else {
+            Iterator<Object> iterator = list.iterator();
+            for ( int index = 0; iterator.hasNext(); index++ ) {
+                iterator.next();
+                if ( toRemove.get( index ) ) {
+                    iterator.remove();
+                }
             }
         }
     }
@@ -20,6 +20,7 @@ import com.bazaarvoice.jolt.common.pathelement.StarAllPathElement;
 import com.bazaarvoice.jolt.common.pathelement.StarPathElement;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -30,6 +31,8 @@ import java.util.Map;
  */
 public class RemovrLeafSpec extends RemovrSpec {
 
+    private static final long serialVersionUID = 1L;
+
     public RemovrLeafSpec( String rawKey ) {
         super( rawKey );
     }
@@ -106,4 +109,23 @@ public class RemovrLeafSpec extends RemovrSpec {
 
         return Collections.emptyList();
     }
+
+    @Override
+    public void markInList( List<Object> inputList, BitSet toRemove ) {
+        if ( inputList == null ) {
+            return;
+        }
+
+        if ( pathElement instanceof LiteralPathElement ) {
+
+            Integer pathElementInt = getNonNegativeIntegerFromLiteralPathElement();
+
+            if ( pathElementInt != null && pathElementInt < inputList.size() ) {
+                toRemove.set( pathElementInt );
+            }
+        }
+        else if ( pathElement instanceof StarAllPathElement ) {
+            toRemove.set( 0, inputList.size() );
+        }
+    }
 }
@@ -25,13 +25,20 @@ import com.bazaarvoice.jolt.common.pathelement.StarSinglePathElement;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.utils.StringTools;
 
+import java.io.Serializable;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
-public abstract class RemovrSpec {
+public abstract class RemovrSpec implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     protected final MatchablePathElement pathElement;
 
+    // the literal key as an array index, worked out once rather than on every list
+    private final Integer nonNegativeIntegerKey;
+
     public RemovrSpec(String rawJsonKey) {
         PathElement pathElement = parse( rawJsonKey );
 
@@ -40,6 +47,7 @@ public abstract class RemovrSpec {
         }
 
         this.pathElement = (MatchablePathElement) pathElement;
+        nonNegativeIntegerKey = pathElement instanceof LiteralPathElement ? parseNonNegativeInteger( pathElement.getRawKey() ) : null;
     }
 
     // Ex Keys :  *, cdv-*, *-$de
@@ -66,11 +74,15 @@ public abstract class RemovrSpec {
      * @return non-negative integer, otherwise null
      */
     protected Integer getNonNegativeIntegerFromLiteralPathElement() {
+        return nonNegativeIntegerKey;
+    }
+
+    private static Integer parseNonNegativeInteger( String key ) {
 
         Integer pathElementInt = null;
 
         try {
-            pathElementInt = Integer.parseInt( pathElement.getRawKey() );
+            pathElementInt = Integer.parseInt( key );
 
             if ( pathElementInt < 0 ) {
                 return null;
@@ -93,6 +105,16 @@ public abstract class RemovrSpec {
      */
     public abstract List<Integer> applyToList( List<Object> inputList );
 
+    /**
+     * Same as applyToList, but sets the bits of the indices to remove in the given BitSet,
+     *  rather than building a List of them.
+     */
+    public void markInList( List<Object> inputList, BitSet toRemove ) {
+        for ( int index : applyToList( inputList ) ) {
+            toRemove.set( index );
+        }
+    }
+
     /**
      * Build a list of keys to remove from the input map, using the pathElement
      *  from the Spec.
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.shiftr;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Static utility for conservatively spotting Shiftr features in a raw, aka not yet built, spec.
+ *
+ * Used to decide whether optional ways of running a Shiftr, that make assumptions about which
+ *  parts of the input and output the spec can see, are safe.  False positives are fine, as
+ *  they just mean the spec is run the normal way.
+ */
+public final class RawSpecScanner {
+
+    private RawSpecScanner() {}
+
+    /**
+     * @return true if the spec may have transposes, aka any "@" other than a plain "@" key,
+     *  which can read anywhere in the input
+     */
+    public static boolean containsTranspose( Object rawSpec ) {
+
+        if ( rawSpec instanceof Map ) {
+            for ( Map.Entry<?, ?> entry : ( (Map<?, ?>) rawSpec ).entrySet() ) {
+                String key = String.valueOf( entry.getKey() );
+                if ( ( key.indexOf( '@' ) >= 0 && ! "@".equals( key ) ) || containsTranspose( entry.getValue() ) ) {
+                    return true;
+                }
+            }
+        }
+        else if ( rawSpec instanceof List ) {
+            for ( Object item : (List<?>) rawSpec ) {
+                if ( containsTranspose( item ) ) {
+                    return true;
+                }
+            }
+        }
+        else if ( rawSpec instanceof String ) {
+            return ( (String) rawSpec ).indexOf( '@' ) >= 0;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if any write path of the spec may have a "#" reference, which reads how
+     *  many matches a level of the input has had so far
+     */
+    public static boolean containsHashReference( Object rawSpec ) {
+
+        if ( rawSpec instanceof Map ) {
+            for ( Object value : ( (Map<?, ?>) rawSpec ).values() ) {
+                if ( containsHashReference( value ) ) {
+                    return true;
+                }
+            }
+        }
+        else if ( rawSpec instanceof List ) {
+            for ( Object item : (List<?>) rawSpec ) {
+                if ( containsHashReference( item ) ) {
+                    return true;
+                }
+            }
+        }
+        else if ( rawSpec instanceof String ) {
+            return ( (String) rawSpec ).indexOf( '#' ) >= 0;
+        }
+        return false;
+    }
+
+    /**
+     * @return the top level keys of the output that the spec can write to, or null if any
+     *  write path starts with something other than a plain literal key, such as a "&" reference
+     */
+    public static Set<String> outputRootKeys( Object rawSpec ) {
+        Set<String> rootKeys = new HashSet<>();
+        return collectOutputRootKeys( rawSpec, rootKeys ) ? rootKeys : null;
+    }
+
+    private static boolean collectOutputRootKeys( Object rawSpec, Set<String> rootKeys ) {
+
+        if ( rawSpec instanceof Map ) {
+            for ( Object value : ( (Map<?, ?>) rawSpec ).values() ) {
+                if ( ! collectOutputRootKeys( value, rootKeys ) ) {
+                    return false;
+                }
+            }
+        }
+        else if ( rawSpec instanceof List ) {
+            for ( Object item : (List<?>) rawSpec ) {
+                if ( ! collectOutputRootKeys( item, rootKeys ) ) {
+                    return false;
+                }
+            }
+        }
+        else if ( rawSpec instanceof String ) {
+            String writePath = (String) rawSpec;
+            int end = writePath.length();
+            for ( int index = 0; index < writePath.length(); index++ ) {
+                char c = writePath.charAt( index );
+                if ( c == '.' || c == '[' ) {
+                    end = index;
+                    break;
+                }
+            }
+            String rootKey = writePath.substring( 0, end );
+            if ( rootKey.isEmpty() || containsAny( rootKey, "&@$#*()\\" ) ) {
+                return false;
+            }
+            rootKeys.add( rootKey );
+        }
+        else if ( rawSpec != null ) {
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean containsAny( String string, String chars ) {
+        for ( int index = 0; index < chars.length(); index++ ) {
+            if ( string.indexOf( chars.charAt( index ) ) >= 0 ) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.shiftr;
+
+import com.bazaarvoice.jolt.common.ArrayIndexKeys;
+import com.bazaarvoice.jolt.common.pathelement.AtPathElement;
+import com.bazaarvoice.jolt.common.pathelement.PathElement;
+import com.bazaarvoice.jolt.common.pathelement.StarPathElement;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrLeafSpec;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrSpec;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads Shiftr input from a Jackson JsonParser, only materializing the parts of the input
+ *  that the Shiftr spec can actually match.
+ *
+ * The reader walks the spec tree in parallel with the JSON tokens, the same way Shiftr walks
+ *  the spec tree in parallel with the input tree.
+ *  - Input keys that no spec can match are skipped, without building their values.
+ *  - Values matched by a leaf spec are materialized in full, as the leaf writes them to the output.
+ *  - Values matched by composite specs are read the same way, one level down.
+ *  - Values matched only by specs that can not write anything, see ShiftrSpec.producesOutput, are skipped.
+ *
+ * List elements that are skipped are read as null, so that the remaining elements keep their indices.
+ *
+ * Some spec features can look at any part of the input, so we do not prune where they are used.
+ *  - Transposes, aka "@(2,foo)" on either side of the spec, can read anywhere in the input, so
+ *    if a spec has any, the whole input is materialized.
+ *  - "@" reads all of the input at its level, and "&" keys are only known at transform time, so
+ *    levels with those children are materialized in full.
+ *
+ * The reader is immutable, and can be shared across threads.
+ */
+public class ShiftrInputReader implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    // Returned by readChild for keys that none of the specs could match
+    private static final Object SKIPPED = new Object();
+
+    private final ShiftrCompositeSpec rootSpec;
+    private final boolean prunable;
+
+    // Composite specs that need all of their input, computed once up front
+    private final Map<ShiftrCompositeSpec, Boolean> readsAllInput;
+
+    /**
+     * @param rootSpec the root of the built Shiftr spec
+     * @param rawSpec the Shiftr spec it was built from, used to look for transposes
+     */
+    public ShiftrInputReader( ShiftrCompositeSpec rootSpec, Object rawSpec ) {
+        this( rootSpec, ! RawSpecScanner.containsTranspose( rawSpec ) );
+    }
+
+    /**
+     * @param rootSpec the root of the built Shiftr spec
+     * @param prunable false if the spec has transposes, which can read any part of the input
+     */
+    public ShiftrInputReader( ShiftrCompositeSpec rootSpec, boolean prunable ) {
+        this.rootSpec = rootSpec;
+        this.prunable = prunable;
+
+        Map<ShiftrCompositeSpec, Boolean> readsAll = new IdentityHashMap<>();
+        if ( prunable ) {
+            findSpecsThatReadAllInput( rootSpec, readsAll );
+        }
+        this.readsAllInput = Collections.unmodifiableMap( readsAll );
+    }
+
+    /**
+     * Read the next JSON value from the parser.
+     *
+     * @param parser either positioned on the first token of the value, or before it
+     * @return the input, with the parts the spec can not match left out
+     */
+    public Object read( JsonParser parser ) throws IOException {
+
+        if ( parser.currentToken() == null && parser.nextToken() == null ) {
+            return null;
+        }
+
+        if ( ! prunable ) {
+            return readFully( parser );
+        }
+        return readValue( parser, Collections.singletonList( rootSpec ) );
+    }
+
+    /**
+     * Read the value the parser is positioned on, for the given, non empty, list of specs.
+     */
+    private Object readValue( JsonParser parser, List<ShiftrCompositeSpec> specs ) throws IOException {
+
+        JsonToken token = parser.currentToken();
+        if ( token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY ) {
+            return readFully( parser );
+        }
+
+        for ( ShiftrCompositeSpec spec : specs ) {
+            if ( readsAllInput.containsKey( spec ) ) {
+                return readFully( parser );
+            }
+        }
+
+        if ( token == JsonToken.START_OBJECT ) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                String key = parser.currentName();
+                parser.nextToken();
+
+                Object value = readChild( parser, specs, key );
+                if ( value != SKIPPED ) {
+                    map.put( key, value );
+                }
+            }
+            return map;
+        }
+        else {
+            List<Object> list = new ArrayList<>();
+            while ( parser.nextToken() != JsonToken.END_ARRAY ) {
+                Object value = readChild( parser, specs, ArrayIndexKeys.toKey( list.size() ) );
+                list.add( value == SKIPPED ? null : value );
+            }
+            return list;
+        }
+    }
+
+    /**
+     * Read the value of the given key, if any of the children of the specs could match the key.
+     *
+     * @return the value, or SKIPPED if none of the children could match the key
+     */
+    private Object readChild( JsonParser parser, List<ShiftrCompositeSpec> specs, String key ) throws IOException {
+
+        List<ShiftrCompositeSpec> childSpecs = null;
+
+        for ( ShiftrCompositeSpec spec : specs ) {
+
+            ShiftrSpec literalChild = spec.getLiteralChildren().get( key );
+            if ( literalChild != null ) {
+                if ( ! literalChild.producesOutput() ) {
+                    // matches, but never looks at the value
+                    continue;
+                }
+                if ( literalChild instanceof ShiftrLeafSpec ) {
+                    return readFully( parser );
+                }
+                childSpecs = add( childSpecs, (ShiftrCompositeSpec) literalChild );
+                // a literal match means the computed children never see this key
+                continue;
+            }
+
+            for ( ShiftrSpec computedChild : spec.getComputedChildren() ) {
+                // findSpecsThatReadAllInput has made sure that all of the computed children here are StarPathElements
+                if ( computedChild.producesOutput() && ( (StarPathElement) computedChild.getPathElement() ).stringMatch( key ) ) {
+                    if ( computedChild instanceof ShiftrLeafSpec ) {
+                        return readFully( parser );
+                    }
+                    childSpecs = add( childSpecs, (ShiftrCompositeSpec) computedChild );
+                }
+            }
+        }
+
+        if ( childSpecs == null ) {
+            parser.skipChildren();
+            return SKIPPED;
+        }
+        return readValue( parser, childSpecs );
+    }
+
+    private static List<ShiftrCompositeSpec> add( List<ShiftrCompositeSpec> specs, ShiftrCompositeSpec spec ) {
+        if ( specs == null ) {
+            specs = new ArrayList<>( 2 );
+        }
+        specs.add( spec );
+        return specs;
+    }
+
+    /**
+     * Materialize the value the parser is positioned on, and everything under it.
+     */
+    private static Object readFully( JsonParser parser ) throws IOException {
+
+        // If the parser came from an ObjectMapper, let it build the value, so that its configuration is honored
+        if ( parser.getCodec() != null ) {
+            return parser.readValueAs( Object.class );
+        }
+
+        switch ( parser.currentToken() ) {
+            case START_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<>();
+                while ( parser.nextToken() == JsonToken.FIELD_NAME ) {
+                    String key = parser.currentName();
+                    parser.nextToken();
+                    map.put( key, readFully( parser ) );
+                }
+                return map;
+            case START_ARRAY:
+                List<Object> list = new ArrayList<>();
+                while ( parser.nextToken() != JsonToken.END_ARRAY ) {
+                    list.add( readFully( parser ) );
+                }
+                return list;
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.getEmbeddedObject();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Mark the composite specs whose input we can not prune.
+     */
+    private static void findSpecsThatReadAllInput( ShiftrCompositeSpec spec, Map<ShiftrCompositeSpec, Boolean> readsAll ) {
+
+        for ( ShiftrSpec special : spec.getSpecialChildren() ) {
+            if ( special.getPathElement() instanceof AtPathElement ) {
+                readsAll.put( spec, Boolean.TRUE );
+            }
+        }
+
+        for ( ShiftrSpec child : spec.getLiteralChildren().values() ) {
+            if ( child instanceof ShiftrCompositeSpec ) {
+                findSpecsThatReadAllInput( (ShiftrCompositeSpec) child, readsAll );
+            }
+        }
+
+        for ( ShiftrSpec child : spec.getComputedChildren() ) {
+            PathElement pe = child.getPathElement();
+            if ( ! ( pe instanceof StarPathElement ) ) {
+                // "&" keys are only known once the transform has a WalkedPath
+                readsAll.put( spec, Boolean.TRUE );
+            }
+            if ( child instanceof ShiftrCompositeSpec ) {
+                findSpecsThatReadAllInput( (ShiftrCompositeSpec) child, readsAll );
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ package com.bazaarvoice.jolt.shiftr;
 
 import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.traversr.SimpleTraversr;
+import com.bazaarvoice.jolt.traversr.traversal.StepKind;
 import com.bazaarvoice.jolt.traversr.traversal.TraversalStep;
 
 import java.util.ArrayList;
@@ -27,6 +28,8 @@ import java.util.List;
  */
 public class ShiftrTraversr<DataType> extends SimpleTraversr<DataType> {
 
+    private static final long serialVersionUID = 1L;
+
     public ShiftrTraversr( String humanPath ) {
         super( humanPath );
     }
@@ -65,4 +68,31 @@ public class ShiftrTraversr<DataType> extends SimpleTraversr<DataType> {
 
         return Optional.of( data );
     }
+
+    /**
+     * Raw value version of the Shift style insert above, used on the hot path of every Shiftr write.
+     */
+    @Override
+    @SuppressWarnings( "unchecked" )
+    protected Object finalSet( int depth, Object tree, Object key, DataType data ) {
+
+        StepKind kind = getStepKind( depth );
+        Object sub = kind.get( tree, key );
+
+        if ( sub == MISSING || sub == null ) {
+            kind.overwriteSet( tree, key, data );
+        }
+        else if ( sub instanceof List ) {
+            ((List<Object>) sub).add( data );
+        }
+        else {
+            List<Object> temp = new ArrayList<>();
+            temp.add( sub );
+            temp.add( data );
+
+            kind.overwriteSet( tree, key, temp );
+        }
+
+        return data;
+    }
 }
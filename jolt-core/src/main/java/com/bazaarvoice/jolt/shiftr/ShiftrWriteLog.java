@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.shiftr;
+
+import com.bazaarvoice.jolt.common.OutputSink;
+import com.bazaarvoice.jolt.common.PathEvaluatingTraversal;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+import com.bazaarvoice.jolt.traversr.BatchTraversal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OutputSink used when Shiftr processes a partition of its input on another thread.
+ *
+ * Rather than writing to the output, ShiftrLeafSpecs record their evaluated writes here, so that they can
+ *  later be replayed into the real output in exactly the order a serial Shiftr would have made them.
+ *  This matters as ShiftrTraversr turns repeated writes to the same path into a List, in write order.
+ */
+public class ShiftrWriteLog implements OutputSink {
+
+    private final List<PathEvaluatingTraversal> writers = new ArrayList<>();
+    private final List<Object[]> writeKeys = new ArrayList<>();
+    private final List<Object> writeData = new ArrayList<>();
+
+    /**
+     * Record the writes, evaluating their paths now, while the WalkedPath is still positioned on the data.
+     *  The output is not touched.
+     */
+    @Override
+    public void write( PathEvaluatingTraversal[] writers, Object data, WalkedPath walkedPath, Map<String, Object> output ) {
+        for ( PathEvaluatingTraversal writer : writers ) {
+            Object[] evaledKeys = writer.evaluateKeys( walkedPath );
+            if ( evaledKeys != null ) {
+                this.writers.add( writer );
+                writeKeys.add( evaledKeys );
+                writeData.add( data );
+            }
+        }
+    }
+
+    /**
+     * Make the recorded writes to the output, in the order they were recorded.
+     */
+    public void replay( Map<String, Object> output ) {
+        // consecutive writes from a partition mostly go to the same part of the output
+        BatchTraversal batch = new BatchTraversal( output );
+        for ( int index = 0; index < writers.size(); index++ ) {
+            writers.get( index ).writeEvaluated( writeData.get( index ), batch, writeKeys.get( index ) );
+        }
+    }
+}
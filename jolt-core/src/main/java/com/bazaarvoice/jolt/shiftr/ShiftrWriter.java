@@ -26,6 +26,8 @@ import java.util.List;
  */
 public class ShiftrWriter extends PathEvaluatingTraversal {
 
+    private static final long serialVersionUID = 1L;
+
     public ShiftrWriter( String dotNotation ) {
         super( dotNotation );
     }
@@ -15,6 +15,7 @@
  */
 package com.bazaarvoice.jolt.shiftr.spec;
 
+import com.bazaarvoice.jolt.common.ArrayIndexKeys;
 import com.bazaarvoice.jolt.common.ComputedKeysComparator;
 import com.bazaarvoice.jolt.common.ExecutionStrategy;
 import com.bazaarvoice.jolt.common.Optional;
@@ -30,25 +31,36 @@ import com.bazaarvoice.jolt.common.pathelement.StarRegexPathElement;
 import com.bazaarvoice.jolt.common.pathelement.StarSinglePathElement;
 import com.bazaarvoice.jolt.common.pathelement.TransposePathElement;
 import com.bazaarvoice.jolt.common.spec.BaseSpec;
+import com.bazaarvoice.jolt.common.spec.LiteralChildIndex;
 import com.bazaarvoice.jolt.common.spec.OrderedCompositeSpec;
 import com.bazaarvoice.jolt.common.spec.SpecBuilder;
 import com.bazaarvoice.jolt.common.tree.MatchedElement;
+import com.bazaarvoice.jolt.common.tree.PathStep;
 import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import com.bazaarvoice.jolt.exception.SpecException;
+import com.bazaarvoice.jolt.exception.TransformException;
 import com.bazaarvoice.jolt.shiftr.ShiftrSpecBuilder;
+import com.bazaarvoice.jolt.shiftr.ShiftrWriteLog;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 /**
  * Spec that has children, which it builds and then manages during Transforms.
  */
 public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeSpec {
 
+    private static final long serialVersionUID = 1L;
+
     /*
     Example of how a Spec gets parsed into Composite and LeafSpec objects :
 
@@ -85,17 +97,28 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
     }
 
     // Three different buckets for the children of this CompositeSpec
-    private final List<ShiftrSpec> specialChildren;         // children that aren't actually triggered off the input data
+    private final ShiftrSpec[] specialChildren;             // children that aren't actually triggered off the input data
     private final Map<String, ShiftrSpec> literalChildren;  // children that are simple exact matches against the input data
     private final List<ShiftrSpec> computedChildren;        // children that are regex matches against the input data
+    private final LiteralChildIndex literalChildIndex;
     private final ExecutionStrategy executionStrategy;
 
+    // Non null if our pathElement is a TransposePathElement, resolved at build time so that apply does not need an instanceof check
+    private final TransposePathElement transposePathElement;
+
+    // False if none of our children can write to the output, in which case matching input is not walked
+    private final boolean producesOutput;
+
+    // Keys of the special children that were dropped, as they write nothing
+    private final List<String> droppedSpecialKeys;
+
     public ShiftrCompositeSpec(String rawKey, Map<String, Object> spec ) {
         super( rawKey );
 
         ArrayList<ShiftrSpec> special = new ArrayList<>();
         Map<String, ShiftrSpec> literals = new LinkedHashMap<>();
         ArrayList<ShiftrSpec> computed = new ArrayList<>();
+        List<String> droppedSpecial = new ArrayList<>();
 
         // self check
         if ( pathElement instanceof AtPathElement ) {
@@ -111,7 +134,10 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
             throw new SpecException( "Shift ShiftrSpec format error : ShiftrSpec line with empty {} as value is not valid." );
         }
 
+        boolean anyChildProducesOutput = false;
         for ( ShiftrSpec child : children ) {
+            anyChildProducesOutput |= child.producesOutput();
+
             if ( child.pathElement instanceof LiteralPathElement ) {
                 literals.put( child.pathElement.getRawKey(), child );
             }
@@ -120,7 +146,13 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
                       child.pathElement instanceof HashPathElement ||
                       child.pathElement instanceof DollarPathElement ||
                       child.pathElement instanceof TransposePathElement ) {
-                special.add( child );
+                // special children never block other matches, so if they do not write anything they do nothing at all
+                if ( child.producesOutput() ) {
+                    special.add( child );
+                }
+                else {
+                    droppedSpecial.add( child.pathElement.getRawKey() );
+                }
             }
             else {   // star || (& with children)
                 computed.add( child );
@@ -130,16 +162,67 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
         // Only the computed children need to be sorted
         Collections.sort( computed, computedKeysComparator );
 
-        special.trimToSize();
         computed.trimToSize();
 
-        specialChildren = Collections.unmodifiableList( special );
+        specialChildren = special.toArray( new ShiftrSpec[ special.size() ] );
         literalChildren = Collections.unmodifiableMap( literals );
         computedChildren = Collections.unmodifiableList( computed );
+        literalChildIndex = new LiteralChildIndex( literalChildren );
 
         executionStrategy = determineExecutionStrategy();
+
+        transposePathElement = pathElement instanceof TransposePathElement ? (TransposePathElement) pathElement : null;
+        producesOutput = anyChildProducesOutput;
+        droppedSpecialKeys = droppedSpecial;
     }
 
+    @Override
+    public boolean producesOutput() {
+        return producesOutput;
+    }
+
+    /**
+     * Report the branches of this spec that can never write anything to the output.
+     *
+     * These are composite specs none of whose descendants write anything, which are still matched against the
+     *  input so that they block their siblings the same way, but whose matching input is not walked, and
+     *  "@", "$" and "#" keys with no write paths, which are dropped.
+     *
+     * @param path the dot separated path of spec keys to this spec, or "" for the root
+     * @param deadPaths list to add the dot separated paths of the dead branches to
+     */
+    public void collectDeadPaths( String path, List<String> deadPaths ) {
+
+        for ( String droppedKey : droppedSpecialKeys ) {
+            deadPaths.add( childPath( path, droppedKey ) );
+        }
+
+        List<ShiftrSpec> children = new ArrayList<>( literalChildren.values() );
+        children.addAll( computedChildren );
+        for ( ShiftrSpec child : children ) {
+            if ( child instanceof ShiftrCompositeSpec ) {
+                String childPath = childPath( path, child.pathElement.getRawKey() );
+                if ( child.producesOutput() ) {
+                    ( (ShiftrCompositeSpec) child ).collectDeadPaths( childPath, deadPaths );
+                }
+                else {
+                    deadPaths.add( childPath );
+                }
+            }
+        }
+    }
+
+    private static String childPath( String path, String key ) {
+        return path.isEmpty() ? key : path + "." + key;
+    }
+
+
+    /**
+     * @return the "@", "$", "#" and transpose children, which are applied regardless of the input keys
+     */
+    public List<ShiftrSpec> getSpecialChildren() {
+        return Collections.unmodifiableList( Arrays.asList( specialChildren ) );
+    }
 
     @Override
     public Map<String, ShiftrSpec> getLiteralChildren() {
@@ -151,6 +234,11 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
         return computedChildren;
     }
 
+    @Override
+    public LiteralChildIndex getLiteralChildIndex() {
+        return literalChildIndex;
+    }
+
     @Override
     public ExecutionStrategy determineExecutionStrategy() {
         if ( computedChildren.isEmpty() ) {
@@ -197,19 +285,24 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
         }
 
         // If we are a TransposePathElement, try to swap the "input" with what we lookup from the Transpose
-        if ( pathElement instanceof TransposePathElement ) {
-
-            TransposePathElement tpe = (TransposePathElement) this.pathElement;
+        if ( transposePathElement != null ) {
 
             // Note the data found may not be a String, thus we have to call the special objectEvaluate
             // Optional, because the input data could have been a valid null.
-            Optional<Object> optional = tpe.objectEvaluate( walkedPath );
+            Optional<Object> optional = transposePathElement.objectEvaluate( walkedPath );
             if ( !optional.isPresent() ) {
                 return false;
             }
             inputOptional = optional;
         }
 
+        if ( ! producesOutput ) {
+            // None of our children can write anything, so there is no point walking the input.
+            // We still matched though, so we block our siblings and count towards our parent's matches.
+            walkedPath.lastElement().getMatchedElement().incrementHashCount();
+            return true;
+        }
+
         // add ourselves to the path, so that our children can reference us
         walkedPath.add( inputOptional.get(), thisLevel );
 
@@ -229,4 +322,137 @@ public class ShiftrCompositeSpec extends ShiftrSpec implements OrderedCompositeS
 
         return true;
     }
+
+    /**
+     * Same as apply, except that if our input is a List or Map with more than partitionSize entries, and our
+     *  ExecutionStrategy processes input keys independently, the input keys are split into partitions which
+     *  are processed on the given pool.
+     *
+     * Each partition records its writes in a ShiftrWriteLog, and the logs are then replayed into the output
+     *  in partition order, so the output is exactly what apply would have produced.
+     *
+     * Callers must not use this for specs that have "#" write references or transposes, as partitions can
+     *  not see each other's match counts or writes.
+     */
+    @SuppressWarnings( "unchecked" )
+    public boolean applyInParallel( String inputKey, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String,Object> output,
+                                    Map<String, Object> context, ForkJoinPool pool, int partitionSize ) {
+
+        Object input = inputOptional.get();
+        int inputSize = input instanceof Map ? ( (Map) input ).size() : input instanceof List ? ( (List) input ).size() : 0;
+
+        if ( inputSize <= partitionSize || ! producesOutput || ! executionStrategy.processesInputKeysIndependently() || transposePathElement != null ) {
+            return apply( inputKey, inputOptional, walkedPath, output, context );
+        }
+
+        MatchedElement thisLevel = pathElement.match( inputKey, walkedPath );
+        if ( thisLevel == null ) {
+            return false;
+        }
+
+        walkedPath.add( input, thisLevel );
+
+        for( ShiftrSpec subSpec : specialChildren ) {
+            subSpec.apply( inputKey, inputOptional, walkedPath, output, context );
+        }
+
+        // Snapshot the input keys, so that the partitions can index into them
+        final String[] subKeys = new String[ inputSize ];
+        final Optional<Object>[] subInputs = new Optional[ inputSize ];
+        if ( input instanceof Map ) {
+            int index = 0;
+            for ( Map.Entry<String, Object> inputEntry : ( (Map<String, Object>) input ).entrySet() ) {
+                subKeys[index] = inputEntry.getKey();
+                subInputs[index] = Optional.of( inputEntry.getValue() );
+                index++;
+            }
+        }
+        else {
+            List<Object> inputList = (List<Object>) input;
+            Integer originalSize = walkedPath.lastElement().getOrigSize().get();
+            for ( int index = 0; index < inputSize; index++ ) {
+                Object subInput = inputList.get( index );
+                subKeys[index] = ArrayIndexKeys.toKey( index );
+                if ( subInput == null && originalSize != null && index >= originalSize ) {
+                    subInputs[index] = Optional.empty();
+                }
+                else {
+                    subInputs[index] = Optional.of( subInput );
+                }
+            }
+        }
+
+        List<Callable<ShiftrWriteLog>> partitions = new ArrayList<>();
+        for ( int start = 0; start < inputSize; start += partitionSize ) {
+            partitions.add( new Partition( walkedPath, subKeys, subInputs, start, Math.min( inputSize, start + partitionSize ), context ) );
+        }
+
+        try {
+            for ( Future<ShiftrWriteLog> partition : pool.invokeAll( partitions ) ) {
+                partition.get().replay( output );
+            }
+        }
+        catch ( ExecutionException ee ) {
+            if ( ee.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) ee.getCause();
+            }
+            if ( ee.getCause() instanceof Error ) {
+                throw (Error) ee.getCause();
+            }
+            throw new TransformException( "Shiftr partition failed.", ee.getCause() );
+        }
+        catch ( InterruptedException ie ) {
+            Thread.currentThread().interrupt();
+            throw new TransformException( "Interrupted while waiting for Shiftr partitions.", ie );
+        }
+
+        walkedPath.removeLast();
+
+        walkedPath.lastElement().getMatchedElement().incrementHashCount();
+
+        return true;
+    }
+
+    /**
+     * Processes a range of our input keys, with its own WalkedPath, recording the writes it makes.
+     */
+    private class Partition implements Callable<ShiftrWriteLog> {
+
+        private final WalkedPath parentPath;
+        private final String[] subKeys;
+        private final Optional<Object>[] subInputs;
+        private final int start;
+        private final int end;
+        private final Map<String, Object> context;
+        private final ShiftrWriteLog writeLog = new ShiftrWriteLog();
+
+        private Partition( WalkedPath walkedPath, String[] subKeys, Optional<Object>[] subInputs, int start, int end, Map<String, Object> context ) {
+            // copy the path now, as the caller's WalkedPath recycles its PathSteps, and copy the
+            //  MatchedElements, as our children count their matches and cache their captures in them.
+            // Our leaves write through the path's OutputSink, so they record into our write log
+            this.parentPath = new WalkedPath( writeLog );
+            for ( PathStep step : walkedPath ) {
+                parentPath.add( step.getTreeRef(), step.getMatchedElement().copy() );
+            }
+            this.subKeys = subKeys;
+            this.subInputs = subInputs;
+            this.start = start;
+            this.end = end;
+            this.context = context;
+        }
+
+        @Override
+        public ShiftrWriteLog call() {
+
+            // nothing may write to the output directly from another thread
+            Map<String, Object> noOutput = Collections.emptyMap();
+
+            // Note each partition counts matches in its own copy of our MatchedElement, so the hash count
+            //  only covers the partition, which is why "#" write references are not allowed in parallel
+            for ( int index = start; index < end; index++ ) {
+                executionStrategy.processInputKey( ShiftrCompositeSpec.this, subKeys[index], subInputs[index], parentPath, noOutput, context );
+            }
+            return writeLog;
+        }
+    }
 }
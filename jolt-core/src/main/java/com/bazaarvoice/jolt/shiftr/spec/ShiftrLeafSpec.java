@@ -41,6 +41,8 @@ import java.util.Map;
  */
 public class ShiftrLeafSpec extends ShiftrSpec {
 
+    private static final long serialVersionUID = 1L;
+
     // traversal builder that uses a ShifterWriter to create a PathEvaluatingTraversal
     private static final TraversalBuilder TRAVERSAL_BUILDER = new TraversalBuilder() {
         @Override
@@ -50,8 +52,20 @@ public class ShiftrLeafSpec extends ShiftrSpec {
         }
     };
 
-    // List of the processed version of the "write specifications"
-    private final List<? extends PathEvaluatingTraversal> shiftrWriters;
+    /**
+     * Where the data this leaf writes comes from.  Resolved once from the PathElement type at spec
+     *  build time, so that apply does not need to repeat the instanceof checks for every input key.
+     */
+    private enum DataSource {
+        MATCHED_KEY,   // "$" and "#" : the data is encoded in the MatchedElement
+        PARENT_INPUT,  // "@" : the data is our parent's data
+        TRANSPOSE,     // "@(1,foo)" : walk the tree to find the data
+        INPUT          // literal / star / & : the data is the input, and we block sibling matches
+    }
+
+    // Processed version of the "write specifications"
+    private final PathEvaluatingTraversal[] shiftrWriters;
+    private final DataSource dataSource;
 
     public ShiftrLeafSpec( String rawKey, Object rhs ) {
         super( rawKey );
@@ -79,7 +93,28 @@ public class ShiftrLeafSpec extends ShiftrSpec {
             throw new SpecException( "Invalid Shiftr spec RHS.  Should be map, string, or array of strings.  Spec in question : " + rhs );
         }
 
-        shiftrWriters = Collections.unmodifiableList( writers );
+        shiftrWriters = writers.toArray( new PathEvaluatingTraversal[ writers.size() ] );
+
+        if ( pathElement instanceof DollarPathElement || pathElement instanceof HashPathElement ) {
+            dataSource = DataSource.MATCHED_KEY;
+        }
+        else if ( pathElement instanceof AtPathElement ) {
+            dataSource = DataSource.PARENT_INPUT;
+        }
+        else if ( pathElement instanceof TransposePathElement ) {
+            dataSource = DataSource.TRANSPOSE;
+        }
+        else {
+            dataSource = DataSource.INPUT;
+        }
+    }
+
+    /**
+     * A leaf with a null RHS still matches, and blocks its siblings from matching, but writes nothing.
+     */
+    @Override
+    public boolean producesOutput() {
+        return shiftrWriters.length > 0;
     }
 
     /**
@@ -99,45 +134,37 @@ public class ShiftrLeafSpec extends ShiftrSpec {
         Object data;
         boolean realChild = false;  // by default don't block further Shiftr matches
 
-        if ( this.pathElement instanceof DollarPathElement ||
-             this.pathElement instanceof HashPathElement ) {
-
-            // The data is already encoded in the thisLevel object created by the pathElement.match called above
-            data = thisLevel.getCanonicalForm();
-        }
-        else if ( this.pathElement instanceof AtPathElement ) {
-
-            // The data is our parent's data
-            data = input;
-        }
-        else if ( this.pathElement instanceof TransposePathElement ) {
-            // We try to walk down the tree to find the value / data we want
-            TransposePathElement tpe = (TransposePathElement) this.pathElement;
-
-            // Note the data found may not be a String, thus we have to call the special objectEvaluate
-            Optional<Object> evaledData = tpe.objectEvaluate( walkedPath );
-            if ( evaledData.isPresent() ) {
+        switch ( dataSource ) {
+            case MATCHED_KEY:
+                // The data is already encoded in the thisLevel object created by the pathElement.match called above
+                data = thisLevel.getCanonicalForm();
+                break;
+            case PARENT_INPUT:
+                // The data is our parent's data
+                data = input;
+                break;
+            case TRANSPOSE:
+                // We try to walk down the tree to find the value / data we want
+                // Note the data found may not be a String, thus we have to call the special objectEvaluate
+                Optional<Object> evaledData = ( (TransposePathElement) pathElement ).objectEvaluate( walkedPath );
+                if ( ! evaledData.isPresent() ) {
+                    // if we could not find the value we want looking down the tree, bail
+                    return false;
+                }
                 data = evaledData.get();
-            }
-            else {
-                // if we could not find the value we want looking down the tree, bail
-                return false;
-            }
-        }
-        else {
-            // the data is the input
-            data = input;
-            // tell our parent that we matched and no further processing for this inputKey should be done
-            realChild = true;
+                break;
+            default:
+                // the data is the input
+                data = input;
+                // tell our parent that we matched and no further processing for this inputKey should be done
+                realChild = true;
         }
 
         // Add our the LiteralPathElement for this level, so that write path References can use it as &(0,0)
         walkedPath.add( input, thisLevel );
 
-        // Write out the data
-        for ( PathEvaluatingTraversal outputPath : shiftrWriters ) {
-            outputPath.write( data, output, walkedPath );
-        }
+        // Write out the data, or if we are processing a partition of the input in parallel, record the writes for later
+        walkedPath.getOutputSink().write( shiftrWriters, data, walkedPath, output );
 
         walkedPath.removeLast();
 
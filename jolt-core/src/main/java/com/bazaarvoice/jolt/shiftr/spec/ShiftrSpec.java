@@ -49,6 +49,8 @@ import com.bazaarvoice.jolt.common.spec.BaseSpec;
  */
 public abstract class ShiftrSpec implements BaseSpec {
 
+    private static final long serialVersionUID = 1L;
+
     // The processed key from the JSON config
     protected final MatchablePathElement pathElement;
 
@@ -60,4 +62,13 @@ public abstract class ShiftrSpec implements BaseSpec {
     public MatchablePathElement getPathElement() {
         return pathElement;
     }
+
+    /**
+     * Determined when the spec is built.  ShiftrSpecs that do not know assume that they can write.
+     *
+     * @return true if applying this spec can write anything to the output, false if it is a dead branch of the spec
+     */
+    public boolean producesOutput() {
+        return true;
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.traversr;
+
+import com.bazaarvoice.jolt.traversr.traversal.StepKind;
+import com.bazaarvoice.jolt.traversr.traversal.TraversalStep.Operation;
+
+/**
+ * Runs many Traversr gets or sets against one tree, where consecutive paths often share a prefix,
+ *  like "photos.[3].url" and "photos.[3].caption", or the many fields written under
+ *  "a.b.c.d.e.[&1]" by one Shiftr spec.
+ *
+ * It remembers the containers the last walk went through, and starts the next walk from the
+ *  deepest one the two paths share, so each shared container is descended once rather than once
+ *  per path.
+ *
+ * The walks are done in the order they are made, so the result is exactly that of calling
+ *  getValue / setValue for each in turn.  Repeated Shiftr writes to one path still become a List
+ *  in write order, and Maps get their keys in the same order.
+ *
+ * Only paths walked by the same class of Traversr, with the same operation, share containers, as
+ *  that is what guarantees the shared steps would have found the same containers.  Nothing else may
+ *  modify the tree while a BatchTraversal is in use, and it is not thread safe.
+ */
+public class BatchTraversal {
+
+    private final Object tree;
+
+    // what each step of the last walk worked on, valid up to, but not including, depth reached
+    private Object[] containers = new Object[ 8 ];
+    private int reached = 0;
+
+    private Traversr<?> lastTraversr;
+    private Object[] lastKeys;
+    private Operation lastOp;
+
+    public BatchTraversal( Object tree ) {
+        this.tree = tree;
+    }
+
+    /**
+     * @return the data, or Traversr.MISSING, see Traversr.getValue
+     */
+    public Object get( Traversr<?> traversr, Object[] keys ) {
+        return walk( traversr, keys, Operation.GET, null );
+    }
+
+    /**
+     * @return the data object if successfully set, otherwise Traversr.MISSING, see Traversr.setValue
+     */
+    public <T> Object set( Traversr<T> traversr, Object[] keys, T data ) {
+        if ( tree == null ) {
+            traversr.checkLength( keys );
+            return Traversr.MISSING;
+        }
+        return walk( traversr, keys, Operation.SET, data );
+    }
+
+    private <T> Object walk( Traversr<T> traversr, Object[] keys, Operation op, T data ) {
+
+        traversr.checkLength( keys );
+
+        int start = sharedDepth( traversr, keys, op );
+
+        lastTraversr = traversr;
+        lastKeys = keys;
+        lastOp = op;
+        reached = start;
+
+        return traversr.walk( containers[start], start, keys, op, data, this );
+    }
+
+    /**
+     * @return the depth of the deepest container recorded by the last walk that this walk would also go through
+     */
+    private int sharedDepth( Traversr<?> traversr, Object[] keys, Operation op ) {
+
+        containers[0] = tree;
+
+        if ( lastTraversr == null || lastOp != op || lastTraversr.getClass() != traversr.getClass() ) {
+            return 0;
+        }
+
+        // The container at depth d is shared if the steps above it are the same.  Only what the last walk
+        //  reached is known, and the container its final step wrote into may since have changed.
+        int max = Math.min( reached, keys.length ) - 1;
+        int depth = 0;
+        while ( depth < max ) {
+            StepKind kind = traversr.getStepKind( depth );
+            if ( kind != lastTraversr.getStepKind( depth ) || kind == StepKind.AUTO_EXPAND ) {
+                // each walk through a "[]" step gets a new element
+                break;
+            }
+            if ( ! sameKey( kind, keys[depth], lastKeys[depth] ) ) {
+                break;
+            }
+            depth++;
+        }
+        return depth;
+    }
+
+    private static boolean sameKey( StepKind kind, Object key, Object lastKey ) {
+        if ( key == lastKey ) {
+            return true;
+        }
+        if ( kind == StepKind.ARRAY && ( key instanceof Integer || lastKey instanceof Integer ) ) {
+            // an index may be given as an Integer or a String
+            return key.toString().equals( lastKey.toString() );
+        }
+        return key.equals( lastKey );
+    }
+
+    /**
+     * Called by Traversr.walk with what the step at each depth works on.
+     */
+    void reached( int depth, Object container ) {
+        if ( depth == containers.length ) {
+            Object[] bigger = new Object[ containers.length * 2 ];
+            System.arraycopy( containers, 0, bigger, 0, containers.length );
+            containers = bigger;
+        }
+        containers[depth] = container;
+        reached = depth + 1;
+    }
+}
@@ -17,8 +17,6 @@ package com.bazaarvoice.jolt.traversr;
 
 import com.bazaarvoice.jolt.common.Optional;
 
-import java.util.Arrays;
-import java.util.List;
 
 /**
  * Utility class for use in custom Transforms.
@@ -35,8 +33,10 @@ import java.util.List;
  */
 public class SimpleTraversal<DataType> {
 
-    private final SimpleTraversr traversr;
-    private final List<String> keys;
+    private final SimpleTraversr<DataType> traversr;
+
+    // array indexes are held as Integers, so they are not parsed on every call
+    private final Object[] keys;
 
     /**
      * Google Maps.newHashMap() trick to fill in generic type
@@ -46,22 +46,41 @@ public class SimpleTraversal<DataType> {
     }
 
     public SimpleTraversal( String humanReadablePath ) {
-        traversr = new SimpleTraversr( humanReadablePath );
+        traversr = new SimpleTraversr<>( humanReadablePath );
 
         String[] keysArray = humanReadablePath.split( "\\." );
+        keys = new Object[ keysArray.length ];
 
         // extract the 3 from "[3]", but don't mess with "[]"
         for ( int index = 0; index < keysArray.length; index++) {
 
             String key = keysArray[ index ];
+            keys[index] = key;
             if ( key.charAt( 0 ) == '[' && key.charAt( key.length() -1 ) == ']' ) {
                 if ( key.length() > 2 ) {
-                    keysArray[index] = key.substring( 1, key.length() - 1 );
+                    String arrayIndex = key.substring( 1, key.length() - 1 );
+                    keys[index] = isIndex( arrayIndex ) ? (Object) Integer.valueOf( arrayIndex ) : arrayIndex;
                 }
             }
         }
+    }
+
+    private static boolean isIndex( String key ) {
+        if ( key.length() > 9 ) {
+            // leave anything that might not fit in an int for the traversal to complain about
+            return false;
+        }
+        for ( int index = 0; index < key.length(); index++ ) {
+            if ( ! Character.isDigit( key.charAt( index ) ) ) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-        keys = Arrays.asList( keysArray );
+    @SuppressWarnings( "unchecked" )
+    private static <T> Optional<T> toOptional( Object value ) {
+        return value == Traversr.MISSING ? Optional.<T>empty() : Optional.of( (T) value );
     }
 
     /**
@@ -69,7 +88,7 @@ public class SimpleTraversal<DataType> {
      * @return the object you wanted, or null if the object or any step along the path to it were not there
      */
     public Optional<DataType> get( Object tree ) {
-        return (Optional<DataType>) traversr.get( tree, keys );
+        return toOptional( traversr.getValue( tree, keys ) );
     }
 
     /**
@@ -78,7 +97,7 @@ public class SimpleTraversal<DataType> {
      * @return returns the data object if successfully set, otherwise null if there was a problem walking the path
      */
     public Optional<DataType> set( Object tree, DataType data ) {
-        return (Optional<DataType>) traversr.set( tree, keys, data );
+        return toOptional( traversr.setValue( tree, keys, data ) );
     }
 
     /**
@@ -86,6 +105,6 @@ public class SimpleTraversal<DataType> {
      * @return removes and returns the data object if it was able to successfully navigate to it and remove it.
      */
     public Optional<DataType> remove( Object tree ) {
-        return traversr.remove( tree, keys );
+        return toOptional( traversr.removeValue( tree, keys ) );
     }
 }
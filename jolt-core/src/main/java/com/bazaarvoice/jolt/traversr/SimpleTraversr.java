@@ -16,6 +16,7 @@
 package com.bazaarvoice.jolt.traversr;
 
 import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.traversr.traversal.StepKind;
 import com.bazaarvoice.jolt.traversr.traversal.TraversalStep;
 
 import java.util.List;
@@ -28,6 +29,8 @@ import java.util.List;
  */
 public class SimpleTraversr<DataType> extends Traversr<DataType> {
 
+    private static final long serialVersionUID = 1L;
+
     public SimpleTraversr( String humanPath ) {
         super( humanPath );
     }
@@ -60,4 +63,30 @@ public class SimpleTraversr<DataType> extends Traversr<DataType> {
 
         return Optional.of( (DataType) sub );
     }
+
+    @Override
+    protected Object finalSet( int depth, Object tree, Object key, DataType data ) {
+        getStepKind( depth ).overwriteSet( tree, key, data );
+        return data;
+    }
+
+    @Override
+    protected Object intermediateGet( int depth, Object tree, Object key, TraversalStep.Operation op ) {
+
+        StepKind kind = getStepKind( depth );
+        Object sub = kind.get( tree, key );
+
+        if ( sub == MISSING || sub == null ) {
+
+            if ( op != TraversalStep.Operation.SET ) {
+                return MISSING;
+            }
+
+            // make the container our child step will be happy with
+            sub = getStepKind( depth + 1 ).newContainer();
+            kind.overwriteSet( tree, key, sub );
+        }
+
+        return sub;
+    }
 }
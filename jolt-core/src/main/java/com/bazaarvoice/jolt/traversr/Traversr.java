@@ -19,9 +19,12 @@ import com.bazaarvoice.jolt.common.Optional;
 import com.bazaarvoice.jolt.traversr.traversal.ArrayTraversalStep;
 import com.bazaarvoice.jolt.traversr.traversal.AutoExpandArrayTraversalStep;
 import com.bazaarvoice.jolt.traversr.traversal.MapTraversalStep;
+import com.bazaarvoice.jolt.traversr.traversal.StepKind;
 import com.bazaarvoice.jolt.traversr.traversal.TraversalStep;
 import com.bazaarvoice.jolt.traversr.traversal.TraversalStep.Operation;
 
+import java.io.Serializable;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -55,12 +58,33 @@ import java.util.List;
  *  parse any more objects.
  *
  * The list of keys are all Strings, which ArrayTraversals will convert to Integers as needed.
+ *
+ * The path is also kept as an array of StepKinds, which getValue, setValue and removeValue walk
+ *  in a plain loop.  Those take the keys as an array, where array steps can be given Integers
+ *  so they need no parsing, and they return raw values, with MISSING standing in for the
+ *  absent Optional, so that a walk allocates nothing per step.  The List / Optional methods
+ *  are wrappers around them.
  */
-public abstract class Traversr<DataType> {
+public abstract class Traversr<DataType> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Returned by getValue, setValue and removeValue when there is no data, as opposed to
+     *  there being data that is null.
+     */
+    public static final Object MISSING = new Object() {
+        @Override
+        public String toString() {
+            return "MISSING";
+        }
+    };
 
-    private final TraversalStep root;
     private final int traversalLength;
 
+    private final TraversalStep[] steps;
+    private final StepKind[] kinds;
+
     public Traversr ( String humanPath ) {
 
         String intermediatePath = humanPath.replace( "[", ".[" );
@@ -75,12 +99,10 @@ public abstract class Traversr<DataType> {
 
         String[] paths = intermediatePath.split( "\\." );
 
-        TraversalStep rooty = null;
-        for ( int index = paths.length -1 ; index >= 0; index--) {
-            rooty = makePathElement( paths[index], rooty );
-        }
         traversalLength = paths.length;
-        root = rooty;
+        steps = new TraversalStep[ traversalLength ];
+        kinds = new StepKind[ traversalLength ];
+        makePathElements( Arrays.asList( paths ) );
     }
 
     /**
@@ -88,24 +110,30 @@ public abstract class Traversr<DataType> {
      * Aka, no need to extract it from a "Human Readable" form.
      */
     public Traversr( List<String> paths ) {
-        TraversalStep rooty = null;
+        traversalLength = paths.size();
+        steps = new TraversalStep[ traversalLength ];
+        kinds = new StepKind[ traversalLength ];
+        makePathElements( paths );
+    }
+
+    private void makePathElements( List<String> paths ) {
+        TraversalStep child = null;
         for ( int index = paths.size() -1 ; index >= 0; index--) {
-            rooty = makePathElement( paths.get(index), rooty );
+            kinds[index] = StepKind.of( paths.get( index ) );
+            child = makePathElement( kinds[index], child );
+            steps[index] = child;
         }
-        traversalLength = paths.size();
-        root = rooty;
     }
 
-    private TraversalStep makePathElement(String path, TraversalStep child) {
+    private TraversalStep makePathElement( StepKind kind, TraversalStep child ) {
 
-        if ( "[]".equals( path ) ) {
-            return new AutoExpandArrayTraversalStep( this, child );
-        }
-        else if ( path.startsWith( "[" ) && path.endsWith( "]" ) ) {
-            return new ArrayTraversalStep( this, child );
-        }
-        else {
-            return new MapTraversalStep( this, child );
+        switch ( kind ) {
+            case AUTO_EXPAND :
+                return new AutoExpandArrayTraversalStep( this, child );
+            case ARRAY :
+                return new ArrayTraversalStep( this, child );
+            default :
+                return new MapTraversalStep( this, child );
         }
     }
 
@@ -115,12 +143,7 @@ public abstract class Traversr<DataType> {
      *  abstract methods of this class.
      */
     public Optional<DataType> get( Object tree, List<String> keys ) {
-
-        if ( keys.size() != traversalLength ) {
-            throw new TraversrException( "Traversal Path and number of keys mismatch, traversalLength:" + traversalLength + " numKeys:" + keys.size() );
-        }
-
-        return root.traverse( tree, TraversalStep.Operation.GET, keys.iterator(), null );
+        return toOptional( getValue( tree, keys.toArray() ) );
     }
 
     /**
@@ -129,10 +152,34 @@ public abstract class Traversr<DataType> {
      * @return returns the data object if successfully set, otherwise null if there was a problem walking the path
      */
     public Optional<DataType> set( Object tree, List<String> keys, DataType data ) {
+        return toOptional( setValue( tree, keys.toArray(), data ) );
+    }
 
-        if ( keys.size() != traversalLength ) {
-            throw new TraversrException( "Traversal Path and number of keys mismatch, traversalLength:" + traversalLength + " numKeys:" + keys.size() );
-        }
+    /**
+     * Note : Calling this method MAY modify the tree object by adding new Maps and Lists as needed
+     *  for the traversal.  This is determined by the behavior of the implementations of the
+     *  abstract methods of this class.
+     */
+    public Optional<DataType> remove( Object tree, List<String> keys ) {
+        return toOptional( removeValue( tree, keys.toArray() ) );
+    }
+
+    /**
+     * @param tree tree of Map and List JSON structure to navigate
+     * @param keys one key per step of the path, with array steps taking an Integer or a String
+     * @return the data, which may be null, or MISSING if it or any step along the path to it was not there
+     */
+    public Object getValue( Object tree, Object[] keys ) {
+        return walk( tree, keys, Operation.GET, null );
+    }
+
+    /**
+     * @param tree tree of Map and List JSON structure to navigate
+     * @param keys one key per step of the path, with array steps taking an Integer or a String
+     * @param data JSON style data object you want to set
+     * @return the data object if successfully set, otherwise MISSING if there was a problem walking the path
+     */
+    public Object setValue( Object tree, Object[] keys, DataType data ) {
 
         /*
            This may seem counterintuitive.
@@ -142,28 +189,149 @@ public abstract class Traversr<DataType> {
            All we return is a reference to the data, if we were successful in our set.
         */
         if ( tree == null ) {
-            return Optional.empty();
+            checkLength( keys );
+            return MISSING;
         }
 
-        return root.traverse( tree, TraversalStep.Operation.SET, keys.iterator(), data );
+        return walk( tree, keys, Operation.SET, data );
     }
 
     /**
-     * Note : Calling this method MAY modify the tree object by adding new Maps and Lists as needed
-     *  for the traversal.  This is determined by the behavior of the implementations of the
-     *  abstract methods of this class.
+     * @param tree tree of Map and List JSON structure to navigate
+     * @param keys one key per step of the path, with array steps taking an Integer or a String
+     * @return the data removed, or MISSING if it or any step along the path to it was not there
      */
-    public Optional<DataType> remove( Object tree, List<String> keys ) {
+    public Object removeValue( Object tree, Object[] keys ) {
+        return walk( tree, keys, Operation.REMOVE, null );
+    }
+
+    private Object walk( Object tree, Object[] keys, Operation op, DataType data ) {
+        checkLength( keys );
+        return walk( tree, 0, keys, op, data, null );
+    }
 
-        if ( keys.size() != traversalLength ) {
-            throw new TraversrException( "Traversal Path and number of keys mismatch, traversalLength:" + traversalLength + " numKeys:" + keys.size() );
+    /**
+     * Walk the path from the given depth, where tree is what the step at that depth works on.
+     *
+     * @param batch if non null, is told the tree each step works on, so that a later walk can pick up part way down
+     */
+    Object walk( Object tree, int start, Object[] keys, Operation op, DataType data, BatchTraversal batch ) {
+
+        Object current = tree;
+        int last = traversalLength - 1;
+        for ( int depth = start; ; depth++ ) {
+
+            if ( batch != null ) {
+                batch.reached( depth, current );
+            }
+
+            // also catches a null tree, or a null value part way down the path
+            if ( ! kinds[depth].accepts( current ) ) {
+                return MISSING;
+            }
+
+            if ( depth == last ) {
+                // End of the Traversal so do the set or get
+                switch ( op ) {
+                    case GET :
+                        return kinds[depth].get( current, keys[depth] );
+                    case SET :
+                        return finalSet( depth, current, keys[depth], data );
+                    case REMOVE :
+                        return kinds[depth].remove( current, keys[depth] );
+                    default :
+                        throw new IllegalStateException( "Invalid op:" + op.toString() );
+                }
+            }
+
+            current = intermediateGet( depth, current, keys[depth], op );
+            if ( current == MISSING ) {
+                return MISSING;
+            }
         }
+    }
 
-        if ( tree == null ) {
-            return Optional.empty();
+    /**
+     * Get the data for each set of keys, descending the containers that consecutive sets of keys share only once.
+     *
+     * @param tree tree of Map and List JSON structure to navigate
+     * @param keys sets of keys, see getValue
+     * @return the data for each set of keys, or MISSING
+     */
+    public Object[] getValues( Object tree, List<Object[]> keys ) {
+        BatchTraversal batch = new BatchTraversal( tree );
+        Object[] values = new Object[ keys.size() ];
+        for ( int index = 0; index < values.length; index++ ) {
+            values[index] = batch.get( this, keys.get( index ) );
+        }
+        return values;
+    }
+
+    /**
+     * Set the data for each set of keys, in order, descending the containers that consecutive sets of keys
+     *  share only once.
+     *
+     * @param tree tree of Map and List JSON structure to navigate
+     * @param keys sets of keys, see setValue
+     * @param data data for each set of keys
+     */
+    public void setValues( Object tree, List<Object[]> keys, List<? extends DataType> data ) {
+        if ( keys.size() != data.size() ) {
+            throw new TraversrException( "Number of key sets and data mismatch, numKeySets:" + keys.size() + " numData:" + data.size() );
+        }
+        BatchTraversal batch = new BatchTraversal( tree );
+        for ( int index = 0; index < keys.size(); index++ ) {
+            batch.set( this, keys.get( index ), data.get( index ) );
         }
+    }
+
+    void checkLength( Object[] keys ) {
+        if ( keys.length != traversalLength ) {
+            throw new TraversrException( "Traversal Path and number of keys mismatch, traversalLength:" + traversalLength + " numKeys:" + keys.length );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private Optional<DataType> toOptional( Object value ) {
+        return value == MISSING ? Optional.<DataType>empty() : Optional.of( (DataType) value );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Object fromOptional( Optional optional ) {
+        return optional.isPresent() ? optional.get() : MISSING;
+    }
+
+    /**
+     * @return the kind of the step at the given depth of the path
+     */
+    protected final StepKind getStepKind( int depth ) {
+        return kinds[depth];
+    }
 
-        return root.traverse( tree, TraversalStep.Operation.REMOVE, keys.iterator(), null );
+    /**
+     * Raw value version of handleFinalSet, used by setValue.
+     *
+     * The default calls handleFinalSet, so subclasses that only implement the Optional methods
+     *  behave the same either way.  Subclasses should override both.
+     *
+     * @param depth index of the step in the path, see getStepKind
+     * @return the data object if the set was successful, or MISSING if not
+     */
+    protected Object finalSet( int depth, Object tree, Object key, DataType data ) {
+        return fromOptional( handleFinalSet( steps[depth], tree, String.valueOf( key ), data ) );
+    }
+
+    /**
+     * Raw value version of handleIntermediateGet, used by getValue, setValue and removeValue.
+     *
+     * The default calls handleIntermediateGet, so subclasses that only implement the Optional methods
+     *  behave the same either way.  Subclasses should override both.
+     *
+     * @param depth index of the step in the path, see getStepKind
+     * @return the container for the next step to walk, or MISSING to stop the walk
+     */
+    protected Object intermediateGet( int depth, Object tree, Object key, Operation op ) {
+        return fromOptional( handleIntermediateGet( steps[depth], tree, String.valueOf( key ), op ) );
     }
 
     // TODO extract these methods to an interface, and then sublasses of Traverser like ShiftrTraversr can do the
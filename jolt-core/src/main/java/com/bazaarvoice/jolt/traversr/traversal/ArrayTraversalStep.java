@@ -26,6 +26,8 @@ import java.util.List;
  */
 public class ArrayTraversalStep<DataType> extends BaseTraversalStep<List<Object>, DataType> {
 
+    private static final long serialVersionUID = 1L;
+
     public ArrayTraversalStep( Traversr traversr, TraversalStep child ) {
         super( traversr, child );
     }
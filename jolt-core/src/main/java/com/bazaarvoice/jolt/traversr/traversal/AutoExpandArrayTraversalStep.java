@@ -36,6 +36,8 @@ import java.util.List;
  */
 public class AutoExpandArrayTraversalStep<DataType> extends ArrayTraversalStep<DataType> {
 
+    private static final long serialVersionUID = 1L;
+
     public AutoExpandArrayTraversalStep( Traversr traversr, TraversalStep child ) {
         super( traversr, child );
     }
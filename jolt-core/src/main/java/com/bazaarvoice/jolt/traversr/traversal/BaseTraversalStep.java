@@ -23,6 +23,8 @@ import java.util.Iterator;
 
 public abstract class BaseTraversalStep<StepType,DataType> implements TraversalStep<StepType,DataType> {
 
+    private static final long serialVersionUID = 1L;
+
     protected final TraversalStep child;
     protected final Traversr traversr;
 
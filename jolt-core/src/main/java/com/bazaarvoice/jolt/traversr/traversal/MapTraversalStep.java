@@ -26,6 +26,8 @@ import java.util.Map;
  */
 public class MapTraversalStep<DataType> extends BaseTraversalStep<Map<String,Object>, DataType> {
 
+    private static final long serialVersionUID = 1L;
+
     public MapTraversalStep( Traversr traversr, TraversalStep child ) {
         super( traversr, child );
     }
@@ -0,0 +1,204 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.traversr.traversal;
+
+import com.bazaarvoice.jolt.traversr.Traversr;
+import com.bazaarvoice.jolt.traversr.TraversrException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The three kinds of step a Traversr can take, with the Map and List operations for each.
+ *
+ * These work on raw values rather than Optionals, returning {@link Traversr#MISSING} when there
+ *  is nothing to return, so that a precompiled Traversr can walk a path without allocating
+ *  anything per step.
+ *
+ * Keys are Strings for MAP steps.  ARRAY steps take an Integer, or a String to parse, and
+ *  AUTO_EXPAND steps take the key "[]".
+ */
+public enum StepKind {
+
+    MAP {
+        @Override
+        public boolean accepts( Object tree ) {
+            return tree instanceof Map;
+        }
+
+        @Override
+        public Object newContainer() {
+            return new LinkedHashMap<>();
+        }
+
+        @Override
+        public Object get( Object tree, Object key ) {
+            Map map = (Map) tree;
+            Object value = map.get( key );
+            // distinguish between the key not existing in the map, and the key having a _valid_ null value
+            if ( value == null && ! map.containsKey( key ) ) {
+                return Traversr.MISSING;
+            }
+            return value;
+        }
+
+        @Override
+        public Object remove( Object tree, Object key ) {
+            return ( (Map) tree ).remove( key );
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public Object overwriteSet( Object tree, Object key, Object data ) {
+            return ( (Map) tree ).put( key, data );
+        }
+    },
+
+    ARRAY {
+        @Override
+        public boolean accepts( Object tree ) {
+            return tree instanceof List;
+        }
+
+        @Override
+        public Object newContainer() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public Object get( Object tree, Object key ) {
+            List list = (List) tree;
+            int arrayIndex = index( key );
+            if ( arrayIndex >= 0 && arrayIndex < list.size() ) {
+                return list.get( arrayIndex );
+            }
+            return Traversr.MISSING;
+        }
+
+        @Override
+        public Object remove( Object tree, Object key ) {
+            List list = (List) tree;
+            int arrayIndex = index( key );
+            if ( arrayIndex >= 0 && arrayIndex < list.size() ) {
+                return list.remove( arrayIndex );
+            }
+            return Traversr.MISSING;
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public Object overwriteSet( Object tree, Object key, Object data ) {
+            List list = (List) tree;
+            int arrayIndex = index( key );
+            // make sure it is big enough
+            for ( int sizing = list.size(); sizing <= arrayIndex; sizing++ ) {
+                list.add( null );
+            }
+            return list.set( arrayIndex, data );
+        }
+    },
+
+    /**
+     * Does not care about array index numbers, and just does an array add on any set.
+     */
+    AUTO_EXPAND {
+        @Override
+        public boolean accepts( Object tree ) {
+            return tree instanceof List;
+        }
+
+        @Override
+        public Object newContainer() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public Object get( Object tree, Object key ) {
+            checkKey( key );
+            return Traversr.MISSING;
+        }
+
+        @Override
+        public Object remove( Object tree, Object key ) {
+            checkKey( key );
+            return Traversr.MISSING;
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public Object overwriteSet( Object tree, Object key, Object data ) {
+            checkKey( key );
+            ( (List) tree ).add( data );
+            return null;
+        }
+
+        private void checkKey( Object key ) {
+            if ( ! "[]".equals( key ) ) {
+                throw new TraversrException( "AutoExpandArrayTraversal expects a '[]' key. Was: " + key );
+            }
+        }
+    };
+
+    /**
+     * @return the kind of step for a canonical path element, like "tuna", "[3]" or "[]"
+     */
+    public static StepKind of( String path ) {
+        if ( "[]".equals( path ) ) {
+            return AUTO_EXPAND;
+        }
+        if ( path.startsWith( "[" ) && path.endsWith( "]" ) ) {
+            return ARRAY;
+        }
+        return MAP;
+    }
+
+    /**
+     * @return true if the tree is a container this kind of step can walk, false if it is null or something else
+     */
+    public abstract boolean accepts( Object tree );
+
+    /**
+     * @return a new mutable Map or List, suitable for this kind of step to walk
+     */
+    public abstract Object newContainer();
+
+    /**
+     * @return the data for the key, which may be null, or Traversr.MISSING if there is none
+     */
+    public abstract Object get( Object tree, Object key );
+
+    /**
+     * @return the data removed, or Traversr.MISSING if a List had nothing at the index.  A Map step
+     *  returns null for a key it did not have.
+     */
+    public abstract Object remove( Object tree, Object key );
+
+    /**
+     * Insert the data into the tree, overwriting any data that is there.
+     *
+     * @return the data that was there before, or null
+     */
+    public abstract Object overwriteSet( Object tree, Object key, Object data );
+
+    private static int index( Object key ) {
+        if ( key instanceof Integer ) {
+            return (Integer) key;
+        }
+        return Integer.parseInt( key.toString() );
+    }
+}
@@ -17,12 +17,13 @@ package com.bazaarvoice.jolt.traversr.traversal;
 
 import com.bazaarvoice.jolt.common.Optional;
 
+import java.io.Serializable;
 import java.util.Iterator;
 
 /**
  * A step in a JSON tree traversal.
  */
-public interface TraversalStep<StepType, DataType> {
+public interface TraversalStep<StepType, DataType> extends Serializable {
 
     /**
      * The three things you can do with a Traversal.
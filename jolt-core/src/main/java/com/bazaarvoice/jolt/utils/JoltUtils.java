@@ -15,6 +15,10 @@
  */
 package com.bazaarvoice.jolt.utils;
 
+import com.bazaarvoice.jolt.traversr.Traversr;
+import com.bazaarvoice.jolt.traversr.traversal.StepKind;
+
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -101,28 +105,20 @@ public class JoltUtils {
             }
 
             if ( destination instanceof Map ) {
-                destination = ((Map) destination).get( path );
+                destination = StepKind.MAP.get( destination, path );
             }
-            else if ( destination instanceof List ) {
-
-                if ( ! (path instanceof Integer) ) {
-                    return null;
-                }
-
-                List destList = (List) destination;
-                int pathInt = (Integer) path;
-
-                if ( pathInt < 0 || pathInt >= destList.size() ) {
-                    return null;
-                }
-
-                destination = destList.get( pathInt );
+            else if ( destination instanceof List && path instanceof Integer ) {
+                destination = StepKind.ARRAY.get( destination, path );
             }
             else {
-                // the input at this level is not a Map or List
+                // the input at this level is not a Map or List, or we have a non Integer index into a List
                 //  so return null
                 return null;
             }
+
+            if ( destination == Traversr.MISSING ) {
+                return null;
+            }
         }
         return cast(destination);
     }
@@ -203,29 +199,18 @@ public class JoltUtils {
                 return defaultValue;
             }
             if(destination instanceof Map) {
-                Map destinationMap = (Map) destination;
-                if(!destinationMap.containsKey(path)) {
-                    return defaultValue;
-                }
-                else {
-                    destination = destinationMap.get(path);
-                }
+                destination = StepKind.MAP.get( destination, path );
             }
             else if(path instanceof Integer && destination instanceof List) {
-
-                List destList = (List) destination;
-                int pathInt = (Integer) path;
-
-                if ( pathInt < 0 || pathInt >= destList.size() ) {
-                    return defaultValue;
-                }
-                else {
-                    destination = destList.get( pathInt );
-                }
+                destination = StepKind.ARRAY.get( destination, path );
             }
             else {
                 return defaultValue;
             }
+
+            if ( destination == Traversr.MISSING ) {
+                return defaultValue;
+            }
         }
         return cast(destination);
     }
@@ -485,19 +470,85 @@ public class JoltUtils {
             Object nextPath = paths[i+1];
             source = getOrCreateNextObject( source, currentPath, nextPath );
         }
-        Object path = paths[destKeyIndex];
+        return storeAt( source, value, paths[destKeyIndex] );
+    }
+
+    private static <T> T storeAt( Object source, Object value, Object path ) {
         if(source instanceof Map && path instanceof String) {
-            return cast( ( (Map) source ).put( path, value ) );
+            return cast( StepKind.MAP.overwriteSet( source, path, value ) );
         }
         else if(source instanceof List && path instanceof Integer) {
-            ensureListAvailability( (List) source, (int) path );
-            return cast( ( (List) source ).set( (int) path, value ) );
+            return cast( StepKind.ARRAY.overwriteSet( source, path, value ) );
         }
         else {
             throw new UnsupportedOperationException( "Only Map/String and List/Integer types are supported" );
         }
     }
 
+    /**
+     * For a given non-null (json) object, save each value in its nested path, in order.
+     *
+     * Same as calling store for each path in turn, except that when a path shares a prefix with the
+     *  path before it, the Maps and Lists along the shared prefix are not looked up again.  So it pays
+     *  to pass paths that share prefixes next to each other.
+     *
+     * @param source the source json object
+     * @param paths Object paths to navigate down and store the values in, see store
+     * @param values the values to store, one per path
+     */
+    public static void storeAll( Object source, List<Object[]> paths, List<?> values ) {
+        if(paths.size() != values.size()) {
+            throw new IllegalArgumentException( "Number of paths and values mismatch, paths:" + paths.size() + " values:" + values.size() );
+        }
+        if(source == null) {
+            throw new NullPointerException( "source cannot be null" );
+        }
+
+        // containers[i] is what the last path's i-th key was used on
+        Object[] containers = new Object[ 8 ];
+        Object[] lastPaths = null;
+
+        for ( int index = 0; index < paths.size(); index++ ) {
+            Object[] currentPaths = paths.get( index );
+            int destKeyIndex = currentPaths.length - 1;
+            if(destKeyIndex < 0) {
+                throw new IllegalArgumentException( "No path information provided" );
+            }
+            if ( currentPaths.length > containers.length ) {
+                containers = Arrays.copyOf( containers, Math.max( currentPaths.length, containers.length * 2 ) );
+            }
+
+            int start = sharedDepth( lastPaths, currentPaths );
+            containers[0] = source;
+            Object current = containers[start];
+            for ( int i = start; i < destKeyIndex; i++ ) {
+                current = getOrCreateNextObject( current, currentPaths[i], currentPaths[i+1] );
+                containers[i+1] = current;
+            }
+            storeAt( current, values.get( index ), currentPaths[destKeyIndex] );
+
+            lastPaths = currentPaths;
+        }
+    }
+
+    /**
+     * @return how deep into the current path we can start from the containers of the last path
+     */
+    private static int sharedDepth( Object[] lastPaths, Object[] currentPaths ) {
+        if ( lastPaths == null ) {
+            return 0;
+        }
+        // the last path's final container is fine to use, but not what it stored in it
+        int max = Math.min( lastPaths.length, currentPaths.length ) - 1;
+        int depth = 0;
+        while ( depth < max && currentPaths[depth] != null && currentPaths[depth].equals( lastPaths[depth] )
+                // the key after decides what kind of container is created, and must agree with it
+                && currentPaths[depth+1] != null && currentPaths[depth+1].getClass() == lastPaths[depth+1].getClass() ) {
+            depth++;
+        }
+        return depth;
+    }
+
     /**
      * For a given non-null (json) object, removes and returns the value in the nested path provided
      *
@@ -523,11 +574,12 @@ public class JoltUtils {
         }
         Object path = paths[destKeyIndex];
         if(source instanceof Map && path instanceof String) {
-            return cast( ( (Map) source ).remove( path ) );
+            return cast( StepKind.MAP.remove( source, path ) );
         }
         else if(source instanceof List && path instanceof Integer) {
             ensureListAvailability( (List) source, (int) path );
-            return cast( ( (List) source ).remove( (int) path) );
+            Object removed = StepKind.ARRAY.remove( source, path );
+            return removed == Traversr.MISSING ? null : JoltUtils.<T>cast( removed );
         }
         else {
             throw new UnsupportedOperationException( "Only Map/String and List/Integer types are supported" );
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt;
+
+import com.bazaarvoice.jolt.exception.TransformException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AsyncChainrTest {
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setup() {
+        executor = Executors.newFixedThreadPool( 8 );
+    }
+
+    @AfterClass
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    @DataProvider
+    public Object[][] sharedCases() {
+        return new Object[][] {
+            // shift, default, remove and sort
+            { "/json/chainr/integration/firstSample.json", true },
+            // a shift that counts matches for "#" references
+            { "/json/shiftr/mapToList.json", false }
+        };
+    }
+
+    @Test( dataProvider = "sharedCases" )
+    public void testSharedChainrMatchesSerial( String testPath, boolean isChainrSpec ) throws Exception {
+
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( testPath );
+        Chainr chainr = isChainrSpec ? Chainr.fromSpec( testUnit.get( "spec" ) )
+                : new Chainr( Collections.<JoltTransform>singletonList( new Shiftr( testUnit.get( "spec" ) ) ) );
+        Object expected = testUnit.get( "expected" );
+
+        AsyncChainr unit = chainr.async( executor, 4 );
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for ( int i = 0; i < 200; i++ ) {
+            futures.add( unit.transform( JsonUtils.classpathToMap( testPath ).get( "input" ) ) );
+        }
+
+        for ( CompletableFuture<Object> future : futures ) {
+            JoltTestUtil.runDiffy( "failed shared case " + testPath, expected, future.get( 10, TimeUnit.SECONDS ) );
+        }
+    }
+
+    @Test
+    public void testConcurrencyIsBounded() throws Exception {
+
+        final AtomicInteger current = new AtomicInteger();
+        final AtomicInteger max = new AtomicInteger();
+
+        Transform slow = new Transform() {
+            @Override
+            public Object transform( Object input ) {
+                int now = current.incrementAndGet();
+                while ( true ) {
+                    int seen = max.get();
+                    if ( now <= seen || max.compareAndSet( seen, now ) ) {
+                        break;
+                    }
+                }
+                try {
+                    Thread.sleep( 5 );
+                }
+                catch ( InterruptedException ie ) {
+                    Thread.currentThread().interrupt();
+                }
+                current.decrementAndGet();
+                return input;
+            }
+        };
+
+        AsyncChainr unit = new Chainr( Collections.<JoltTransform>singletonList( slow ) ).async( executor, 2 );
+
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for ( int i = 0; i < 40; i++ ) {
+            futures.add( unit.transform( i ) );
+        }
+        for ( int i = 0; i < 40; i++ ) {
+            Assert.assertEquals( futures.get( i ).get( 10, TimeUnit.SECONDS ), i );
+        }
+
+        Assert.assertTrue( max.get() <= 2, "ran " + max.get() + " transforms at once" );
+        Assert.assertEquals( unit.getQueuedCount(), 0 );
+    }
+
+    @Test
+    public void testCancelledTransformDoesNotRun() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch( 1 );
+        final AtomicInteger runs = new AtomicInteger();
+
+        Transform blocking = new Transform() {
+            @Override
+            public Object transform( Object input ) {
+                runs.incrementAndGet();
+                try {
+                    release.await( 10, TimeUnit.SECONDS );
+                }
+                catch ( InterruptedException ie ) {
+                    Thread.currentThread().interrupt();
+                }
+                return input;
+            }
+        };
+
+        AsyncChainr unit = new Chainr( Collections.<JoltTransform>singletonList( blocking ) ).async( executor, 1 );
+
+        CompletableFuture<Object> first = unit.transform( "first" );
+        CompletableFuture<Object> second = unit.transform( "second" );
+        Assert.assertTrue( second.cancel( true ) );
+        Assert.assertEquals( unit.getQueuedCount(), 0 );
+
+        release.countDown();
+        Assert.assertEquals( first.get( 10, TimeUnit.SECONDS ), "first" );
+
+        // run a third through, so that we know the queue has been drained past the cancelled one
+        Assert.assertEquals( unit.transform( "third" ).get( 10, TimeUnit.SECONDS ), "third" );
+        Assert.assertEquals( runs.get(), 2 );
+    }
+
+    @Test
+    public void testDirectExecutorDrainsQueueWithoutRecursing() throws Exception {
+
+        // holds on to the first task, and runs every later one on the calling thread
+        final List<Runnable> held = new ArrayList<>();
+        Executor direct = new Executor() {
+            @Override
+            public void execute( Runnable command ) {
+                if ( held.isEmpty() ) {
+                    held.add( command );
+                }
+                else {
+                    command.run();
+                }
+            }
+        };
+
+        Transform identity = new Transform() {
+            @Override
+            public Object transform( Object input ) {
+                return input;
+            }
+        };
+
+        AsyncChainr unit = new Chainr( Collections.<JoltTransform>singletonList( identity ) ).async( direct, 1 );
+
+        // deep enough to overflow the stack if each task started the next one from its finally
+        int count = 50000;
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            futures.add( unit.transform( i ) );
+        }
+        Assert.assertEquals( unit.getQueuedCount(), count - 1 );
+
+        held.get( 0 ).run();
+
+        Assert.assertEquals( unit.getQueuedCount(), 0 );
+        for ( int i = 0; i < count; i++ ) {
+            Assert.assertEquals( futures.get( i ).getNow( null ), i );
+        }
+    }
+
+    @Test
+    public void testFailureCompletesExceptionally() throws Exception {
+
+        Transform exploding = new Transform() {
+            @Override
+            public Object transform( Object input ) {
+                throw new TransformException( "boom" );
+            }
+        };
+
+        AsyncChainr unit = new Chainr( Collections.<JoltTransform>singletonList( exploding ) ).async( executor, 1 );
+
+        try {
+            unit.transform( "input" ).get( 10, TimeUnit.SECONDS );
+            Assert.fail( "Expected the transform to fail" );
+        }
+        catch ( ExecutionException ee ) {
+            Assert.assertTrue( ee.getCause() instanceof TransformException );
+        }
+
+        // the failure released its slot, so the next one runs (and fails) too
+        try {
+            unit.transform( "input" ).get( 10, TimeUnit.SECONDS );
+            Assert.fail( "Expected the transform to fail" );
+        }
+        catch ( ExecutionException ee ) {
+            Assert.assertTrue( ee.getCause() instanceof TransformException );
+        }
+    }
+
+    @Test( expectedExceptions = IllegalArgumentException.class )
+    public void testMaxConcurrencyMustBePositive() {
+        new AsyncChainr( new Chainr( Collections.<JoltTransform>emptyList() ), executor, 0 );
+    }
+}
@@ -15,10 +15,12 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.bazaarvoice.jolt.chainr.ChainrBuilder;
 import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
 import com.bazaarvoice.jolt.chainr.transforms.ExplodingTestTransform;
 import com.bazaarvoice.jolt.chainr.transforms.GoodTestTransform;
 import com.bazaarvoice.jolt.chainr.transforms.TransformTestResult;
+import com.bazaarvoice.jolt.common.CopyOnWriteJsonTest;
 import com.bazaarvoice.jolt.exception.SpecException;
 import com.bazaarvoice.jolt.exception.TransformException;
 import com.google.common.collect.ImmutableList;
@@ -210,6 +212,7 @@ public class ChainrTest {
             {"andrewkcarter1", false},
             {"andrewkcarter2", false},
             {"firstSample", true},
+            {"fusableStages", false},
             {"ismith", false},
             {"ritwickgupta", false},
             {"wolfermann1", false},
@@ -246,6 +249,26 @@ public class ChainrTest {
 
 
 
+    @Test(dataProvider = "getTestCaseNames")
+    public void runTestCasesImmutableInput(String testCaseName, boolean sorted ) throws IOException {
+        String testPath = "/json/chainr/integration/" + testCaseName;
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( testPath + ".json" );
+
+        Object originalInput = testUnit.get( "input" );
+        Object spec = testUnit.get( "spec" );
+        Object expected = testUnit.get( "expected" );
+
+        Chainr unit = new ChainrBuilder( spec ).immutableInput( true ).build();
+        Assert.assertTrue( unit.isImmutableInput() );
+
+        // any stage that writes to the input itself, rather than to a copy, will blow up
+        Object input = CopyOnWriteJsonTest.unmodifiable( originalInput );
+        Object actual = unit.transform( input, null );
+
+        JoltTestUtil.runDiffy( "failed case " + testPath, expected, actual );
+        JoltTestUtil.runDiffy( "input was modified " + testPath, originalInput, input );
+    }
+
     @Test
     public void testReuseChainr() {
         // Spec which moves "attributeMap"'s keys to a root "attributes" list.
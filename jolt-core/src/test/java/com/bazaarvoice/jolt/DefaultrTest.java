@@ -16,6 +16,7 @@
 package com.bazaarvoice.jolt;
 
 import com.bazaarvoice.jolt.exception.SpecException;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -92,4 +93,16 @@ public class DefaultrTest {
         Object spec = JsonUtils.jsonToMap( "{ \"tuna*\": \"marlin\" }" );
         new Defaultr( spec );
     }
+
+    @Test
+    public void literalDefaultsAreAppliedInSpecOrder() throws IOException {
+        Object spec = JsonUtils.javason( "{ 'z' : 1, 'a' : 2, 'm' : { 'y' : 3, 'b' : 4 }, 'list[]' : { '2' : 'c', '0' : 'a' } }" );
+        Defaultr defaultr = new Defaultr( spec );
+
+        for ( int run = 0; run < 2; run++ ) {
+            Object actual = defaultr.transform( JsonUtils.javason( "{ 'q' : 0 }" ) );
+            Assert.assertEquals( JsonUtils.toJsonString( actual ),
+                    "{\"q\":0,\"z\":1,\"a\":2,\"m\":{\"y\":3,\"b\":4},\"list\":[\"a\",null,\"c\"]}" );
+        }
+    }
 }
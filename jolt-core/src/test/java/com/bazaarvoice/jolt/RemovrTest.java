@@ -16,10 +16,16 @@
 package com.bazaarvoice.jolt;
 
 import com.bazaarvoice.jolt.exception.SpecException;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 public class RemovrTest {
@@ -74,4 +80,46 @@ public class RemovrTest {
         new Removr( spec );
     }
 
+    @DataProvider
+    public Object[][] largeListCases() {
+        return new Object[][] {
+                { new ArrayList<>() },
+                { new LinkedList<>() }
+        };
+    }
+
+    @Test(dataProvider = "largeListCases")
+    public void removesFromLargeLists( List<Object> list ) {
+
+        for ( int index = 0; index < 5000; index++ ) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put( "id", index );
+            item.put( "junk", "x" );
+            list.add( item );
+        }
+        Map<String, Object> input = new LinkedHashMap<>();
+        input.put( "items", list );
+        input.put( "all", new ArrayList<>( Arrays.asList( 1, 2, 3 ) ) );
+
+        // remove every other item by index, and everything in "all" with a "*"
+        Map<String, Object> itemsSpec = new LinkedHashMap<>();
+        for ( int index = 0; index < 5000; index += 2 ) {
+            itemsSpec.put( String.valueOf( index ), "" );
+        }
+        itemsSpec.put( "*", JsonUtils.javason( "{ 'junk' : '' }" ) );
+        Map<String, Object> spec = new LinkedHashMap<>();
+        spec.put( "items", itemsSpec );
+        spec.put( "all", JsonUtils.javason( "{ '*' : '', '1' : '' }" ) );
+
+        new Removr( spec ).transform( input );
+
+        Assert.assertSame( input.get( "items" ), list );
+        Assert.assertEquals( list.size(), 2500 );
+        for ( int index = 0; index < list.size(); index++ ) {
+            Map<String, Object> item = (Map<String, Object>) list.get( index );
+            Assert.assertEquals( item.get( "id" ), 2 * index + 1 );
+            Assert.assertFalse( item.containsKey( "junk" ) );
+        }
+        Assert.assertEquals( input.get( "all" ), new ArrayList<>() );
+    }
 }
@@ -15,11 +15,25 @@
  */
 package com.bazaarvoice.jolt;
 
+import com.bazaarvoice.jolt.shiftr.ShiftrInputReader;
+import com.bazaarvoice.jolt.shiftr.spec.ShiftrCompositeSpec;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 public class ShiftrTest {
 
@@ -65,6 +79,7 @@ public class ShiftrTest {
             {"simpleLHSEscape"},
             {"simpleRHSEscape"},
             {"singlePlacement"},
+            {"smallInputManyLiterals"},
             {"specialKeys"},
             {"transposeArrayContents1"},
             {"transposeArrayContents2"},
@@ -109,4 +124,99 @@ public class ShiftrTest {
 
         JoltTestUtil.runDiffy( "failed case " + testPath, expected, actual );
     }
+
+    @Test(dataProvider = "getTestCaseUnits")
+    public void runTestUnitsFromParser(String testCaseName) throws IOException {
+
+        String testPath = "/json/shiftr/" + testCaseName;
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( testPath + ".json" );
+
+        String input = JsonUtils.toJsonString( testUnit.get( "input" ) );
+        Object spec = testUnit.get( "spec" );
+        Object expected = testUnit.get( "expected" );
+
+        Shiftr shiftr = new Shiftr( spec );
+
+        // once with the reader building the input itself, and once with an ObjectMapper doing it
+        try ( JsonParser parser = new JsonFactory().createParser( input ) ) {
+            JoltTestUtil.runDiffy( "failed case " + testPath, expected, shiftr.transform( parser ) );
+        }
+        try ( JsonParser parser = new ObjectMapper().getFactory().createParser( input ) ) {
+            JoltTestUtil.runDiffy( "failed case " + testPath, expected, shiftr.transform( parser ) );
+        }
+    }
+
+    @Test
+    public void testInputReaderSkipsUnmatchedInput() throws IOException {
+
+        Object spec = JsonUtils.jsonToObject( "{ 'rating' : { 'primary' : { 'value' : 'Rating' }, '*' : { 'max' : 'Max.&1' } } }".replace( '\'', '"' ) );
+        String input = ( "{ 'rating' : { 'primary' : { 'value' : 3, 'max' : 5 }, 'quality' : { 'value' : 4, 'max' : 5, 'extra' : [ 1, 2 ] } }," +
+                         "  'photos' : [ { 'id' : 1 }, { 'id' : 2 } ] }" ).replace( '\'', '"' );
+
+        ShiftrInputReader reader = new ShiftrInputReader( new ShiftrCompositeSpec( "root", (Map<String, Object>) spec ), spec );
+
+        Object actual;
+        try ( JsonParser parser = new JsonFactory().createParser( input ) ) {
+            actual = reader.read( parser );
+        }
+
+        Object expected = JsonUtils.jsonToObject( "{ 'rating' : { 'primary' : { 'value' : 3 }, 'quality' : { 'max' : 5 } } }".replace( '\'', '"' ) );
+        Assert.assertEquals( actual, expected );
+    }
+
+    @Test
+    public void testDeserializedShiftrReadsFromParser() throws Exception {
+
+        Object spec = JsonUtils.jsonToObject( "{ 'rating' : { 'primary' : { 'value' : 'Rating' } } }".replace( '\'', '"' ) );
+        String input = "{ 'rating' : { 'primary' : { 'value' : 3, 'max' : 5 } }, 'photos' : [ 1, 2 ] }".replace( '\'', '"' );
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try ( ObjectOutputStream out = new ObjectOutputStream( bytes ) ) {
+            out.writeObject( new Shiftr( spec ) );
+        }
+        Shiftr shiftr = (Shiftr) new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ).readObject();
+
+        try ( JsonParser parser = new JsonFactory().createParser( input ) ) {
+            Assert.assertEquals( shiftr.transform( parser ), JsonUtils.jsonToObject( "{ 'Rating' : 3 }".replace( '\'', '"' ) ) );
+        }
+    }
+
+    @Test(dataProvider = "getTestCaseUnits")
+    public void runTestUnitsInParallel(String testCaseName) throws IOException {
+
+        String testPath = "/json/shiftr/" + testCaseName;
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( testPath + ".json" );
+
+        Object input = testUnit.get( "input" );
+        Object spec = testUnit.get( "spec" );
+        Object expected = testUnit.get( "expected" );
+
+        // the smallest partitions, so that every input with more than one top level key is split up
+        Shiftr shiftr = new Shiftr( spec, ForkJoinPool.commonPool(), 1 );
+        Object actual = shiftr.transform( input );
+
+        JoltTestUtil.runDiffy( "failed case " + testPath, expected, actual );
+    }
+
+    @Test
+    public void testParallelMatchesSerialForLargeList() throws IOException {
+
+        Object spec = JsonUtils.jsonToObject( ( "{ '*' : { 'id' : [ 'ids[]', 'byCategory.&(1,0)' ], 'category' : 'categories', 'tags' : { '*' : 'tags.&' } } }" ).replace( '\'', '"' ) );
+
+        List<Object> input = new ArrayList<>();
+        for ( int index = 0; index < 10000; index++ ) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put( "id", index );
+            item.put( "category", "category" + ( index % 7 ) );
+            Map<String, Object> tags = new LinkedHashMap<>();
+            tags.put( "tag" + ( index % 13 ), index );
+            item.put( "tags", tags );
+            input.add( item );
+        }
+
+        Object expected = new Shiftr( spec ).transform( input );
+        Object actual = new Shiftr( spec, ForkJoinPool.commonPool(), 128 ).transform( input );
+
+        JoltTestUtil.runDiffy( "parallel Shiftr differs from serial", expected, actual );
+    }
 }
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
+import com.bazaarvoice.jolt.chainr.spec.ChainrSpec;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class ChainrOptimizerTest {
+
+    private static Object json( String javason ) {
+        return JsonUtils.jsonToObject( javason.replace( '\'', '"' ) );
+    }
+
+    @DataProvider
+    public Object[][] fusionCases() {
+        return new Object[][] {
+            {
+                "two removes fuse",
+                "[ { 'operation' : 'remove', 'spec' : { 'a' : '', 'b' : { 'c' : '' } } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : { 'x' : '' }, 'b' : '' } } ]",
+                "{ 'a' : 1, 'b' : { 'c' : 2, 'd' : 3 }, 'e' : 4 }",
+                1
+            },
+            {
+                "removes with array indices do not fuse",
+                "[ { 'operation' : 'remove', 'spec' : { 'list' : { '0' : '' } } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'list' : { '0' : '' } } } ]",
+                "{ 'list' : [ 'a', 'b', 'c' ] }",
+                2
+            },
+            {
+                "two defaults fuse",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : 1, 'b' : { 'c' : 2 } } }," +
+                "  { 'operation' : 'default', 'spec' : { 'a' : 5, 'b' : { 'd' : 3 }, 'e' : [ 4 ] } } ]",
+                "{ 'b' : { 'c' : 0 } }",
+                1
+            },
+            {
+                "defaults with a star do not fuse",
+                "[ { 'operation' : 'default', 'spec' : { '*' : { 'c' : 2 } } }," +
+                "  { 'operation' : 'default', 'spec' : { 'a' : { 'd' : 3 } } } ]",
+                "{ 'a' : { }, 'b' : { } }",
+                2
+            },
+            {
+                "defaults that disagree about a leaf do not fuse",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : 1 } }," +
+                "  { 'operation' : 'default', 'spec' : { 'a' : { 'd' : 3 } } } ]",
+                "{ 'a' : { } }",
+                2
+            },
+            {
+                "a default fuses with the remove after it, but not with the default after that",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : 1 } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : '' } }," +
+                "  { 'operation' : 'default', 'spec' : { 'b' : 1 } } ]",
+                "{ }",
+                2
+            },
+            {
+                "remove then default do not fuse",
+                "[ { 'operation' : 'remove', 'spec' : { 'a' : '' } }," +
+                "  { 'operation' : 'default', 'spec' : { 'a' : 1 } } ]",
+                "{ 'a' : 2 }",
+                2
+            },
+            {
+                "default then remove fuse, walking shared sub-specs once",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : { 'b' : 1, 'c' : { 'd' : 2 } }, 'e' : { 'f' : 3 }, 'g' : { 'h' : 4 }, 'i' : 5 } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : { 'b' : '', 'c' : { 'x' : '' } }, 'e' : '', 'g' : { 'h' : '' }, 'z' : '' } } ]",
+                "{ 'a' : { 'x' : 0, 'c' : { 'x' : 1 } }, 'g' : 'not a map', 'z' : 6 }",
+                1
+            },
+            {
+                "default then remove fuse, removing from a default value",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : { 'b' : { 'c' : 1 } }, 'd' : [ 1, 2 ] } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : { 'b' : { 'c' : '' } }, 'd' : { '0' : '' } } } ]",
+                "{ }",
+                1
+            },
+            {
+                "default then remove with wildcards fuse",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : { 'x' : 1, 'y' : 2 }, 'b|c' : { 'x' : 3 } } }," +
+                "  { 'operation' : 'remove', 'spec' : { '*' : { 'x' : '' }, 'a' : { 'y' : '' } } } ]",
+                "{ 'a' : { }, 'b' : { 'x' : 4 }, 'd' : { 'x' : 5 } }",
+                1
+            },
+            {
+                "default then remove fuse over lists",
+                "[ { 'operation' : 'default', 'spec' : { 'list' : { 'k' : 1 }, 'm' : { 'k' : 2 } } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'list' : { '0' : '', '*' : { 'x' : '' } }, 'm' : { '1' : '' } } } ]",
+                "{ 'list' : [ { 'x' : 1, 'y' : 2 }, { 'x' : 3 } ], 'm' : { '1' : 'one' } }",
+                1
+            },
+            {
+                "default then remove fuse on null input",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : { 'b' : 1, 'c' : 2 } } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : { 'c' : '' } } } ]",
+                "null",
+                1
+            },
+            {
+                "default then remove fuse on a top level array",
+                "[ { 'operation' : 'default', 'spec' : { '1' : 'one', '2' : 'two' } }," +
+                "  { 'operation' : 'remove', 'spec' : { '0' : '' } } ]",
+                "[ 'zero' ]",
+                1
+            },
+            {
+                "default then remove with a malformed remove do not fuse",
+                "[ { 'operation' : 'default', 'spec' : { 'a' : 1 } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : 'not empty' } } ]",
+                null,
+                2
+            }
+        };
+    }
+
+    @Test( dataProvider = "fusionCases" )
+    public void testFusedChainMatchesUnfused( String name, String chainrSpecJson, String inputJson, int expectedStages ) {
+
+        List<ChainrEntry> entries = new ChainrSpec( json( chainrSpecJson ) ).getChainrEntries();
+        List<ChainrEntry> optimized = new ChainrOptimizer( getClass().getClassLoader() ).optimize( entries );
+        Assert.assertEquals( optimized.size(), expectedStages, name );
+
+        if ( inputJson == null ) {
+            return; // the spec is not meant to build
+        }
+
+        Object unfusedOutput = new ChainrBuilder( json( chainrSpecJson ) ).build()
+                .transform( json( inputJson ) );
+        Object fusedOutput = new ChainrBuilder( json( chainrSpecJson ) ).optimize( true ).build()
+                .transform( json( inputJson ) );
+
+        Assert.assertEquals( fusedOutput, unfusedOutput, name );
+        if ( fusedOutput instanceof Map ) {
+            // Defaultr appends the keys it adds, so their order is part of the output
+            Assert.assertEquals( fusedOutput.toString(), unfusedOutput.toString(), name );
+        }
+    }
+
+    @Test
+    public void testDefaultThenRemoveFusesIntoOneStage() {
+
+        Object chainrSpec = json(
+                "[ { 'operation' : 'default', 'spec' : { 'a' : { 'b' : 1, 'c' : 2 } } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : { 'b' : '' } } } ]" );
+
+        ChainrOptimizer optimizer = new ChainrOptimizer( getClass().getClassLoader() );
+        List<ChainrEntry> optimized = optimizer.optimize( new ChainrSpec( chainrSpec ).getChainrEntries() );
+
+        Assert.assertEquals( optimized.size(), 1 );
+        Assert.assertEquals( optimized.get( 0 ).getJoltTransformClass(), DefaultrRemovr.class );
+        Assert.assertEquals( optimizer.getFusions(), Arrays.asList( "DefaultrRemovr at index:0 absorbed index:1" ) );
+
+        Chainr unit = new ChainrBuilder( chainrSpec ).optimize( true ).build();
+        Assert.assertEquals( unit.transform( JsonUtils.javason( "{ 'a' : { 'd' : 3 } }" ) ),
+                JsonUtils.javason( "{ 'a' : { 'd' : 3, 'c' : 2 } }" ) );
+    }
+
+    @Test
+    public void testFusionsAreReported() {
+
+        Object chainrSpec = json(
+                "[ { 'operation' : 'remove', 'spec' : { 'a' : '' } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'b' : '' } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'c' : '' } } ]" );
+
+        ChainrOptimizer optimizer = new ChainrOptimizer( getClass().getClassLoader() );
+        List<ChainrEntry> optimized = optimizer.optimize( new ChainrSpec( chainrSpec ).getChainrEntries() );
+
+        Assert.assertEquals( optimized.size(), 1 );
+        Assert.assertEquals( ( (Map) optimized.get( 0 ).getSpec() ).keySet().size(), 3 );
+        Assert.assertEquals( optimizer.getFusions().size(), 2 );
+
+        Chainr unit = new ChainrBuilder( chainrSpec ).optimize( true ).build();
+        Assert.assertEquals( unit.transform( JsonUtils.javason( "{ 'a' : 1, 'b' : 2, 'c' : 3, 'd' : 4 }" ) ),
+                JsonUtils.javason( "{ 'd' : 4 }" ) );
+    }
+
+    @DataProvider
+    public Object[][] eliminationCases() {
+        return new Object[][] {
+            {
+                "empty remove is dropped",
+                "[ { 'operation' : 'shift', 'spec' : { 'a' : 'b' } }," +
+                "  { 'operation' : 'remove', 'spec' : { } } ]",
+                "{ 'a' : 1 }",
+                1
+            },
+            {
+                "remove of keys the shift can not write is dropped",
+                "[ { 'operation' : 'shift', 'spec' : { 'a' : 'out.a', '*' : [ 'out.&', 'other[]' ] } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : '', 'b|c' : { 'd' : '' } } } ]",
+                "{ 'a' : 1, 'b' : 2 }",
+                1
+            },
+            {
+                "remove of a key the shift writes is kept",
+                "[ { 'operation' : 'shift', 'spec' : { 'a' : 'out.a', 'b' : 'b' } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a|b' : '' } } ]",
+                "{ 'a' : 1, 'b' : 2 }",
+                2
+            },
+            {
+                "remove after a shift with computed output keys is kept",
+                "[ { 'operation' : 'shift', 'spec' : { '*' : '&' } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : '' } } ]",
+                "{ 'a' : 1, 'b' : 2 }",
+                2
+            },
+            {
+                "remove with a star after a shift is kept",
+                "[ { 'operation' : 'shift', 'spec' : { 'a' : 'out' } }," +
+                "  { 'operation' : 'remove', 'spec' : { '*' : '' } } ]",
+                "{ 'a' : 1 }",
+                2
+            },
+            {
+                "empty default next to a default is dropped",
+                "[ { 'operation' : 'default', 'spec' : { } }," +
+                "  { 'operation' : 'default', 'spec' : { '*' : { 'b' : 1 } } } ]",
+                "null",
+                1
+            },
+            {
+                "empty default on its own is kept, as it turns null into a map",
+                "[ { 'operation' : 'shift', 'spec' : { 'x' : 'y' } }," +
+                "  { 'operation' : 'default', 'spec' : { } } ]",
+                "{ 'a' : 1 }",
+                2
+            },
+            {
+                "repeated sorts are dropped",
+                "[ { 'operation' : 'sort' }," +
+                "  { 'operation' : 'sort' }," +
+                "  { 'operation' : 'sort' } ]",
+                "{ 'b' : 1, 'a' : { 'd' : 2, 'c' : 3 } }",
+                1
+            },
+            {
+                "sort before a shift is kept",
+                "[ { 'operation' : 'sort' }," +
+                "  { 'operation' : 'shift', 'spec' : { '*' : 'values[]' } } ]",
+                "{ 'b' : 1, 'a' : 2 }",
+                2
+            }
+        };
+    }
+
+    @Test( dataProvider = "eliminationCases" )
+    public void testEliminatedChainMatchesUnoptimized( String name, String chainrSpecJson, String inputJson, int expectedStages ) {
+
+        List<ChainrEntry> entries = new ChainrSpec( json( chainrSpecJson ) ).getChainrEntries();
+        List<ChainrEntry> optimized = new ChainrOptimizer( getClass().getClassLoader() ).optimize( entries );
+        Assert.assertEquals( optimized.size(), expectedStages, name );
+
+        Object unoptimizedOutput = new ChainrBuilder( json( chainrSpecJson ) ).build().transform( json( inputJson ) );
+        Object optimizedOutput = new ChainrBuilder( json( chainrSpecJson ) ).optimize( true ).build().transform( json( inputJson ) );
+
+        Assert.assertEquals( optimizedOutput, unoptimizedOutput, name );
+        if ( optimizedOutput instanceof Map ) {
+            // sort order is part of the output
+            Assert.assertEquals( ( (Map) optimizedOutput ).keySet().toString(), ( (Map) unoptimizedOutput ).keySet().toString(), name );
+        }
+    }
+
+    @Test
+    public void testEliminationsAreReported() {
+
+        Object chainrSpec = json(
+                "[ { 'operation' : 'sort' }," +
+                "  { 'operation' : 'sort' }," +
+                "  { 'operation' : 'remove', 'spec' : { } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'a' : '' } }," +
+                "  { 'operation' : 'remove', 'spec' : { 'b' : '' } } ]" );
+
+        ChainrBuilder builder = new ChainrBuilder( chainrSpec ).optimize( true );
+        Chainr unit = builder.build();
+
+        Assert.assertEquals( builder.getOptimizations(), Arrays.asList(
+                "Sortr at index:1 dropped, the document is already sorted",
+                "Removr at index:2 dropped, its spec is empty",
+                "Removr at index:3 absorbed index:4" ) );
+        Assert.assertEquals( unit.transform( JsonUtils.javason( "{ 'c' : 3, 'a' : 1, 'b' : 2 }" ) ), JsonUtils.javason( "{ 'c' : 3 }" ) );
+
+        Assert.assertTrue( new ChainrBuilder( chainrSpec ).getOptimizations().isEmpty() );
+    }
+}
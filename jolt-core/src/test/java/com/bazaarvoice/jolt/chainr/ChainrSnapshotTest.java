@@ -0,0 +1,191 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.CardinalityTransform;
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.Defaultr;
+import com.bazaarvoice.jolt.JoltTransform;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.Modifier;
+import com.bazaarvoice.jolt.Removr;
+import com.bazaarvoice.jolt.Shiftr;
+import com.bazaarvoice.jolt.chainr.transforms.GoodTestTransform;
+import com.bazaarvoice.jolt.exception.JoltException;
+import com.bazaarvoice.jolt.exception.SpecException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+public class ChainrSnapshotTest {
+
+    private static final String[] FIXTURE_DIRS = { "shiftr", "removr", "defaultr", "cardinality", "modifier", "modifier/functions" };
+
+    @DataProvider
+    public Object[][] getFixtures() {
+
+        List<Object[]> fixtures = new ArrayList<>();
+        for ( String dir : FIXTURE_DIRS ) {
+            File[] files = new File( ChainrSnapshotTest.class.getResource( "/json/" + dir ).getFile() ).listFiles();
+            Arrays.sort( files );
+            for ( File file : files ) {
+                if ( file.getName().endsWith( ".json" ) ) {
+                    fixtures.add( new Object[] { dir, "/json/" + dir + "/" + file.getName() } );
+                }
+            }
+        }
+        return fixtures.toArray( new Object[ fixtures.size() ][] );
+    }
+
+    private static JoltTransform newTransform( String dir, Object spec ) {
+        switch ( dir ) {
+            case "shiftr":      return new Shiftr( spec );
+            case "removr":      return new Removr( spec );
+            case "defaultr":    return new Defaultr( spec );
+            case "cardinality": return new CardinalityTransform( spec );
+            default:            return new Modifier.Overwritr( spec );
+        }
+    }
+
+    @Test( dataProvider = "getFixtures" )
+    @SuppressWarnings( "unchecked" )
+    public void testSnapshotRunsLikeTheOriginal( String dir, String fixture ) throws IOException {
+
+        Object testUnit = JsonUtils.classpathToObject( fixture );
+        if ( ! ( testUnit instanceof Map ) || ! ( (Map) testUnit ).containsKey( "spec" ) ) {
+            return; // not a transform fixture
+        }
+        Object spec = ( (Map) testUnit ).get( "spec" );
+        Object input = ( (Map) testUnit ).get( "input" );
+        Map<String, Object> context = (Map<String, Object>) ( (Map) testUnit ).get( "context" );
+
+        JoltTransform transform;
+        try {
+            transform = newTransform( dir, spec );
+        }
+        catch ( JoltException | IllegalArgumentException e ) {
+            return; // a negative test case
+        }
+
+        Chainr original = new Chainr( Collections.singletonList( transform ) );
+        Chainr loaded = roundTrip( original );
+
+        Object expected;
+        try {
+            expected = original.transform( JsonUtils.cloneJson( input ), context );
+        }
+        catch ( JoltException e ) {
+            return; // a negative test case
+        }
+        Assert.assertEquals( loaded.transform( JsonUtils.cloneJson( input ), context ), expected, fixture );
+    }
+
+    @Test
+    public void testChainrSnapshot() throws IOException {
+
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( "/json/chainr/integration/andrewkcarter2.json" );
+        Object spec = testUnit.get( "spec" );
+
+        Chainr original = new ChainrBuilder( spec ).lazy( true ).immutableInput( true ).build();
+        Chainr loaded = roundTrip( original );
+
+        Assert.assertTrue( loaded.isImmutableInput() );
+        Assert.assertEquals( loaded.transform( testUnit.get( "input" ) ), testUnit.get( "expected" ) );
+    }
+
+    @Test
+    public void testNonSerializableTransformIsReported() throws IOException {
+
+        Chainr chainr = new Chainr( Collections.<JoltTransform>singletonList( new GoodTestTransform( null ) ) );
+        try {
+            ChainrSnapshot.write( chainr, new ByteArrayOutputStream() );
+            Assert.fail( "Should not have been able to snapshot GoodTestTransform" );
+        }
+        catch ( SpecException expected ) {
+            Assert.assertTrue( expected.getMessage().contains( GoodTestTransform.class.getName() ), expected.getMessage() );
+        }
+    }
+
+    @Test( expectedExceptions = IOException.class )
+    public void testRejectsNonSnapshot() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream( out );
+        gzip.write( "not a snapshot".getBytes( "UTF-8" ) );
+        gzip.close();
+        ChainrSnapshot.read( new ByteArrayInputStream( out.toByteArray() ) );
+    }
+
+    @Test( expectedExceptions = InvalidClassException.class )
+    public void testRejectsForeignClasses() throws IOException {
+        ChainrSnapshot.read( new ByteArrayInputStream( snapshotOf( ChainrSnapshot.JOLT_VERSION, new File( "/tmp" ) ) ) );
+    }
+
+    @Test( expectedExceptions = InvalidClassException.class )
+    public void testRejectsJdkClassesThatAreNotJson() throws IOException {
+        ChainrSnapshot.read( new ByteArrayInputStream( snapshotOf( ChainrSnapshot.JOLT_VERSION, new Date() ) ) );
+    }
+
+    @Test
+    public void testRejectsOtherJoltVersions() throws IOException {
+        try {
+            ChainrSnapshot.read( new ByteArrayInputStream( snapshotOf( "0.0.1", new Chainr( Collections.<JoltTransform>emptyList() ) ) ) );
+            Assert.fail( "Should not have read a snapshot from another version of Jolt" );
+        }
+        catch ( IOException expected ) {
+            Assert.assertTrue( expected.getMessage().contains( "0.0.1" ), expected.getMessage() );
+        }
+    }
+
+    @Test
+    public void testJoltVersionIsKnown() {
+        Assert.assertNotEquals( ChainrSnapshot.JOLT_VERSION, "unknown" );
+        Assert.assertFalse( ChainrSnapshot.JOLT_VERSION.contains( "${" ), ChainrSnapshot.JOLT_VERSION );
+    }
+
+    private static byte[] snapshotOf( String joltVersion, Object contents ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream( out );
+        DataOutputStream header = new DataOutputStream( gzip );
+        header.writeInt( 0x4A4F4C54 );
+        header.writeInt( 2 );
+        header.writeUTF( joltVersion );
+        ObjectOutputStream objects = new ObjectOutputStream( gzip );
+        objects.writeObject( contents );
+        objects.close();
+        return out.toByteArray();
+    }
+
+    private static Chainr roundTrip( Chainr chainr ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChainrSnapshot.write( chainr, out );
+        return ChainrSnapshot.read( new ByteArrayInputStream( out.toByteArray() ) );
+    }
+}
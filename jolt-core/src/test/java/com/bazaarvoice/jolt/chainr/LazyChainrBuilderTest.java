@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JoltTransform;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.chainr.instantiator.DefaultChainrInstantiator;
+import com.bazaarvoice.jolt.chainr.spec.ChainrEntry;
+import com.bazaarvoice.jolt.chainr.transforms.BadSpecTransform;
+import com.bazaarvoice.jolt.chainr.transforms.GoodContextDrivenTransform;
+import com.bazaarvoice.jolt.exception.SpecException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LazyChainrBuilderTest {
+
+    /**
+     * Counts how many times each stage is hydrated.
+     */
+    private static class CountingInstantiator extends DefaultChainrInstantiator {
+
+        private final AtomicInteger hydrations = new AtomicInteger();
+
+        @Override
+        public JoltTransform hydrateTransform( ChainrEntry entry ) {
+            hydrations.incrementAndGet();
+            return super.hydrateTransform( entry );
+        }
+    }
+
+    private static Object spec() {
+        return JsonUtils.jsonToObject( ( "[" +
+                "  { 'operation' : 'shift',   'spec' : { 'a' : 'b', 'c' : 'c' } }," +
+                "  { 'operation' : 'default', 'spec' : { 'd' : 'dValue' } }," +
+                "  { 'operation' : 'remove',  'spec' : { 'c' : '' } }" +
+                "]" ).replace( '\'', '"' ) );
+    }
+
+    private static Map<String, Object> input() {
+        return JsonUtils.javason( "{ 'a' : 'aValue', 'c' : 'cValue' }" );
+    }
+
+    @Test
+    public void testStagesAreHydratedOnFirstUse() {
+
+        CountingInstantiator instantiator = new CountingInstantiator();
+        Chainr unit = new ChainrBuilder( spec() ).loader( instantiator ).lazy( true ).build();
+
+        Assert.assertEquals( instantiator.hydrations.get(), 0 );
+
+        Assert.assertEquals( unit.transform( 0, 1, input() ), JsonUtils.javason( "{ 'b' : 'aValue', 'c' : 'cValue' }" ) );
+        Assert.assertEquals( instantiator.hydrations.get(), 1 );
+
+        Object expected = Chainr.fromSpec( spec() ).transform( input() );
+        Assert.assertEquals( unit.transform( input() ), expected );
+        Assert.assertEquals( unit.transform( input() ), expected );
+        Assert.assertEquals( instantiator.hydrations.get(), 3 );
+    }
+
+    @Test
+    public void testLazyContextualTransformIsStillContextual() {
+
+        Map<String, Object> entry = new HashMap<>();
+        entry.put( ChainrEntry.OPERATION_KEY, GoodContextDrivenTransform.class.getName() );
+        List<Object> spec = new ArrayList<>();
+        spec.add( entry );
+
+        Chainr unit = new ChainrBuilder( spec ).lazy( true ).build();
+        Assert.assertTrue( unit.hasContextualTransforms() );
+
+        Map<String, Object> context = new HashMap<>();
+        context.put( GoodContextDrivenTransform.CONTEXT_KEY, "contextValue" );
+        Assert.assertEquals( unit.transform( new HashMap<String, Object>(), context ), JsonUtils.javason( "{ 'c' : 'contextValue' }" ) );
+    }
+
+    @Test
+    public void testBadSpecFailsOnFirstUse() {
+
+        Map<String, Object> entry = new HashMap<>();
+        entry.put( ChainrEntry.OPERATION_KEY, BadSpecTransform.class.getName() );
+        entry.put( ChainrEntry.SPEC_KEY, new HashMap<>() );
+        List<Object> spec = new ArrayList<>();
+        spec.add( entry );
+
+        Chainr unit = new ChainrBuilder( spec ).lazy( true ).build();
+        try {
+            unit.transform( new HashMap<String, Object>() );
+            Assert.fail( "Should have failed to hydrate BadSpecTransform" );
+        }
+        catch ( SpecException expected ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testConcurrentFirstUseHydratesOnce() throws Exception {
+
+        CountingInstantiator instantiator = new CountingInstantiator();
+        final Chainr unit = new ChainrBuilder( spec() ).loader( instantiator ).lazy( true ).build();
+
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch( 1 );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for ( int index = 0; index < threads; index++ ) {
+                futures.add( executor.submit( new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        start.await();
+                        return unit.transform( input() );
+                    }
+                } ) );
+            }
+            start.countDown();
+
+            Object expected = Chainr.fromSpec( spec() ).transform( input() );
+            for ( Future<Object> future : futures ) {
+                Assert.assertEquals( future.get(), expected );
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals( instantiator.hydrations.get(), 3 );
+    }
+
+    @Test
+    public void testParallelHydration() {
+
+        ExecutorService executor = Executors.newFixedThreadPool( 3 );
+        try {
+            CountingInstantiator instantiator = new CountingInstantiator();
+            Chainr unit = new ChainrBuilder( spec() ).loader( instantiator ).hydrationExecutor( executor ).build();
+
+            Assert.assertEquals( instantiator.hydrations.get(), 3 );
+            Assert.assertEquals( unit.transform( input() ), Chainr.fromSpec( spec() ).transform( input() ) );
+
+            Map<String, Object> badEntry = new HashMap<>();
+            badEntry.put( ChainrEntry.OPERATION_KEY, BadSpecTransform.class.getName() );
+            badEntry.put( ChainrEntry.SPEC_KEY, new HashMap<>() );
+            @SuppressWarnings( "unchecked" )
+            List<Object> badSpec = (List<Object>) spec();
+            badSpec.add( badEntry );
+
+            try {
+                new ChainrBuilder( badSpec ).hydrationExecutor( executor ).build();
+                Assert.fail( "Should have failed to hydrate BadSpecTransform" );
+            }
+            catch ( SpecException expected ) {
+                // expected
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.chainr.metrics;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.chainr.ChainrBuilder;
+import com.bazaarvoice.jolt.exception.TransformException;
+import com.bazaarvoice.jolt.jfr.JoltFlightRecorder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+public class InMemoryChainrMetricsTest {
+
+    private static final String TEST_PATH = "/json/chainr/integration/firstSample.json";
+
+    @Test
+    public void testStagesAreRecorded() {
+
+        InMemoryChainrMetrics metrics = new InMemoryChainrMetrics( true, true );
+        Object spec = JsonUtils.classpathToMap( TEST_PATH ).get( "spec" );
+        String specId = JoltFlightRecorder.specId( spec );
+        Chainr unit = new ChainrBuilder( spec ).listener( metrics ).build();
+
+        for ( int i = 0; i < 3; i++ ) {
+            unit.transform( JsonUtils.classpathToMap( TEST_PATH ).get( "input" ) );
+        }
+
+        Map<ChainrStage, InMemoryChainrMetrics.StageStats> stats = metrics.getStats();
+        Assert.assertEquals( stats.size(), 4 );
+
+        String[] operations = { "shift", "default", "remove", "sort" };
+        for ( int index = 0; index < operations.length; index++ ) {
+
+            InMemoryChainrMetrics.StageStats stageStats = metrics.getStats( new ChainrStage( specId, index, operations[index] ) );
+            Assert.assertNotNull( stageStats, "missing stats for " + operations[index] );
+
+            Assert.assertEquals( stageStats.getInvocationCount(), 3 );
+            Assert.assertEquals( stageStats.getFailureCount(), 0 );
+            Assert.assertTrue( stageStats.getTotalInputNodes() > 0 );
+            Assert.assertTrue( stageStats.getTotalOutputNodes() > 0 );
+            Assert.assertTrue( stageStats.getMaxNanos() >= stageStats.getMeanNanos() );
+            Assert.assertTrue( stageStats.getLatencyPercentileNanos( 50 ) > 0 );
+
+            long histogramTotal = 0;
+            for ( long count : stageStats.getLatencyHistogram() ) {
+                histogramTotal += count;
+            }
+            Assert.assertEquals( histogramTotal, 3 );
+
+            if ( StageMeters.isAllocationSupported() ) {
+                Assert.assertTrue( stageStats.getTotalAllocatedBytes() >= 0 );
+            }
+        }
+
+        // the first stage sees the untouched input document
+        InMemoryChainrMetrics.StageStats shift = metrics.getStats( new ChainrStage( specId, 0, "shift" ) );
+        Assert.assertEquals( shift.getTotalInputNodes(), 3 * StageMeters.countNodes( JsonUtils.classpathToMap( TEST_PATH ).get( "input" ) ) );
+    }
+
+    @Test
+    public void testFailedStageIsRecorded() {
+
+        InMemoryChainrMetrics metrics = new InMemoryChainrMetrics();
+        Object spec = JsonUtils.jsonToObject(
+                "[ { \"operation\" : \"default\", \"spec\" : { \"a\" : 1 } }," +
+                "  { \"operation\" : \"com.bazaarvoice.jolt.chainr.transforms.ExplodingTestTransform\" } ]" );
+        String specId = JoltFlightRecorder.specId( spec );
+        Chainr unit = new ChainrBuilder( spec ).listener( metrics ).build();
+
+        try {
+            unit.transform( JsonUtils.javason( "{}" ) );
+            Assert.fail( "Expected the second stage to fail" );
+        }
+        catch ( TransformException te ) {
+            // expected
+        }
+
+        Assert.assertEquals( metrics.getStats( new ChainrStage( specId, 0, "default" ) ).getInvocationCount(), 1 );
+
+        InMemoryChainrMetrics.StageStats failed = metrics.getStats(
+                new ChainrStage( specId, 1, "com.bazaarvoice.jolt.chainr.transforms.ExplodingTestTransform" ) );
+        Assert.assertEquals( failed.getInvocationCount(), 1 );
+        Assert.assertEquals( failed.getFailureCount(), 1 );
+        Assert.assertEquals( failed.getTotalInputNodes(), 0 );
+    }
+
+    @Test
+    public void testCountNodes() {
+        Assert.assertEquals( StageMeters.countNodes( null ), 1 );
+        Assert.assertEquals( StageMeters.countNodes( "a" ), 1 );
+        Assert.assertEquals( StageMeters.countNodes( JsonUtils.javason( "{ 'a' : 1, 'b' : { 'c' : [ 1, 2, null ] } }" ) ), 7 );
+        Assert.assertEquals( StageMeters.countNodes( Arrays.asList( 1, null ) ), 3 );
+    }
+
+    @Test
+    public void testLatencyBuckets() {
+        Assert.assertEquals( InMemoryChainrMetrics.bucketFor( 500 ), 0 );
+        Assert.assertEquals( InMemoryChainrMetrics.bucketFor( 1000 ), 1 );
+        Assert.assertEquals( InMemoryChainrMetrics.bucketFor( 3999 ), 2 );
+        Assert.assertEquals( InMemoryChainrMetrics.bucketFor( Long.MAX_VALUE ), InMemoryChainrMetrics.LATENCY_BUCKETS - 1 );
+        Assert.assertEquals( InMemoryChainrMetrics.getBucketUpperBoundNanos( 2 ), 4000 );
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ArrayIndexKeysTest {
+
+    @Test
+    public void testKeysMatchIntegerToString() {
+
+        // walk past the initial cache size and the growth steps
+        for ( int index = 0; index < 5000; index++ ) {
+            Assert.assertEquals( ArrayIndexKeys.toKey( index ), Integer.toString( index ) );
+        }
+
+        // outside of the cached range
+        Assert.assertEquals( ArrayIndexKeys.toKey( -1 ), "-1" );
+        Assert.assertEquals( ArrayIndexKeys.toKey( 100000 ), "100000" );
+    }
+
+    @Test
+    public void testKeysAreShared() {
+        Assert.assertSame( ArrayIndexKeys.toKey( 7 ), ArrayIndexKeys.toKey( 7 ) );
+        Assert.assertSame( ArrayIndexKeys.toKey( 1234 ), ArrayIndexKeys.toKey( 1234 ) );
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common;
+
+import com.bazaarvoice.jolt.Defaultr;
+import com.bazaarvoice.jolt.JoltTestUtil;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.Removr;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CopyOnWriteJsonTest {
+
+    /**
+     * Recursively wrap a JSON tree in unmodifiable views, so that any attempt to write to it throws.
+     */
+    @SuppressWarnings( "unchecked" )
+    public static Object unmodifiable( Object json ) {
+        if ( json instanceof Map ) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            for ( Map.Entry<String, Object> entry : ( (Map<String, Object>) json ).entrySet() ) {
+                copy.put( entry.getKey(), unmodifiable( entry.getValue() ) );
+            }
+            return Collections.unmodifiableMap( copy );
+        }
+        if ( json instanceof List ) {
+            List<Object> copy = new ArrayList<>();
+            for ( Object value : (List<Object>) json ) {
+                copy.add( unmodifiable( value ) );
+            }
+            return Collections.unmodifiableList( copy );
+        }
+        return json;
+    }
+
+    @Test
+    public void testUntouchedTreeIsReturnedAsIs() {
+
+        Object input = unmodifiable( JsonUtils.javason( "{ 'a' : { 'b' : [ 1, { 'c' : 2 } ] }, 'd' : 'e' }" ) );
+
+        Map<?, ?> view = (Map<?, ?>) CopyOnWriteJson.wrap( input );
+        Assert.assertEquals( view, input );
+        // reads hand back the same view for the same container
+        Assert.assertSame( view.get( "a" ), view.get( "a" ) );
+
+        Assert.assertSame( CopyOnWriteJson.unwrap( view ), input );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testWriteCopiesOnlyTouchedContainers() {
+
+        Map<String, Object> input = (Map<String, Object>) unmodifiable( JsonUtils.javason(
+                "{ 'a' : { 'b' : [ 1, { 'c' : 2 } ] }, 'untouched' : { 'x' : 'y' } }" ) );
+
+        Map<String, Object> view = (Map<String, Object>) CopyOnWriteJson.wrap( input );
+        Map<String, Object> a = (Map<String, Object>) view.get( "a" );
+        List<Object> b = (List<Object>) a.get( "b" );
+        Map<String, Object> c = (Map<String, Object>) b.get( 1 );
+        c.put( "c", 3 );
+        c.put( "new", "value" );
+
+        Map<String, Object> output = (Map<String, Object>) CopyOnWriteJson.unwrap( view );
+
+        Assert.assertEquals( output, JsonUtils.javason( "{ 'a' : { 'b' : [ 1, { 'c' : 3, 'new' : 'value' } ] }, 'untouched' : { 'x' : 'y' } }" ) );
+        Assert.assertEquals( input, JsonUtils.javason( "{ 'a' : { 'b' : [ 1, { 'c' : 2 } ] }, 'untouched' : { 'x' : 'y' } }" ) );
+
+        // the untouched sibling is shared with the input, the written path is not
+        Assert.assertSame( output.get( "untouched" ), input.get( "untouched" ) );
+        Assert.assertNotSame( output.get( "a" ), input.get( "a" ) );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testRemoveWhileIterating() {
+
+        Map<String, Object> input = (Map<String, Object>) unmodifiable( JsonUtils.javason( "{ 'a' : 1, 'b' : { 'c' : 2 }, 'd' : 3 }" ) );
+        Map<String, Object> view = (Map<String, Object>) CopyOnWriteJson.wrap( input );
+
+        Object viewOfB = null;
+        Iterator<Map.Entry<String, Object>> iterator = view.entrySet().iterator();
+        while ( iterator.hasNext() ) {
+            Map.Entry<String, Object> entry = iterator.next();
+            if ( entry.getKey().equals( "a" ) ) {
+                iterator.remove();
+            }
+            if ( entry.getKey().equals( "b" ) ) {
+                viewOfB = entry.getValue();
+            }
+        }
+
+        Assert.assertEquals( view.keySet(), JsonUtils.javason( "{ 'b' : 0, 'd' : 0 }" ).keySet() );
+        Assert.assertSame( view.get( "b" ), viewOfB );
+
+        view.keySet().removeAll( Collections.singleton( "d" ) );
+        Assert.assertEquals( CopyOnWriteJson.unwrap( view ), JsonUtils.javason( "{ 'b' : { 'c' : 2 } }" ) );
+        Assert.assertEquals( input.size(), 3 );
+    }
+
+    @Test
+    @SuppressWarnings( "unchecked" )
+    public void testListWrites() {
+
+        List<Object> input = (List<Object>) unmodifiable( JsonUtils.jsonToObject( "[ 'a', [ 'b', 'c' ], 'd' ]".replace( '\'', '"' ) ) );
+        List<Object> view = (List<Object>) CopyOnWriteJson.wrap( input );
+
+        ( (List<Object>) view.get( 1 ) ).remove( 0 );
+        view.add( "e" );
+        view.remove( 0 );
+
+        Assert.assertEquals( CopyOnWriteJson.unwrap( view ), JsonUtils.jsonToObject( "[ [ 'c' ], 'd', 'e' ]".replace( '\'', '"' ) ) );
+        Assert.assertEquals( input, JsonUtils.jsonToObject( "[ 'a', [ 'b', 'c' ], 'd' ]".replace( '\'', '"' ) ) );
+    }
+
+    @DataProvider
+    public Object[][] getTestCaseNames() {
+        return new Object[][] {
+            {"removr", "firstSample"},
+            {"removr", "multiStarSupport"},
+            {"removr", "array_canHandleTopLevelArray"},
+            {"removr", "array_removeAnArrayIndex"},
+            {"removr", "array_removeJsonArrayFields"},
+            {"defaultr", "firstSample"},
+            {"defaultr", "nestedArrays1"},
+            {"defaultr", "orOrdering"},
+            {"defaultr", "photosArray"},
+            {"defaultr", "topLevelIsArray"}
+        };
+    }
+
+    @Test( dataProvider = "getTestCaseNames" )
+    public void testInPlaceTransformsLeaveInputAlone( String transform, String testCaseName ) throws Exception {
+
+        String testPath = "/json/" + transform + "/" + testCaseName;
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( testPath + ".json" );
+
+        Object input = unmodifiable( testUnit.get( "input" ) );
+        Object spec = testUnit.get( "spec" );
+        Object expected = testUnit.get( "expected" );
+
+        Object view = CopyOnWriteJson.wrap( input );
+        Object actual = "removr".equals( transform ) ? new Removr( spec ).transform( view ) : new Defaultr( spec ).transform( view );
+
+        JoltTestUtil.runDiffy( "failed case " + testPath, expected, CopyOnWriteJson.unwrap( actual ) );
+        JoltTestUtil.runDiffy( "input was modified " + testPath, testUnit.get( "input" ), input );
+    }
+}
@@ -17,8 +17,10 @@ package com.bazaarvoice.jolt.common;
 
 import com.bazaarvoice.jolt.JoltTestUtil;
 import com.bazaarvoice.jolt.JsonUtils;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -50,4 +52,43 @@ public class DeepCopyTest {
         Object expectedModified = JsonUtils.classpathToObject( "/json/deepcopy/modifed.json" );
         JoltTestUtil.runDiffy( "Verify fiddled post deepcopy object looks correct / was modifed.", expectedModified, fiddle );
     }
+
+    @Test
+    public void compiledCopyTest() throws Exception {
+
+        Object input = JsonUtils.classpathToObject( "/json/deepcopy/original.json" );
+        DeepCopy.Copier copier = DeepCopy.compile( input );
+
+        Map<String, Object> fiddle = (Map<String, Object>) copier.copy();
+        JoltTestUtil.runDiffy( "Verify that the compiled copy did in fact make a copy.", input, fiddle );
+
+        List array = (List) fiddle.get( "array" );
+        array.add( "c" );
+        array.set( 1, 3 );
+        Map<String,Object> subMap = (Map<String,Object>) fiddle.get( "map" );
+        subMap.put("c", "c");
+        subMap.put("b", 3 );
+
+        Object unmodified = JsonUtils.classpathToObject( "/json/deepcopy/original.json" );
+        JoltTestUtil.runDiffy( "Verify that the compiled copy was actually deep / input is unmodified", unmodified, input );
+
+        // and that later copies are not affected by fiddling with an earlier one
+        JoltTestUtil.runDiffy( "Verify that each copy is independent", unmodified, copier.copy() );
+    }
+
+    @Test
+    public void compiledCopySharesOnlyImmutables() {
+
+        String tuna = "tuna";
+        Assert.assertSame( DeepCopy.compile( tuna ).copy(), tuna );
+        Integer three = 3;
+        Assert.assertSame( DeepCopy.compile( three ).copy(), three );
+        Assert.assertNull( DeepCopy.compile( null ).copy() );
+
+        // not a JSON type, so it still gets serialized
+        Date date = new Date( 0 );
+        Object copy = DeepCopy.compile( date ).copy();
+        Assert.assertEquals( copy, date );
+        Assert.assertNotSame( copy, date );
+    }
 }
@@ -127,4 +127,21 @@ public class StarDoublePathElementTest {
         Assert.assertEquals( 3, lpe.getSubKeyCount() );
 
     }
+
+    @Test
+    public void testMidMustEndBeforeSuffix() {
+
+        StarPathElement star = new StarDoublePathElement( "*.*x" );
+
+        // the only "." would leave nothing for the second * to capture
+        Assert.assertFalse( star.stringMatch( "ab.x" ) );
+        Assert.assertNull( star.match( "ab.x", null ) );
+
+        MatchedElement lpe = star.match( "a.bx", null );
+        Assert.assertEquals( "a", lpe.getSubKeyRef( 1 ) );
+        Assert.assertEquals( "b", lpe.getSubKeyRef( 2 ) );
+
+        // captures are only built once, when first referenced
+        Assert.assertSame( lpe.getSubKeyRef( 2 ), lpe.getSubKeyRef( 2 ) );
+    }
 }
@@ -20,6 +20,9 @@ import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 public class StarRegexPathElementTest {
 
     @DataProvider
@@ -60,4 +63,60 @@ public class StarRegexPathElementTest {
         Assert.assertNull( multiMetacharStarpathelement.match( "rating-$capGrp1-capGrp2", null ) );
         Assert.assertNotNull(multiMetacharStarpathelement.match( "rating-$-capGrp1-capGrp2",null) );
     }
+
+    @DataProvider
+    public Object[][] getMultiStarPatternTests() {
+        return new Object[][] {
+                {"three stars",             "a-*-*-*",   "a-b-c-d",         new String[] { "b", "c", "d" } },
+                {"reluctant backtracking",  "a-*-*-*",   "a-b-c-d-e",       new String[] { "b", "c", "d-e" } },
+                {"adjacent stars",          "x**y*",     "xabcyz",          new String[] { "a", "bc", "z" } },
+                {"suffix backtracking",     "*.*.*.end", "a.b.c.d.end",     new String[] { "a", "b", "c.d" } },
+                {"repeated separator",      "*--*--*",   "--a----b--c",     new String[] { "--a", "--b", "c" } },
+                {"four stars",              "*_*_*_*",   "q_r_s_t",         new String[] { "q", "r", "s", "t" } },
+        };
+    }
+
+    @Test( dataProvider = "getMultiStarPatternTests")
+    public void multiStarPatternTest( String testName, String spec, String dataKey, String[] expected ) {
+
+        StarPathElement star = new StarRegexPathElement( spec );
+
+        MatchedElement lpe = star.match( dataKey, null );
+
+        Assert.assertTrue( star.stringMatch( dataKey ) );
+        Assert.assertEquals( expected.length + 1, lpe.getSubKeyCount() );
+        Assert.assertEquals( dataKey, lpe.getSubKeyRef( 0 ) );
+        for ( int index = 0; index < expected.length; index++ ) {
+            Assert.assertEquals( expected[index], lpe.getSubKeyRef( index + 1 ) );
+        }
+    }
+
+    @Test
+    public void matchesReluctantRegexTest() {
+
+        String[] specs = { "*-*-*", "a*b*c", "**-*", "*.$*.*", "-*-*-*-" };
+        String[] dataKeys = { "a-b-c", "a--b--c", "---", "----", "abc", "aabbcc", "abbbcbc", "x-y", "xy-z-",
+                              "a.$b.c", ".$.$.$.", "-a-b-c-", "--a---b--" };
+
+        for ( String spec : specs ) {
+            StarPathElement star = new StarRegexPathElement( spec );
+            Pattern pattern = Pattern.compile( "^" + Pattern.quote( spec ).replace( "*", "\\E(.+?)\\Q" ) + "$" );
+
+            for ( String dataKey : dataKeys ) {
+                Matcher matcher = pattern.matcher( dataKey );
+                MatchedElement lpe = star.match( dataKey, null );
+
+                if ( ! matcher.find() ) {
+                    Assert.assertNull( lpe, spec + " should not match " + dataKey );
+                    continue;
+                }
+
+                Assert.assertNotNull( lpe, spec + " should match " + dataKey );
+                Assert.assertEquals( matcher.groupCount() + 1, lpe.getSubKeyCount() );
+                for ( int index = 1; index <= matcher.groupCount(); index++ ) {
+                    Assert.assertEquals( lpe.getSubKeyRef( index ), matcher.group( index ), spec + " on " + dataKey );
+                }
+            }
+        }
+    }
 }
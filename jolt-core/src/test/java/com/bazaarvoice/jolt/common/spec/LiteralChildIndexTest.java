@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.common.spec;
+
+import com.bazaarvoice.jolt.common.ExecutionStrategy;
+import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.common.pathelement.MatchablePathElement;
+import com.bazaarvoice.jolt.common.tree.MatchedElement;
+import com.bazaarvoice.jolt.common.tree.WalkedPath;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LiteralChildIndexTest {
+
+    @Test
+    public void testSpecsThatDoNotBuildAnIndexAreWalkedByTheirLiteralChildren() {
+
+        final Map<String, BaseSpec> literalChildren = new LinkedHashMap<>();
+        literalChildren.put( "tuna", recordingSpec() );
+        literalChildren.put( "1", recordingSpec() );
+
+        // an OrderedCompositeSpec written before getLiteralChildIndex() existed
+        OrderedCompositeSpec spec = new OrderedCompositeSpec() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Map<String, ? extends BaseSpec> getLiteralChildren() {
+                return literalChildren;
+            }
+
+            @Override
+            public List<? extends BaseSpec> getComputedChildren() {
+                return Collections.emptyList();
+            }
+
+            @Override
+            public ExecutionStrategy determineExecutionStrategy() {
+                return ExecutionStrategy.AVAILABLE_LITERALS;
+            }
+
+            @Override
+            public MatchablePathElement getPathElement() {
+                return null;
+            }
+
+            @Override
+            public boolean apply( String inputKey, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+                return false;
+            }
+        };
+
+        Assert.assertNull( spec.getLiteralChildIndex() );
+
+        Map<String, Object> output = new LinkedHashMap<>();
+        ExecutionStrategy.AVAILABLE_LITERALS.process( spec, Optional.<Object>of( Collections.singletonMap( "tuna", "fish" ) ),
+                new WalkedPath(), output, null );
+        Assert.assertEquals( output, Collections.singletonMap( "tuna", "fish" ) );
+
+        output = new LinkedHashMap<>();
+        ExecutionStrategy.AVAILABLE_LITERALS.process( spec, Optional.<Object>of( Arrays.<Object>asList( "a", "b" ) ),
+                new WalkedPath( null, new MatchedElement( "root" ) ), output, null );
+        Assert.assertEquals( output, Collections.singletonMap( "1", "b" ) );
+
+        output = new LinkedHashMap<>();
+        ExecutionStrategy.ALL_LITERALS.process( spec, Optional.<Object>of( Arrays.<Object>asList( "a", "b" ) ),
+                new WalkedPath( null, new MatchedElement( "root" ) ), output, null );
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put( "tuna", "missing" );
+        expected.put( "1", "b" );
+        Assert.assertEquals( output, expected );
+    }
+
+    @Test
+    public void testIndex() {
+
+        Map<String, BaseSpec> literalChildren = new LinkedHashMap<>();
+        literalChildren.put( "tuna", recordingSpec() );
+        literalChildren.put( "1", recordingSpec() );
+
+        LiteralChildIndex index = new LiteralChildIndex( literalChildren );
+
+        Assert.assertEquals( index.size(), 2 );
+        Assert.assertEquals( index.ordinalOf( "1" ), 1 );
+        Assert.assertEquals( index.ordinalOf( "marlin" ), -1 );
+        Assert.assertEquals( index.getKey( 0 ), "tuna" );
+        Assert.assertSame( index.getSpec( 1 ), literalChildren.get( "1" ) );
+        Assert.assertEquals( index.getArrayIndex( 0 ), Integer.MAX_VALUE );
+        Assert.assertEquals( index.getArrayIndex( 1 ), 1 );
+    }
+
+    /**
+     * @return a spec that writes what it was given to the output, under its key
+     */
+    private static BaseSpec recordingSpec() {
+        return new BaseSpec() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public MatchablePathElement getPathElement() {
+                return null;
+            }
+
+            @Override
+            public boolean apply( String inputKey, Optional<Object> inputOptional, WalkedPath walkedPath, Map<String, Object> output, Map<String, Object> context ) {
+                output.put( inputKey, inputOptional.isPresent() ? inputOptional.get() : "missing" );
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.jfr;
+
+import com.bazaarvoice.jolt.Chainr;
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.Shiftr;
+import com.bazaarvoice.jolt.chainr.metrics.ChainrStage;
+import com.bazaarvoice.jolt.common.SpecHash;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class JoltFlightRecorderTest {
+
+    private static final String TEST_PATH = "/json/chainr/integration/firstSample.json";
+
+    @Test
+    public void testSpecId() {
+        Object spec = JsonUtils.classpathToMap( TEST_PATH ).get( "spec" );
+
+        Assert.assertEquals( JoltFlightRecorder.specId( spec ).length(), 16 );
+        Assert.assertEquals( JoltFlightRecorder.specId( spec ),
+                JoltFlightRecorder.specId( JsonUtils.classpathToMap( TEST_PATH ).get( "spec" ) ) );
+        Assert.assertTrue( SpecHash.of( spec ).startsWith( JoltFlightRecorder.specId( spec ) ) );
+
+        // the same on every JVM, unlike hashCode()
+        Assert.assertEquals( JoltFlightRecorder.specId( JsonUtils.javason( "{ 'a' : 'b' }" ) ), "db4a7ecb114bc66c" );
+    }
+
+    @Test
+    public void testSpecIdIsWorkedOutOnceAndSerializedWithoutTheSpec() throws Exception {
+        Object spec = JsonUtils.javason( "{ 'a' : 'b' }" );
+        SpecId specId = SpecId.forSpec( spec );
+        Assert.assertEquals( specId.get(), "db4a7ecb114bc66c" );
+        Assert.assertSame( specId.get(), specId.get() );
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream( bytes );
+        out.writeObject( SpecId.forSpec( spec ) );
+        out.close();
+        SpecId copy = (SpecId) new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ).readObject();
+        Assert.assertEquals( copy.get(), "db4a7ecb114bc66c" );
+    }
+
+    @Test
+    public void testNothingBegunWithoutARecording() {
+        // neither Jackson nor toString() can write this out, so the test fails if anything tries to hash it
+        SpecId unhashable = SpecId.forSpec( new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError( "spec was hashed" );
+            }
+        } );
+
+        Assert.assertFalse( JoltFlightRecorder.isStageRecording() );
+        Assert.assertNull( JoltFlightRecorder.beginTransform( "t", unhashable, JsonUtils.javason( "{}" ) ) );
+        Assert.assertNull( JoltFlightRecorder.beginStage( new ChainrStage( unhashable, 0, "shift" ), JsonUtils.javason( "{}" ), -1 ) );
+    }
+
+    @Test( dependsOnMethods = "testNothingBegunWithoutARecording" )
+    public void testEventsAreRecorded() throws Exception {
+
+        Map<String, Object> testUnit = JsonUtils.classpathToMap( TEST_PATH );
+        Object spec = testUnit.get( "spec" );
+        final Object input = testUnit.get( "input" );
+        final Chainr chainr = Chainr.fromSpec( spec );
+        final Shiftr shiftr = new Shiftr( JsonUtils.javason( "{ 'a' : 'b' }" ) );
+
+        List<RecordedEvent> events;
+        JoltFlightRecorder.setCountingNodes( true );
+        try {
+            events = record( new Runnable() {
+                @Override
+                public void run() {
+                    chainr.transform( input );
+                    shiftr.transform( JsonUtils.javason( "{ 'a' : 1 }" ) );
+                }
+            } );
+        }
+        finally {
+            JoltFlightRecorder.setCountingNodes( false );
+        }
+
+        List<RecordedEvent> stageEvents = new ArrayList<>();
+        List<RecordedEvent> transformEvents = new ArrayList<>();
+        for ( RecordedEvent event : events ) {
+            if ( ChainrStageEvent.NAME.equals( event.getEventType().getName() ) ) {
+                stageEvents.add( event );
+            }
+            else if ( TransformEvent.NAME.equals( event.getEventType().getName() ) ) {
+                transformEvents.add( event );
+            }
+        }
+
+        Assert.assertEquals( stageEvents.size(), 4 );
+        String[] operations = { "shift", "default", "remove", "sort" };
+        for ( RecordedEvent event : stageEvents ) {
+            int stageIndex = event.getInt( "stageIndex" );
+            Assert.assertEquals( event.getString( "operation" ), operations[stageIndex] );
+            Assert.assertEquals( event.getString( "specId" ), JoltFlightRecorder.specId( spec ) );
+            Assert.assertTrue( event.getLong( "documentNodes" ) > 0 );
+        }
+
+        // one per Chainr stage, plus the standalone Shiftr
+        Assert.assertEquals( transformEvents.size(), 5 );
+        boolean sawStandalone = false;
+        for ( RecordedEvent event : transformEvents ) {
+            if ( JoltFlightRecorder.specId( JsonUtils.javason( "{ 'a' : 'b' }" ) ).equals( event.getString( "specId" ) ) ) {
+                sawStandalone = true;
+                Assert.assertEquals( event.getString( "transform" ), Shiftr.class.getName() );
+                Assert.assertEquals( event.getLong( "documentNodes" ), 2 );
+            }
+        }
+        Assert.assertTrue( sawStandalone );
+    }
+
+    @Test( dependsOnMethods = "testNothingBegunWithoutARecording" )
+    public void testNodesAreNotCountedByDefault() throws Exception {
+
+        Assert.assertFalse( JoltFlightRecorder.isCountingNodes() );
+
+        final Shiftr shiftr = new Shiftr( JsonUtils.javason( "{ 'a' : 'b' }" ) );
+        List<RecordedEvent> events = record( new Runnable() {
+            @Override
+            public void run() {
+                shiftr.transform( JsonUtils.javason( "{ 'a' : 1 }" ) );
+            }
+        } );
+
+        Assert.assertEquals( events.size(), 1 );
+        Assert.assertEquals( events.get( 0 ).getLong( "documentNodes" ), -1 );
+    }
+
+    private static List<RecordedEvent> record( Runnable work ) throws Exception {
+
+        try {
+            Class.forName( "jdk.jfr.Recording" );
+        }
+        catch ( ClassNotFoundException e ) {
+            throw new SkipException( "Flight Recorder is not available on this JVM" );
+        }
+
+        File dump = File.createTempFile( "jolt", ".jfr" );
+        dump.deleteOnExit();
+
+        try ( Recording recording = new Recording() ) {
+            recording.enable( ChainrStageEvent.NAME ).withoutThreshold();
+            recording.enable( TransformEvent.NAME ).withoutThreshold();
+            recording.start();
+
+            work.run();
+
+            recording.stop();
+            recording.dump( dump.toPath() );
+        }
+        return new ArrayList<>( RecordingFile.readAllEvents( dump.toPath() ) );
+    }
+}
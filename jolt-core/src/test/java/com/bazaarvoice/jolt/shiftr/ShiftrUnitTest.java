@@ -29,6 +29,7 @@ import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -72,10 +73,26 @@ public class ShiftrUnitTest {
                         "                           { \"marlin\" : [ null, null, null, { \"BBB\" : \"bar\" } ] } " +
                         "                         ] " +
                         "            }")
+            },
+            {
+                "Dead branch still blocks its siblings",
+                JsonUtils.jsonToMap("{ \"rating\" : { \"tuna-*\" : { \"value\" : null }, \"*\" : { \"value\" : \"Secondary.&1\", \"$\" : null } } }"),
+                JsonUtils.jsonToMap("{ \"rating\" : { \"tuna-a\" : { \"value\" : 1 }, \"quality\" : { \"value\" : 4 } } }"),
+                JsonUtils.jsonToMap("{ \"Secondary\" : { \"quality\" : 4 } }")
             }
         };
     }
 
+    @Test
+    public void deadSpecPathsTest() throws IOException {
+
+        Shiftr shiftr = new Shiftr( JsonUtils.jsonToMap(
+                "{ \"rating\" : { \"tuna-*\" : { \"value\" : null }, \"*\" : { \"value\" : \"Secondary.&1\", \"$\" : null } }," +
+                "  \"legacy\" : { \"*\" : { \"old\" : null } } }" ) );
+
+        Assert.assertEquals( shiftr.getDeadSpecPaths(), Arrays.asList( "rating.tuna-*", "rating.*.$", "legacy" ) );
+    }
+
     @Test(dataProvider = "shiftrTestCases")
     public void shiftrUnitTest(String testName, Map<String, Object> spec, Map<String, Object> data, Map<String, Object> expected) throws Exception {
 
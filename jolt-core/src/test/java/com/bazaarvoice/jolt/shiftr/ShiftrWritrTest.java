@@ -28,6 +28,7 @@ import com.bazaarvoice.jolt.common.tree.WalkedPath;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.List;
 
 // Todo Now that the PathElement classes have been split out (no longer inner classes)
@@ -177,4 +178,15 @@ public class ShiftrWritrTest {
         Assert.assertEquals( "3",      stringPath.get( 3 ) );
         Assert.assertEquals( "BBB",    stringPath.get( 4 ) );
     }
+
+    @Test
+    public void constantPathTest() {
+
+        // no references, so the evaluated path is resolved once and shared
+        ShiftrWriter shiftrWriter = new ShiftrWriter( "photos[3].sizes[].url" );
+
+        List<String> stringPath = shiftrWriter.evaluate( new WalkedPath() );
+        Assert.assertEquals( stringPath, Arrays.asList( "photos", "3", "sizes", "[]", "url" ) );
+        Assert.assertSame( shiftrWriter.evaluate( new WalkedPath() ), stringPath );
+    }
 }
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2013 Bazaarvoice, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bazaarvoice.jolt.traversr;
+
+import com.bazaarvoice.jolt.JsonUtils;
+import com.bazaarvoice.jolt.common.Optional;
+import com.bazaarvoice.jolt.shiftr.ShiftrTraversr;
+import com.bazaarvoice.jolt.traversr.traversal.TraversalStep;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class TraversrTest {
+
+    @Test
+    public void testGetValueDistinguishesMissingFromNull() {
+
+        Traversr<Object> traversr = new SimpleTraversr<>( "a.[1].b" );
+        Object tree = JsonUtils.javason( "{ 'a' : [ 'x', { 'b' : null } ] }" );
+
+        Assert.assertNull( traversr.getValue( tree, new Object[] { "a", 1, "b" } ) );
+        Assert.assertSame( traversr.getValue( tree, new Object[] { "a", 1, "c" } ), Traversr.MISSING );
+        Assert.assertSame( traversr.getValue( tree, new Object[] { "a", 5, "b" } ), Traversr.MISSING );
+        Assert.assertSame( traversr.getValue( tree, new Object[] { "a", -1, "b" } ), Traversr.MISSING );
+        Assert.assertSame( traversr.getValue( null, new Object[] { "a", 1, "b" } ), Traversr.MISSING );
+
+        // String array keys are still parsed
+        Assert.assertNull( traversr.getValue( tree, new Object[] { "a", "1", "b" } ) );
+    }
+
+    @Test
+    public void testSetValueCreatesContainersAndRemoveValue() {
+
+        Traversr<Object> traversr = new SimpleTraversr<>( "a.[2].b" );
+        Map<String, Object> tree = new LinkedHashMap<>();
+
+        Assert.assertEquals( traversr.setValue( tree, new Object[] { "a", 2, "b" }, "tuna" ), "tuna" );
+        Assert.assertEquals( tree, JsonUtils.javason( "{ 'a' : [ null, null, { 'b' : 'tuna' } ] }" ) );
+
+        Assert.assertEquals( traversr.removeValue( tree, new Object[] { "a", 2, "b" } ), "tuna" );
+        Assert.assertEquals( tree, JsonUtils.javason( "{ 'a' : [ null, null, { } ] }" ) );
+
+        // a get or remove never creates anything
+        Map<String, Object> empty = new LinkedHashMap<>();
+        Assert.assertSame( traversr.removeValue( empty, new Object[] { "a", 2, "b" } ), Traversr.MISSING );
+        Assert.assertTrue( empty.isEmpty() );
+
+        Assert.assertSame( traversr.setValue( null, new Object[] { "a", 2, "b" }, "tuna" ), Traversr.MISSING );
+    }
+
+    @Test
+    public void testShiftrTraversrMakesListsFromRepeatedSets() {
+
+        Traversr<Object> traversr = new ShiftrTraversr<>( "a.b" );
+        Map<String, Object> tree = new LinkedHashMap<>();
+        Object[] keys = { "a", "b" };
+
+        traversr.setValue( tree, keys, "one" );
+        traversr.setValue( tree, keys, "two" );
+        traversr.setValue( tree, keys, "three" );
+
+        Assert.assertEquals( tree, JsonUtils.javason( "{ 'a' : { 'b' : [ 'one', 'two', 'three' ] } }" ) );
+    }
+
+    @Test( expectedExceptions = TraversrException.class )
+    public void testKeyCountMismatch() {
+        new SimpleTraversr<>( "a.b" ).getValue( new LinkedHashMap<>(), new Object[] { "a" } );
+    }
+
+    /**
+     * A subclass that predates the raw value hooks, and only implements the Optional ones.
+     */
+    private static class PrefixingTraversr extends Traversr<Object> {
+
+        private PrefixingTraversr( String humanPath ) {
+            super( humanPath );
+        }
+
+        @Override
+        public Optional<Object> handleFinalSet( TraversalStep traversalStep, Object tree, String key, Object data ) {
+            return traversalStep.overwriteSet( tree, key, "prefix-" + data );
+        }
+
+        @Override
+        public Optional<Object> handleIntermediateGet( TraversalStep traversalStep, Object tree, String key, TraversalStep.Operation op ) {
+            Optional<Object> optSub = traversalStep.get( tree, key );
+            if ( optSub.get() == null && op == TraversalStep.Operation.SET ) {
+                Object sub = traversalStep.getChild().newContainer();
+                traversalStep.overwriteSet( tree, key, sub );
+                return Optional.of( sub );
+            }
+            return optSub;
+        }
+    }
+
+    @Test
+    public void testOptionalHooksStillUsed() {
+
+        Traversr<Object> traversr = new PrefixingTraversr( "a.[0]" );
+        Map<String, Object> tree = new LinkedHashMap<>();
+
+        Assert.assertEquals( traversr.setValue( tree, new Object[] { "a", 0 }, "tuna" ), "prefix-tuna" );
+        Assert.assertEquals( traversr.set( tree, Arrays.asList( "a", "1" ), "marlin" ).get(), "prefix-marlin" );
+        Assert.assertEquals( tree, JsonUtils.javason( "{ 'a' : [ 'prefix-tuna', 'prefix-marlin' ] }" ) );
+        Assert.assertFalse( traversr.get( tree, Arrays.asList( "b", "0" ) ).isPresent() );
+    }
+
+    @Test
+    public void testBatchTraversalMatchesSerialWrites() {
+
+        List<Traversr<Object>> traversrs = new ArrayList<>();
+        List<Object[]> keys = new ArrayList<>();
+
+        // shared prefixes, a repeated path, an auto expand array, and a path that goes through a leaf
+        traversrs.add( new ShiftrTraversr<>( "a.b.[0].x" ) );  keys.add( new Object[] { "a", "b", 0, "x" } );
+        traversrs.add( new ShiftrTraversr<>( "a.b.[0].y" ) );  keys.add( new Object[] { "a", "b", "0", "y" } );
+        traversrs.add( new ShiftrTraversr<>( "a.b.[0].y" ) );  keys.add( new Object[] { "a", "b", 0, "y" } );
+        traversrs.add( new ShiftrTraversr<>( "a.b.[1]" ) );    keys.add( new Object[] { "a", "b", 1 } );
+        traversrs.add( new ShiftrTraversr<>( "a.c.[].z" ) );   keys.add( new Object[] { "a", "c", "[]", "z" } );
+        traversrs.add( new ShiftrTraversr<>( "a.c.[].z" ) );   keys.add( new Object[] { "a", "c", "[]", "z" } );
+        traversrs.add( new ShiftrTraversr<>( "a.d" ) );        keys.add( new Object[] { "a", "d" } );
+        traversrs.add( new ShiftrTraversr<>( "a.d.e" ) );      keys.add( new Object[] { "a", "d", "e" } );
+        traversrs.add( new ShiftrTraversr<>( "a.f.g" ) );      keys.add( new Object[] { "a", "f", "g" } );
+        traversrs.add( new ShiftrTraversr<>( "a.f.[0]" ) );    keys.add( new Object[] { "a", "f", 0 } );
+        traversrs.add( new ShiftrTraversr<>( "h" ) );          keys.add( new Object[] { "h" } );
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        for ( int index = 0; index < keys.size(); index++ ) {
+            traversrs.get( index ).setValue( expected, keys.get( index ), "v" + index );
+        }
+
+        Map<String, Object> actual = new LinkedHashMap<>();
+        BatchTraversal batch = new BatchTraversal( actual );
+        for ( int index = 0; index < keys.size(); index++ ) {
+            batch.set( traversrs.get( index ), keys.get( index ), "v" + index );
+        }
+
+        Assert.assertEquals( actual, expected );
+        // key order matters too
+        Assert.assertEquals( JsonUtils.toJsonString( actual ), JsonUtils.toJsonString( expected ) );
+
+        for ( int index = 0; index < keys.size(); index++ ) {
+            Assert.assertEquals( batch.get( traversrs.get( index ), keys.get( index ) ),
+                                 traversrs.get( index ).getValue( expected, keys.get( index ) ) );
+        }
+    }
+
+    @Test
+    public void testSetValuesAndGetValues() {
+
+        Traversr<Object> traversr = new SimpleTraversr<>( "a.b.[&].c" );
+        List<Object[]> keys = new ArrayList<>();
+        List<Object> data = new ArrayList<>();
+        for ( int index = 0; index < 3; index++ ) {
+            keys.add( new Object[] { "a", "b", index, "c" } );
+            data.add( index );
+        }
+
+        Map<String, Object> tree = new LinkedHashMap<>();
+        traversr.setValues( tree, keys, data );
+
+        Assert.assertEquals( tree, JsonUtils.javason( "{ 'a' : { 'b' : [ { 'c' : 0 }, { 'c' : 1 }, { 'c' : 2 } ] } }" ) );
+        Assert.assertEquals( traversr.getValues( tree, keys ), data.toArray() );
+    }
+}
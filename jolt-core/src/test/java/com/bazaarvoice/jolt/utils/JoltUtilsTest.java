@@ -164,4 +164,21 @@ public class JoltUtilsTest {
         Assert.assertTrue(noCompactionSize >= compactedSize);
         Assert.assertTrue(diffy.diff(output, source).isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStoreAllMatchesStore() {
+        List<Object[]> keyChains = JoltUtils.listKeyChains(jsonSource);
+        List<Object> values = new LinkedList<>();
+        Object expected = Maps.newHashMap();
+        for(Object[] paths : keyChains) {
+            values.add(navigate(jsonSource, paths));
+            JoltUtils.store(expected, navigate(jsonSource, paths), paths);
+        }
+
+        Object actual = Maps.newHashMap();
+        JoltUtils.storeAll(actual, keyChains, values);
+
+        Assert.assertTrue(diffy.diff(expected, actual).isEmpty());
+        Assert.assertTrue(diffy.diff(jsonSource, actual).isEmpty());
+    }
+}